@@ -12,6 +12,9 @@ import de.di.duplicate_detection.RecordComparator;
 import de.di.duplicate_detection.SortedNeighborhood;
 import de.di.duplicate_detection.TransitiveClosure;
 import de.di.duplicate_detection.structures.Duplicate;
+import de.di.helper.RelationCache;
+import de.di.helper.RelationReader;
+import de.di.helper.Sampling;
 import de.di.schema_matching.FirstLineSchemaMatcher;
 import de.di.schema_matching.SecondLineSchemaMatcher;
 import de.di.schema_matching.helper.AUCPR;
@@ -22,7 +25,11 @@ import de.di.similarity_measures.Jaccard;
 import de.di.similarity_measures.Levenshtein;
 import de.di.similarity_measures.LocalitySensitiveHashing;
 import de.di.similarity_measures.SimilarityMeasure;
+import de.di.similarity_measures.helper.BBitMinHash;
+import de.di.similarity_measures.helper.MinHashScheme;
+import de.di.similarity_measures.helper.OnePermutationMinHash;
 import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.helper.UniversalMinHash;
 
 import java.io.File;
 import java.io.IOException;
@@ -78,27 +85,42 @@ public class Main {
                     System.out.println(levenshtein.calculate(commandLevenshtein.string1, commandLevenshtein.string2));
                     break;
                 case CommandLocalitySensitiveHashing.COMMAND:
-                    SimilarityMeasure localitySensitiveHashing = new LocalitySensitiveHashing(new Tokenizer(commandLocalitySensitiveHashing.tokenSize, commandLocalitySensitiveHashing.usePadding), commandLocalitySensitiveHashing.bagSemantics, commandLocalitySensitiveHashing.numHashFunctions);
+                    SimilarityMeasure localitySensitiveHashing = localitySensitiveHashingOf(commandLocalitySensitiveHashing);
                     System.out.println(localitySensitiveHashing.calculate(commandLocalitySensitiveHashing.string1, commandLocalitySensitiveHashing.string2));
                     break;
                 case CommandUCCProfiler.COMMAND:
                     UCCProfiler uccProfiler = new UCCProfiler();
+                    Sampling uccSampling = samplingOf(commandUCCProfiler.sampleSize, commandUCCProfiler.sampleHead, commandUCCProfiler.sampleSeed);
                     List<UCC> uccResult = new ArrayList<>();
-                    for (Relation relation : Relation.readAllRelationsIn(commandUCCProfiler.inputPath, commandUCCProfiler.hasHeader, commandUCCProfiler.separator.charAt(0), StandardCharsets.UTF_8))
+                    for (Relation relation : readAllRelationsIn(commandUCCProfiler.inputPath, commandUCCProfiler.hasHeader, commandUCCProfiler.separator.charAt(0), commandUCCProfiler.parallelism, commandUCCProfiler.cacheDir, commandUCCProfiler.offHeapDir, uccSampling))
                         uccResult.addAll(uccProfiler.profile(relation));
+                    if (uccSampling != null && commandUCCProfiler.verify) {
+                        List<UCC> verifiedUccs = new ArrayList<>();
+                        for (Relation relation : readAllRelationsIn(commandUCCProfiler.inputPath, commandUCCProfiler.hasHeader, commandUCCProfiler.separator.charAt(0), commandUCCProfiler.parallelism, commandUCCProfiler.cacheDir, commandUCCProfiler.offHeapDir, null))
+                            verifiedUccs.addAll(uccProfiler.verify(uccResult, relation));
+                        System.out.println("Verified " + verifiedUccs.size() + " of " + uccResult.size() + " sampled UCCs");
+                        uccResult = verifiedUccs;
+                    }
                     uccResult.forEach(System.out::println);
                     break;
                 case CommandINDProfiler.COMMAND:
                     INDProfiler indProfiler = new INDProfiler();
-                    List<Relation> relations = Relation.readAllRelationsIn(commandINDProfiler.inputPath, commandINDProfiler.hasHeader, commandINDProfiler.separator.charAt(0), StandardCharsets.UTF_8);
+                    Sampling indSampling = samplingOf(commandINDProfiler.sampleSize, commandINDProfiler.sampleHead, commandINDProfiler.sampleSeed);
+                    List<Relation> relations = readAllRelationsIn(commandINDProfiler.inputPath, commandINDProfiler.hasHeader, commandINDProfiler.separator.charAt(0), commandINDProfiler.parallelism, commandINDProfiler.cacheDir, commandINDProfiler.offHeapDir, indSampling);
                     List<IND> indResult = indProfiler.profile(relations, commandINDProfiler.discoverNary);
+                    if (indSampling != null && commandINDProfiler.verify) {
+                        List<Relation> allRelations = readAllRelationsIn(commandINDProfiler.inputPath, commandINDProfiler.hasHeader, commandINDProfiler.separator.charAt(0), commandINDProfiler.parallelism, commandINDProfiler.cacheDir, commandINDProfiler.offHeapDir, null);
+                        List<IND> verifiedInds = indProfiler.verify(indResult, allRelations);
+                        System.out.println("Verified " + verifiedInds.size() + " of " + indResult.size() + " sampled INDs");
+                        indResult = verifiedInds;
+                    }
                     indResult.forEach(System.out::println);
                     break;
                 case CommandFirstLineSchemaMatcher.COMMAND:
-                    runMatchingFor(commandFirstLineSchemaMatcher.scenarioPath, false);
+                    runMatchingFor(commandFirstLineSchemaMatcher.scenarioPath, false, commandFirstLineSchemaMatcher.cacheDir, samplingOf(commandFirstLineSchemaMatcher.sampleSize, commandFirstLineSchemaMatcher.sampleHead, commandFirstLineSchemaMatcher.sampleSeed));
                     break;
                 case CommandSecondLineSchemaMatcher.COMMAND:
-                    runMatchingFor(commandSecondLineSchemaMatcher.scenarioPath, true);
+                    runMatchingFor(commandSecondLineSchemaMatcher.scenarioPath, true, commandSecondLineSchemaMatcher.cacheDir, samplingOf(commandSecondLineSchemaMatcher.sampleSize, commandSecondLineSchemaMatcher.sampleHead, commandSecondLineSchemaMatcher.sampleSeed));
                     break;
                 case CommandDuplicateDetection.COMMAND:
                     Relation relation = new Relation(commandDuplicateDetection.scenarioPath, commandDuplicateDetection.hasHeader, commandDuplicateDetection.separator.charAt(0), StandardCharsets.ISO_8859_1);
@@ -179,8 +201,17 @@ public class Main {
         @Parameter(names = {"--usePadding"}, description = "Specification of whether or not padding should be used", required = false, arity = 1)
         boolean usePadding = false;
 
-        @Parameter(names = {"--numHashFunctions"}, description = "Specification of the number of minHash functions to be used; must be smaller or equal to the tokenSize", required = false, arity = 1)
+        @Parameter(names = {"--numHashFunctions"}, description = "Specification of the number of minHash functions to be used; must be smaller or equal to the tokenSize for the positional minHash", required = false, arity = 1)
         int numHashFunctions = 2;
+
+        @Parameter(names = {"--minHash"}, description = "MinHash scheme that calculates the signatures: positional, universal (k seeded hash functions), or onePermutation (one hash function with densification)", required = false, arity = 1)
+        String minHash = "positional";
+
+        @Parameter(names = {"--seed"}, description = "Seed of the universal and onePermutation minHash schemes", required = false, arity = 1)
+        long seed = 42;
+
+        @Parameter(names = {"--numBits"}, description = "Number of bits (1 to 16) that the universal and onePermutation minHash schemes keep of every signature slot; 0 keeps the full slots", required = false, arity = 1)
+        int numBits = 0;
     }
 
     @Parameters(commandDescription = "Execute the UCCProfiler data profiling algorithm.")
@@ -196,6 +227,27 @@ public class Main {
 
         @Parameter(names = {"--separator"}, description = "File separator character", required = false, arity = 1)
         String separator = ";";
+
+        @Parameter(names = {"--parallelism"}, description = "Maximum number of input files that are loaded concurrently", required = false, arity = 1)
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        @Parameter(names = {"--cacheDir"}, description = "Directory for binary caches of parsed input files; no caching if not given", required = false, arity = 1)
+        String cacheDir = null;
+
+        @Parameter(names = {"--offHeapDir"}, description = "Directory for memory-mapped storage of the loaded relations; relations are kept on the heap if not given", required = false, arity = 1)
+        String offHeapDir = null;
+
+        @Parameter(names = {"--sampleSize"}, description = "Number of records to sample per input file; all records are loaded if not given", required = false, arity = 1)
+        int sampleSize = 0;
+
+        @Parameter(names = {"--sampleHead"}, description = "Flag to sample the first records of every file instead of a random sample", required = false, arity = 1)
+        boolean sampleHead = false;
+
+        @Parameter(names = {"--sampleSeed"}, description = "Seed of the random sample", required = false, arity = 1)
+        long sampleSeed = 42;
+
+        @Parameter(names = {"--verify"}, description = "Flag to verify the results of a sample against all records", required = false, arity = 1)
+        boolean verify = false;
     }
 
     @Parameters(commandDescription = "Execute the INDProfiler data profiling algorithm.")
@@ -214,6 +266,27 @@ public class Main {
 
         @Parameter(names = {"--discoverNary"}, description = "Flag to indicate whether n-ary INDs should be discovered as well", required = false, arity = 1)
         boolean discoverNary = false;
+
+        @Parameter(names = {"--parallelism"}, description = "Maximum number of input files that are loaded concurrently", required = false, arity = 1)
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        @Parameter(names = {"--cacheDir"}, description = "Directory for binary caches of parsed input files; no caching if not given", required = false, arity = 1)
+        String cacheDir = null;
+
+        @Parameter(names = {"--offHeapDir"}, description = "Directory for memory-mapped storage of the loaded relations; relations are kept on the heap if not given", required = false, arity = 1)
+        String offHeapDir = null;
+
+        @Parameter(names = {"--sampleSize"}, description = "Number of records to sample per input file; all records are loaded if not given", required = false, arity = 1)
+        int sampleSize = 0;
+
+        @Parameter(names = {"--sampleHead"}, description = "Flag to sample the first records of every file instead of a random sample", required = false, arity = 1)
+        boolean sampleHead = false;
+
+        @Parameter(names = {"--sampleSeed"}, description = "Seed of the random sample", required = false, arity = 1)
+        long sampleSeed = 42;
+
+        @Parameter(names = {"--verify"}, description = "Flag to verify the results of a sample against all records", required = false, arity = 1)
+        boolean verify = false;
     }
 
     @Parameters(commandDescription = "Execute the FirstLineSchemaMatcher algorithm.")
@@ -223,6 +296,18 @@ public class Main {
 
         @Parameter(names = {"--scenarioPath"}, description = "Path of the matching scenario", required = true, arity = 1)
         String scenarioPath;
+
+        @Parameter(names = {"--cacheDir"}, description = "Directory for binary caches of parsed input files; no caching if not given", required = false, arity = 1)
+        String cacheDir = null;
+
+        @Parameter(names = {"--sampleSize"}, description = "Number of records to sample per input file; all records are loaded if not given", required = false, arity = 1)
+        int sampleSize = 0;
+
+        @Parameter(names = {"--sampleHead"}, description = "Flag to sample the first records of every file instead of a random sample", required = false, arity = 1)
+        boolean sampleHead = false;
+
+        @Parameter(names = {"--sampleSeed"}, description = "Seed of the random sample", required = false, arity = 1)
+        long sampleSeed = 42;
     }
 
     @Parameters(commandDescription = "Execute the SecondLineSchemaMatcher algorithm.")
@@ -232,6 +317,18 @@ public class Main {
 
         @Parameter(names = {"--scenarioPath"}, description = "Path of the matching scenario", required = true, arity = 1)
         String scenarioPath;
+
+        @Parameter(names = {"--cacheDir"}, description = "Directory for binary caches of parsed input files; no caching if not given", required = false, arity = 1)
+        String cacheDir = null;
+
+        @Parameter(names = {"--sampleSize"}, description = "Number of records to sample per input file; all records are loaded if not given", required = false, arity = 1)
+        int sampleSize = 0;
+
+        @Parameter(names = {"--sampleHead"}, description = "Flag to sample the first records of every file instead of a random sample", required = false, arity = 1)
+        boolean sampleHead = false;
+
+        @Parameter(names = {"--sampleSeed"}, description = "Seed of the random sample", required = false, arity = 1)
+        long sampleSeed = 42;
     }
 
     @Parameters(commandDescription = "Execute the entire duplicate detection pipeline.")
@@ -255,7 +352,11 @@ public class Main {
         int windowSize = 5;
     }
 
-    private static void runMatchingFor(String scenarioPath, boolean withSecondLineMatcher) {
+    private static void runMatchingFor(String scenarioPath, boolean withSecondLineMatcher, String cacheDir, Sampling sampling) {
+        // Only the source and target relations are sampled; the ground truth always needs to be complete
+        RelationReader reader = new RelationReader(true, ',', StandardCharsets.UTF_8, Runtime.getRuntime().availableProcessors(), relationCacheOf(cacheDir)).withSampling(sampling);
+        RelationReader groundReader = new RelationReader(false, ',', StandardCharsets.UTF_8, Runtime.getRuntime().availableProcessors(), relationCacheOf(cacheDir));
+
         List<Path> sources = scanFiles(scenarioPath + File.separator + "source");
         List<Path> targets = scanFiles(scenarioPath + File.separator + "target");
 
@@ -270,9 +371,9 @@ public class Main {
                     continue;
 
                 // Load the relations and ground truth data
-                Relation sourceRelation = new Relation(source.toString(), true, ',', StandardCharsets.UTF_8);
-                Relation targetRelation = new Relation(target.toString(), true, ',', StandardCharsets.UTF_8);
-                Relation groundRelation = new Relation(groundTruth.toString(), false, ',', StandardCharsets.UTF_8);
+                Relation sourceRelation = reader.read(source);
+                Relation targetRelation = reader.read(target);
+                Relation groundRelation = groundReader.read(groundTruth);
 
                 // Calculate first-line matching
                 FirstLineSchemaMatcher firstMatcher = new FirstLineSchemaMatcher();
@@ -311,9 +412,49 @@ public class Main {
         }
     }
 
+    private static List<Relation> readAllRelationsIn(String folderPath, boolean hasHeader, char separator, int parallelism, String cacheDir, String offHeapDir, Sampling sampling) {
+        Path offHeapDirectory = (offHeapDir == null) ? null : Path.of(offHeapDir);
+        RelationReader reader = new RelationReader(hasHeader, separator, StandardCharsets.UTF_8, Runtime.getRuntime().availableProcessors(), relationCacheOf(cacheDir), offHeapDirectory).withSampling(sampling);
+        List<Relation> relations = reader.readAll(folderPath, parallelism);
+        int i = 0;
+        for (Map.Entry<Path, Long> loadTime : reader.getLoadTimes().entrySet())
+            System.out.println("Loaded " + loadTime.getKey() + " in " + loadTime.getValue() + " ms; memory: " + relations.get(i++).getMemoryFootprint());
+        return relations;
+    }
+
+    private static Sampling samplingOf(int sampleSize, boolean sampleHead, long sampleSeed) {
+        if (sampleSize <= 0)
+            return null;
+        return sampleHead ? Sampling.head(sampleSize) : Sampling.reservoir(sampleSize, sampleSeed);
+    }
+
+    private static LocalitySensitiveHashing localitySensitiveHashingOf(CommandLocalitySensitiveHashing command) {
+        Tokenizer tokenizer = new Tokenizer(command.tokenSize, command.usePadding);
+        MinHashScheme minHash;
+        switch (command.minHash) {
+            case "positional":
+                return new LocalitySensitiveHashing(tokenizer, command.bagSemantics, command.numHashFunctions);
+            case "universal":
+                minHash = new UniversalMinHash(command.numHashFunctions, command.seed);
+                break;
+            case "onePermutation":
+                minHash = new OnePermutationMinHash(command.numHashFunctions, command.seed);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown minHash scheme " + command.minHash + "; use positional, universal, or onePermutation");
+        }
+        if (command.numBits > 0)
+            return new LocalitySensitiveHashing(tokenizer, command.bagSemantics, new BBitMinHash(minHash, command.numBits));
+        return new LocalitySensitiveHashing(tokenizer, command.bagSemantics, minHash);
+    }
+
+    private static RelationCache relationCacheOf(String cacheDir) {
+        return (cacheDir == null) ? null : new RelationCache(Path.of(cacheDir));
+    }
+
     private static List<Path> scanFiles(String folderPath) {
         try (Stream<Path> paths = Files.walk(Paths.get(folderPath))) {
-            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+            return paths.filter(Files::isRegularFile).filter(path -> !RelationCache.isCacheFile(path)).collect(Collectors.toList());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
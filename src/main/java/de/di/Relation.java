@@ -1,43 +1,96 @@
 package de.di;
 
-import com.opencsv.CSVParser;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
-import com.opencsv.enums.CSVReaderNullFieldIndicator;
-import com.opencsv.exceptions.CsvValidationException;
-import lombok.AllArgsConstructor;
+import de.di.helper.RelationCursor;
+import de.di.helper.RelationListener;
+import de.di.helper.RelationReader;
+import de.di.helper.Sampling;
+import de.di.structures.AppendableColumn;
+import de.di.structures.ByteColumn;
+import de.di.structures.ColumnType;
+import de.di.structures.DictionaryColumn;
+import de.di.structures.EncodedColumn;
+import de.di.structures.MemoryFootprint;
+import de.di.structures.OffHeapColumn;
+import de.di.structures.TypedColumn;
+import lombok.AccessLevel;
 import lombok.Getter;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * A Relation is a named table of string values. Internally, the relation is stored column-wise: every attribute is an
+ * EncodedColumn, i.e., codes plus a dictionary of the attribute's distinct values, which are kept either as heap
+ * Strings (DictionaryColumn), as heap bytes that are decoded on request (ByteColumn) or in memory-mapped files
+ * (OffHeapColumn). The row-wise (getRecords()) and column-wise (getColumns()) String views are only materialized on
+ * request. A relation can grow by appending records, which notifies the registered RelationListeners.
+ */
 @Getter
-@AllArgsConstructor
 public class Relation {
 
-    private String name;
-    private String[] attributes;
-    private String[][] records;
+    private final String name;
+    private final String[] attributes;
+
+    // The dictionary-encoded values of every attribute; this is the actual storage of the relation.
+    @Getter(AccessLevel.NONE)
+    private final EncodedColumn[] encodedColumns;
+
+    // The number of records in this relation, which grows with every append.
+    private volatile int numRecords;
+
+    // The row-wise view on the values, which is materialized lazily on the first call of getRecords().
+    @Getter(AccessLevel.NONE)
+    private volatile String[][] records;
+
+    // The column-wise view on the values, whose columns are materialized lazily on their first request.
+    @Getter(AccessLevel.NONE)
+    private final AtomicReferenceArray<String[]> columns;
+
+    // The typed view on every attribute, whose types are inferred lazily on their first request.
+    @Getter(AccessLevel.NONE)
+    private final AtomicReferenceArray<TypedColumn> typedColumns;
+
+    // The listeners that are notified about appended records.
+    @Getter(AccessLevel.NONE)
+    private final List<RelationListener> listeners = new CopyOnWriteArrayList<>();
 
     public static List<Relation> readAllRelationsIn(String folderPath, boolean hasHeader, char separator, Charset charset) {
-        try (Stream<Path> paths = Files.walk(Paths.get(folderPath))) {
-            return paths.filter(Files::isRegularFile)
-                    .map(filePath -> new Relation(filePath, hasHeader, separator, charset))
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        return readAllRelationsIn(folderPath, hasHeader, separator, charset, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static List<Relation> readAllRelationsIn(String folderPath, boolean hasHeader, char separator, Charset charset, int parallelism) {
+        return new RelationReader(hasHeader, separator, charset).readAll(folderPath, parallelism);
+    }
+
+    public Relation(String name, String[] attributes, String[][] records) {
+        this.name = name;
+        this.attributes = attributes;
+        this.numRecords = records.length;
+        this.encodedColumns = new EncodedColumn[attributes.length];
+        for (int attribute = 0; attribute < attributes.length; attribute++) {
+            DictionaryColumn.Builder builder = new DictionaryColumn.Builder(records.length);
+            for (String[] record : records)
+                builder.add((record != null && attribute < record.length) ? record[attribute] : "");
+            this.encodedColumns[attribute] = builder.build();
         }
+        this.columns = new AtomicReferenceArray<>(attributes.length);
+        this.typedColumns = new AtomicReferenceArray<>(attributes.length);
+    }
+
+    public Relation(String name, String[] attributes, EncodedColumn[] encodedColumns) {
+        this.name = name;
+        this.attributes = attributes;
+        // The columns are copied into an array of the interface type, so that appends can replace them
+        this.encodedColumns = Arrays.copyOf(encodedColumns, encodedColumns.length, EncodedColumn[].class);
+        this.numRecords = (encodedColumns.length == 0) ? 0 : encodedColumns[0].size();
+        this.columns = new AtomicReferenceArray<>(encodedColumns.length);
+        this.typedColumns = new AtomicReferenceArray<>(encodedColumns.length);
     }
 
     public Relation(String filePath) {
@@ -49,64 +102,299 @@ public class Relation {
     }
 
     public Relation(Path filePath, boolean hasHeader, char separator, Charset charset) {
-        this.name = filePath.getFileName().toString().split("\\.")[0];
-
-        CSVParser parser = new CSVParserBuilder()
-                .withSeparator(separator)
-                .withQuoteChar('"')
-                .withEscapeChar('\\')
-                .withStrictQuotes(false)
-                .withIgnoreLeadingWhiteSpace(false)
-                .withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
-                .build();
-
-        ArrayList<String[]> records;
-        try {
-            BufferedReader buffer = Files.newBufferedReader(filePath, charset);
-            CSVReader reader = new CSVReaderBuilder(buffer).withCSVParser(parser).build();
-
-            if (hasHeader)
-                this.attributes = reader.readNext();
-
-            records = new ArrayList<>();
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                for (int i = 0; i < line.length; i++)
-                    if (line[i] == null)
-                        line[i] = "";
-                records.add(line);
-            }
-            reader.close();
-        } catch (CsvValidationException | IOException e) {
-            throw new RuntimeException(e);
+        this(new RelationReader(hasHeader, separator, charset).read(filePath));
+    }
+
+    /**
+     * Loads a sample of the records of the provided CSV file, e.g., to profile large files approximately.
+     * @param filePath The CSV file to read.
+     * @param hasHeader Whether the first record of the file holds the attribute names.
+     * @param separator The separator of the file's values.
+     * @param charset The charset of the file.
+     * @param sampling The sampling that selects the loaded records.
+     */
+    public Relation(Path filePath, boolean hasHeader, char separator, Charset charset, Sampling sampling) {
+        this(new RelationReader(hasHeader, separator, charset).withSampling(sampling).read(filePath));
+    }
+
+    private Relation(Relation relation) {
+        this.name = relation.name;
+        this.attributes = relation.attributes;
+        this.encodedColumns = relation.encodedColumns;
+        this.numRecords = relation.numRecords;
+        this.columns = relation.columns;
+        this.typedColumns = relation.typedColumns;
+    }
+
+    /**
+     * Appends the provided records to this relation. The existing records keep their indexes and the appended records
+     * receive the next indexes in order, so record indexes are stable across appends. Missing values are encoded as
+     * empty strings and surplus values are dropped, as for loaded relations. Columns are converted into appendable
+     * heap columns on the first append. The materialized views are discarded, because they do not hold the appended
+     * records, and all registered listeners are notified once the records have been appended. Appends must not run
+     * concurrently with reads of this relation.
+     * @param records The records to append.
+     * @return The index of the first appended record.
+     */
+    public synchronized int appendRecords(String[][] records) {
+        int fromIndex = this.numRecords;
+        for (int attribute = 0; attribute < this.encodedColumns.length; attribute++) {
+            if (!(this.encodedColumns[attribute] instanceof AppendableColumn))
+                this.encodedColumns[attribute] = new AppendableColumn(this.encodedColumns[attribute]);
+            AppendableColumn column = (AppendableColumn) this.encodedColumns[attribute];
+            for (String[] record : records)
+                column.add((record != null && attribute < record.length) ? record[attribute] : "");
+        }
+        this.numRecords = fromIndex + records.length;
+
+        this.records = null;
+        for (int attribute = 0; attribute < this.encodedColumns.length; attribute++) {
+            this.columns.set(attribute, null);
+            this.typedColumns.set(attribute, null);
+        }
+        for (RelationListener listener : this.listeners)
+            listener.recordsAppended(this, fromIndex, this.numRecords);
+        return fromIndex;
+    }
+
+    /**
+     * Registers the provided listener, which is notified about all records that are appended from now on.
+     * @param listener The listener to register.
+     */
+    public void addListener(RelationListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters the provided listener.
+     * @param listener The listener to unregister.
+     */
+    public void removeListener(RelationListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Returns the dictionary-encoded column of the provided attribute.
+     * @param attribute The index of the requested attribute.
+     * @return The dictionary-encoded column of the provided attribute.
+     */
+    public EncodedColumn getEncodedColumn(int attribute) {
+        return this.encodedColumns[attribute];
+    }
+
+    /**
+     * Returns the dictionary codes of the provided attribute's values in record order. Two records have equal values
+     * in this attribute if and only if they have equal codes.
+     * @param attribute The index of the requested attribute.
+     * @return The dictionary codes of the provided attribute.
+     */
+    public int[] getCodes(int attribute) {
+        return this.encodedColumns[attribute].getCodes();
+    }
+
+    /**
+     * Returns the distinct values of the provided attribute; the index of a value in the result is its code.
+     * @param attribute The index of the requested attribute.
+     * @return The distinct values of the provided attribute.
+     */
+    public String[] getDictionary(int attribute) {
+        return this.encodedColumns[attribute].getDictionary();
+    }
+
+    /**
+     * Returns the typed view on the provided attribute. The attribute's type is inferred from its distinct values on
+     * the first request and shared by all subsequent calls.
+     * @param attribute The index of the requested attribute.
+     * @return The typed view on the provided attribute.
+     */
+    public TypedColumn getTypedColumn(int attribute) {
+        TypedColumn column = this.typedColumns.get(attribute);
+        if (column == null) {
+            column = TypedColumn.infer(this.encodedColumns[attribute]);
+            if (!this.typedColumns.compareAndSet(attribute, null, column))
+                column = this.typedColumns.get(attribute);
         }
+        return column;
+    }
 
-        this.records = new String[records.size()][];
-        for (int i = 0; i < records.size(); i++)
-            this.records[i] = records.get(i);
+    /**
+     * Infers the types of all attributes at once, e.g., right after loading, so that later typed accesses do not pay
+     * for the inference.
+     * @return This relation.
+     */
+    public Relation inferTypes() {
+        for (int attribute = 0; attribute < this.encodedColumns.length; attribute++)
+            this.getTypedColumn(attribute);
+        return this;
+    }
+
+    /**
+     * Returns the inferred type of the provided attribute.
+     * @param attribute The index of the requested attribute.
+     * @return The type of the provided attribute.
+     */
+    public ColumnType getType(int attribute) {
+        return this.getTypedColumn(attribute).getType();
+    }
+
+    /**
+     * Checks whether the value of the provided attribute in the provided record is null, i.e., empty.
+     * @param attribute The index of the attribute.
+     * @param recordIndex The index of the record.
+     * @return true if the value is null.
+     */
+    public boolean isNull(int attribute, int recordIndex) {
+        return this.getTypedColumn(attribute).isNull(recordIndex);
+    }
+
+    /**
+     * Returns the integral value of the provided INTEGER or DATE attribute in the provided record.
+     * @param attribute The index of the attribute.
+     * @param recordIndex The index of the record, whose value must not be null.
+     * @return The integral value; DATE values are returned as epoch days.
+     */
+    public long getLong(int attribute, int recordIndex) {
+        return this.getTypedColumn(attribute).getLong(recordIndex);
+    }
 
-        if (!hasHeader && this.records.length != 0) {
-            this.attributes = new String[this.records[0].length];
-            for (int i = 0; i < this.records[0].length; i++)
-                this.attributes[i] = String.valueOf(i);
+    /**
+     * Returns the numeric value of the provided INTEGER, DECIMAL or DATE attribute in the provided record.
+     * @param attribute The index of the attribute.
+     * @param recordIndex The index of the record, whose value must not be null.
+     * @return The numeric value; DATE values are returned as epoch days.
+     */
+    public double getDouble(int attribute, int recordIndex) {
+        return this.getTypedColumn(attribute).getDouble(recordIndex);
+    }
+
+    /**
+     * Returns the row-wise view on this relation. The view is materialized once on the first call and shared by all
+     * subsequent calls, so callers must not modify it.
+     * @return The records of this relation.
+     */
+    public String[][] getRecords() {
+        String[][] records = this.records;
+        if (records == null) {
+            records = new String[this.numRecords][];
+            for (int j = 0; j < this.numRecords; j++) {
+                records[j] = new String[this.encodedColumns.length];
+                for (int i = 0; i < this.encodedColumns.length; i++)
+                    records[j][i] = this.encodedColumns[i].get(j);
+            }
+            this.records = records;
         }
+        return records;
     }
 
+    /**
+     * Returns the column-wise view on this relation. Every column is materialized once on its first request and shared
+     * by all subsequent calls of getColumns() and getColumn(), so callers must not modify the view.
+     * @return The columns of this relation.
+     */
     public String[][] getColumns() {
-        String[][] columns = new String[this.attributes.length][];
+        String[][] columns = new String[this.encodedColumns.length][];
         for (int i = 0; i < columns.length; i++)
-            columns[i] = new String[this.records.length];
-        for (int j = 0; j < this.records.length; j++)
-            for (int i = 0; i < columns.length; i++)
-                columns[i][j] = this.records[j][i];
+            columns[i] = this.getColumn(i);
         return columns;
     }
 
+    /**
+     * Returns the values of the provided attribute in record order. The column is materialized once on the first
+     * request and shared by all subsequent calls, so callers must not modify it.
+     * @param attribute The index of the requested attribute.
+     * @return The values of the provided attribute.
+     */
+    public String[] getColumn(int attribute) {
+        String[] column = this.columns.get(attribute);
+        if (column == null) {
+            column = this.encodedColumns[attribute].decode();
+            if (!this.columns.compareAndSet(attribute, null, column))
+                column = this.columns.get(attribute);
+        }
+        return column;
+    }
+
+    /**
+     * Estimates the heap memory of this relation's dictionary-encoded storage and of its String views, which allows
+     * to judge whether materializing a view is affordable.
+     * @return The memory footprint of this relation.
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        long codeBytes = 0;
+        long dictionaryBytes = 0;
+        long offHeapBytes = 0;
+        for (EncodedColumn column : this.encodedColumns) {
+            if (column instanceof OffHeapColumn) {
+                offHeapBytes += ((OffHeapColumn) column).getOffHeapBytes();
+                continue;
+            }
+            codeBytes += MemoryFootprint.intArrayBytes(column.size());
+            if (column instanceof ByteColumn) {
+                dictionaryBytes += ((ByteColumn) column).getDictionaryBytes();
+                continue;
+            }
+            dictionaryBytes += MemoryFootprint.referenceArrayBytes(column.cardinality());
+            for (String value : column.getDictionary())
+                dictionaryBytes += MemoryFootprint.stringBytes(value);
+        }
+        long recordViewBytes = MemoryFootprint.referenceArrayBytes(this.numRecords) +
+                (long) this.numRecords * MemoryFootprint.referenceArrayBytes(this.encodedColumns.length);
+        long columnViewBytes = MemoryFootprint.referenceArrayBytes(this.encodedColumns.length) +
+                this.encodedColumns.length * MemoryFootprint.referenceArrayBytes(this.numRecords);
+
+        long materializedBytes = (this.records == null) ? 0 : recordViewBytes;
+        for (int i = 0; i < this.columns.length(); i++)
+            if (this.columns.get(i) != null)
+                materializedBytes += MemoryFootprint.referenceArrayBytes(this.numRecords);
+        return new MemoryFootprint(codeBytes, dictionaryBytes, offHeapBytes, recordViewBytes, columnViewBytes, materializedBytes);
+    }
+
+    /**
+     * Returns a cursor over the records of this relation. The records are decoded one at a time, so iterating the
+     * cursor does not materialize the row-wise view.
+     * @return A cursor over the records of this relation.
+     */
+    public RelationCursor cursor() {
+        return new RelationCursor() {
+            private int recordIndex = 0;
+
+            @Override
+            public String getName() {
+                return Relation.this.name;
+            }
+
+            @Override
+            public String[] getAttributes() {
+                return Relation.this.attributes;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.recordIndex < Relation.this.numRecords;
+            }
+
+            @Override
+            public String[] next() {
+                if (!this.hasNext())
+                    throw new NoSuchElementException();
+                String[] record = new String[Relation.this.encodedColumns.length];
+                for (int i = 0; i < record.length; i++)
+                    record[i] = Relation.this.encodedColumns[i].get(this.recordIndex);
+                this.recordIndex++;
+                return record;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append(this.name).append(Arrays.toString(this.attributes));
-        for (String[] record : this.records)
+        for (String[] record : this.getRecords())
             builder.append("\r\n").append(Arrays.toString(record));
         return builder.toString();
     }
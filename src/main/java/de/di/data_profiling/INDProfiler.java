@@ -2,6 +2,8 @@ package de.di.data_profiling;
 
 import de.di.Relation;
 import de.di.data_profiling.structures.IND;
+import de.di.helper.RelationCursor;
+import de.di.structures.TypedColumn;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -14,8 +16,6 @@ public class INDProfiler {
      * @return The list of all non-trivial unary (and n-ary) inclusion dependencies in the provided relations.
      */
     public List<IND> profile(List<Relation> relations, boolean discoverNary) {
-        List<IND> inclusionDependencies = new ArrayList<>();
-
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         //                                      DATA INTEGRATION ASSIGNMENT                                           //
         // Discover all inclusion dependencies and return them in inclusion dependencies list. The boolean flag       //
@@ -27,13 +27,91 @@ public class INDProfiler {
         if (discoverNary)
             throw new RuntimeException("Sorry, n-ary IND discovery is not supported by this solution.");
 
+        // The value sets are built once per relation from the column dictionaries, which already hold distinct values
+        List<List<Set<String>>> valueSets = relations.stream()
+                .map(this::convertToSets)
+                .collect(Collectors.toList());
+
+        // The typed views allow to prune candidates whose value ranges exclude an inclusion
+        List<List<TypedColumn>> typedColumns = relations.stream()
+                .map(INDProfiler::convertToTypedColumns)
+                .collect(Collectors.toList());
+
+        return this.discover(relations, valueSets, typedColumns);
+    }
+
+    /**
+     * Discovers all non-trivial unary inclusion dependencies in the relations of the provided cursors. Every cursor is
+     * consumed in a single pass that only keeps the distinct values of each attribute, so the relations never need to
+     * be held in memory as a whole. The discovered INDs refer to schema-only relations, i.e., relations with the name
+     * and attributes of the cursors but without records.
+     * @param cursors The cursors over the relations that should be profiled for inclusion dependencies.
+     * @return The list of all non-trivial unary inclusion dependencies in the provided relations.
+     */
+    public List<IND> profile(List<RelationCursor> cursors) {
+        List<Relation> relations = new ArrayList<>(cursors.size());
+        List<List<Set<String>>> valueSets = new ArrayList<>(cursors.size());
+        for (RelationCursor cursor : cursors) {
+            relations.add(new Relation(cursor.getName(), cursor.getAttributes(), new String[0][]));
+            valueSets.add(this.collectValueSets(cursor));
+        }
+        return this.discover(relations, valueSets, null);
+    }
+
+    /**
+     * Collects the distinct values of every attribute by consuming the provided cursor in a single pass.
+     * @param cursor The cursor over the relation whose value sets should be collected; it is closed afterwards.
+     * @return The set of distinct values of every attribute.
+     */
+    public List<Set<String>> collectValueSets(RelationCursor cursor) {
+        List<Set<String>> sets = new ArrayList<>(cursor.getAttributes().length);
+        for (int attribute = 0; attribute < cursor.getAttributes().length; attribute++)
+            sets.add(new HashSet<>());
+        try (cursor) {
+            while (cursor.hasNext()) {
+                String[] record = cursor.next();
+                for (int attribute = 0; attribute < record.length; attribute++)
+                    sets.get(attribute).add(record[attribute]);
+            }
+        }
+        return sets;
+    }
+
+    /**
+     * Verifies the provided candidate unary INDs, e.g., INDs that were discovered on samples, against the provided
+     * relations. Candidates whose relations are not among the provided relations are dropped.
+     * @param candidates The candidate INDs, whose relations are matched to the provided relations by name.
+     * @param relations The relations that the candidates are verified against.
+     * @return The candidates that hold in the provided relations, re-bound to those relations.
+     */
+    public List<IND> verify(List<IND> candidates, List<Relation> relations) {
+        Map<String, Relation> relationsByName = new HashMap<>();
+        for (Relation relation : relations)
+            relationsByName.put(relation.getName(), relation);
+
+        List<IND> inclusionDependencies = new ArrayList<>();
+        for (IND candidate : candidates) {
+            Relation lhsRelation = relationsByName.get(candidate.getLhsRelation().getName());
+            Relation rhsRelation = relationsByName.get(candidate.getRhsRelation().getName());
+            if (lhsRelation == null || rhsRelation == null)
+                continue;
+            String[] lhsValues = lhsRelation.getDictionary(candidate.getLhsAttributes().getAttributes()[0]);
+            String[] rhsValues = rhsRelation.getDictionary(candidate.getRhsAttributes().getAttributes()[0]);
+            if (lhsValues.length <= rhsValues.length && new HashSet<>(Arrays.asList(rhsValues)).containsAll(Arrays.asList(lhsValues)))
+                inclusionDependencies.add(new IND(lhsRelation, candidate.getLhsAttributes(), rhsRelation, candidate.getRhsAttributes()));
+        }
+        return inclusionDependencies;
+    }
+
+    private List<IND> discover(List<Relation> relations, List<List<Set<String>>> valueSets, List<List<TypedColumn>> typedColumns) {
+        List<IND> inclusionDependencies = new ArrayList<>();
         for (int i = 0; i < relations.size(); i++) {
             Relation relation1 = relations.get(i);
-            List<Set<String>> sets1 = convertToSets(relation1.getColumns());
+            List<Set<String>> sets1 = valueSets.get(i);
 
             for (int j = 0; j < relations.size(); j++) {
                 Relation relation2 = relations.get(j);
-                List<Set<String>> sets2 = convertToSets(relation2.getColumns());
+                List<Set<String>> sets2 = valueSets.get(j);
 
                 for (int col1 = 0; col1 < sets1.size(); col1++) {
                     Set<String> values1 = sets1.get(col1);
@@ -43,6 +121,10 @@ public class INDProfiler {
                             continue;
                         }
                         Set<String> values2 = sets2.get(col2);
+                        if (values1.size() > values2.size())
+                            continue;
+                        if (typedColumns != null && !typedColumns.get(i).get(col1).isWithinRangeOf(typedColumns.get(j).get(col2)))
+                            continue;
                         if (values2.containsAll(values1)) {
                             IND ind = new IND(relation1, col1, relation2, col2);
                             inclusionDependencies.add(ind);
@@ -55,9 +137,17 @@ public class INDProfiler {
         return inclusionDependencies;
     }
 
-    private List<Set<String>> convertToSets(String[][] columns) {
-        return Arrays.stream(columns)
-                .map(column -> new HashSet<>(new ArrayList<>(List.of(column))))
-                .collect(Collectors.toList());
+    private static List<TypedColumn> convertToTypedColumns(Relation relation) {
+        List<TypedColumn> typedColumns = new ArrayList<>(relation.getAttributes().length);
+        for (int attribute = 0; attribute < relation.getAttributes().length; attribute++)
+            typedColumns.add(relation.getTypedColumn(attribute));
+        return typedColumns;
+    }
+
+    private List<Set<String>> convertToSets(Relation relation) {
+        List<Set<String>> sets = new ArrayList<>(relation.getAttributes().length);
+        for (int attribute = 0; attribute < relation.getAttributes().length; attribute++)
+            sets.add(new HashSet<>(Arrays.asList(relation.getDictionary(attribute))));
+        return sets;
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package de.di.data_profiling;
+
+import de.di.Relation;
+import de.di.data_profiling.structures.IND;
+import de.di.helper.RelationListener;
+import de.di.structures.EncodedColumn;
+
+import java.util.*;
+
+/**
+ * An IncrementalINDProfiler maintains the unary inclusion dependencies among a fixed set of relations while records are
+ * appended to them. For every pair of attributes, it counts the distinct values of the first attribute that are missing
+ * in the second one; an IND holds if and only if this count is zero. An append only adds the new distinct values of the
+ * grown relation to the value sets and adjusts the counts of the pairs that these values affect, so the cost of an
+ * append depends on the number of new distinct values instead of the size of the relations.
+ */
+public class IncrementalINDProfiler implements RelationListener {
+
+    private final List<Relation> relations;
+
+    // The global index of the first attribute of every relation; the attributes of all relations are numbered
+    // consecutively in relation order.
+    private final int[] firstAttributes;
+
+    // The distinct values of every attribute by global attribute index.
+    private final List<Set<String>> valueSets = new ArrayList<>();
+
+    // The number of distinct values of every attribute that have already been added to its value set.
+    private final int[] numSeenValues;
+
+    // The number of distinct values of the first attribute that are missing in the second one, by global indexes.
+    private final int[][] numMissingValues;
+
+    /**
+     * Profiles the provided relations for unary INDs and registers the profiler as listener of all relations.
+     * @param relations The relations that should be profiled for inclusion dependencies.
+     */
+    public IncrementalINDProfiler(List<Relation> relations) {
+        this.relations = new ArrayList<>(relations);
+        this.firstAttributes = new int[relations.size() + 1];
+        for (int i = 0; i < relations.size(); i++)
+            this.firstAttributes[i + 1] = this.firstAttributes[i] + relations.get(i).getAttributes().length;
+
+        int numAttributes = this.firstAttributes[relations.size()];
+        this.numSeenValues = new int[numAttributes];
+        this.numMissingValues = new int[numAttributes][numAttributes];
+        for (int attribute = 0; attribute < numAttributes; attribute++)
+            this.valueSets.add(new HashSet<>());
+
+        // The initial counts are built like the counts of appended values, starting from empty value sets
+        for (Relation relation : this.relations) {
+            this.addNewValues(relation);
+            relation.addListener(this);
+        }
+    }
+
+    @Override
+    public void recordsAppended(Relation relation, int fromIndex, int toIndex) {
+        this.addNewValues(relation);
+    }
+
+    /**
+     * Returns all non-trivial unary inclusion dependencies that hold in the current records of the relations.
+     * @return The list of all non-trivial unary inclusion dependencies.
+     */
+    public List<IND> getINDs() {
+        List<IND> inclusionDependencies = new ArrayList<>();
+        for (int i = 0; i < this.relations.size(); i++) {
+            for (int j = 0; j < this.relations.size(); j++) {
+                for (int col1 = 0; col1 < this.relations.get(i).getAttributes().length; col1++) {
+                    for (int col2 = 0; col2 < this.relations.get(j).getAttributes().length; col2++) {
+                        int lhs = this.firstAttributes[i] + col1;
+                        int rhs = this.firstAttributes[j] + col2;
+                        if (lhs != rhs && this.numMissingValues[lhs][rhs] == 0)
+                            inclusionDependencies.add(new IND(this.relations.get(i), col1, this.relations.get(j), col2));
+                    }
+                }
+            }
+        }
+        return inclusionDependencies;
+    }
+
+    /**
+     * Adds the distinct values of the provided relation that are not in its value sets yet. Dictionary codes are
+     * assigned in order of first occurrence, so the new values are exactly the ones with codes from the number of
+     * already seen values onwards.
+     */
+    private void addNewValues(Relation relation) {
+        int relationIndex = this.indexOf(relation);
+        for (int col = 0; col < relation.getAttributes().length; col++) {
+            int attribute = this.firstAttributes[relationIndex] + col;
+            EncodedColumn column = relation.getEncodedColumn(col);
+            for (int code = this.numSeenValues[attribute]; code < column.cardinality(); code++)
+                this.addValue(attribute, column.getValue(code));
+            this.numSeenValues[attribute] = column.cardinality();
+        }
+    }
+
+    private void addValue(int attribute, String value) {
+        if (!this.valueSets.get(attribute).add(value))
+            return;
+        for (int other = 0; other < this.valueSets.size(); other++) {
+            if (other == attribute)
+                continue;
+            // The value is a new value of the attribute, which is missing in the other attribute unless it has it
+            if (!this.valueSets.get(other).contains(value))
+                this.numMissingValues[attribute][other]++;
+            // The value was missing in the attribute for every other attribute that has it
+            else
+                this.numMissingValues[other][attribute]--;
+        }
+    }
+
+    private int indexOf(Relation relation) {
+        for (int i = 0; i < this.relations.size(); i++)
+            if (this.relations.get(i) == relation)
+                return i;
+        throw new IllegalArgumentException("Relation " + relation.getName() + " is not profiled by this profiler");
+    }
+}
@@ -0,0 +1,40 @@
+package de.di.data_profiling;
+
+import de.di.Relation;
+import de.di.data_profiling.structures.ColumnStatistics;
+import de.di.helper.RelationCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatisticsProfiler {
+
+    /**
+     * Collects the statistics of every attribute of the provided relation.
+     * @param relation The relation that should be profiled for column statistics.
+     * @return The statistics of every attribute in attribute order.
+     */
+    public List<ColumnStatistics> profile(Relation relation) {
+        return this.profile(relation.cursor());
+    }
+
+    /**
+     * Collects the statistics of every attribute by consuming the provided cursor in a single pass, so the relation
+     * never needs to be held in memory as a whole.
+     * @param cursor The cursor over the relation that should be profiled; it is closed afterwards.
+     * @return The statistics of every attribute in attribute order.
+     */
+    public List<ColumnStatistics> profile(RelationCursor cursor) {
+        List<ColumnStatistics> statistics = new ArrayList<>(cursor.getAttributes().length);
+        for (String attribute : cursor.getAttributes())
+            statistics.add(new ColumnStatistics(attribute));
+        try (cursor) {
+            while (cursor.hasNext()) {
+                String[] record = cursor.next();
+                for (int attribute = 0; attribute < record.length; attribute++)
+                    statistics.get(attribute).add(record[attribute]);
+            }
+        }
+        return statistics;
+    }
+}
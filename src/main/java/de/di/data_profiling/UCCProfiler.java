@@ -25,7 +25,7 @@ public class UCCProfiler {
 //      Calculate all unary UCCs and unary non-UCCs
         for (int attribute = 0; attribute < numAttributes; attribute++) {
             AttributeList attributes = new AttributeList(attribute);
-            PositionListIndex pli = new PositionListIndex(attributes, relation.getColumns()[attribute]);
+            PositionListIndex pli = new PositionListIndex(attributes, relation.getEncodedColumn(attribute));
             if (pli.isUnique())
                 uniques.add(new UCC(relation, attributes));
             else
@@ -74,6 +74,33 @@ public class UCCProfiler {
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     }
 
+    /**
+     * Verifies the provided candidate UCCs, e.g., UCCs that were discovered on a sample, against the provided relation.
+     * Every UCC of a relation is also unique in all of its samples, so sample UCCs can only be wrong by being too
+     * small; such candidates are dropped.
+     * @param candidates The candidate UCCs, whose relations need to have the same name as the provided relation.
+     * @param relation The relation that the candidates are verified against.
+     * @return The candidates that are unique in the provided relation, re-bound to that relation.
+     */
+    public List<UCC> verify(List<UCC> candidates, Relation relation) {
+        List<UCC> uniques = new ArrayList<>();
+        for (UCC candidate : candidates) {
+            if (!candidate.getRelation().getName().equals(relation.getName()))
+                continue;
+            int[] attributes = candidate.getAttributeList().getAttributes();
+            PositionListIndex pli = null;
+            for (int attribute : attributes) {
+                PositionListIndex attributePli = new PositionListIndex(new AttributeList(attribute), relation.getEncodedColumn(attribute));
+                pli = (pli == null) ? attributePli : pli.intersect(attributePli);
+                if (pli.isUnique())
+                    break;
+            }
+            if (pli != null && pli.isUnique())
+                uniques.add(new UCC(relation, candidate.getAttributeList()));
+        }
+        return uniques;
+    }
+
     private boolean has_subset(Set<AttributeList> uniqueCandidates, AttributeList attributes) {
         for (AttributeList candidate : uniqueCandidates) {
             if (candidate.subsetOf(attributes)) {
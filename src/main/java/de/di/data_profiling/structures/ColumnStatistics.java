@@ -0,0 +1,96 @@
+package de.di.data_profiling.structures;
+
+import de.di.structures.ColumnType;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A ColumnStatistics summarizes the values of one attribute: the number of values, empty values and distinct values,
+ * the shortest and longest value length, the lexicographically smallest and largest value, and the inferred type with
+ * its numeric value range. The statistics are accumulated value by value, so they can be collected in a single pass
+ * over a stream of records.
+ */
+@Getter
+public class ColumnStatistics {
+
+    private final String attribute;
+
+    private int numValues = 0;
+    private int numEmptyValues = 0;
+    private int minLength = 0;
+    private int maxLength = 0;
+
+    // The lexicographically smallest and largest value or null if no value has been added yet.
+    private String minValue = null;
+    private String maxValue = null;
+
+    // The most specific type of all non-empty values or null if no non-empty value has been added yet.
+    @Getter(AccessLevel.NONE)
+    private ColumnType type = null;
+
+    // The smallest and largest numeric value, which are NaN unless the type is numeric.
+    private double minNumber = Double.NaN;
+    private double maxNumber = Double.NaN;
+
+    // The distinct values seen so far, which are only needed to count them.
+    @Getter(AccessLevel.NONE)
+    private final Set<String> distinctValues = new HashSet<>();
+
+    public ColumnStatistics(final String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * Adds the provided value to the statistics.
+     * @param value The value to add.
+     */
+    public void add(String value) {
+        if (value.isEmpty())
+            this.numEmptyValues++;
+        if (this.numValues == 0) {
+            this.minLength = this.maxLength = value.length();
+            this.minValue = this.maxValue = value;
+        } else {
+            this.minLength = Math.min(this.minLength, value.length());
+            this.maxLength = Math.max(this.maxLength, value.length());
+            if (value.compareTo(this.minValue) < 0)
+                this.minValue = value;
+            if (value.compareTo(this.maxValue) > 0)
+                this.maxValue = value;
+        }
+        if (!value.isEmpty() && this.type != ColumnType.STRING)
+            this.addTyped(value);
+        this.distinctValues.add(value);
+        this.numValues++;
+    }
+
+    private void addTyped(String value) {
+        this.type = ColumnType.merge(this.type, ColumnType.of(value));
+        if (this.type == ColumnType.STRING) {
+            this.minNumber = this.maxNumber = Double.NaN;
+            return;
+        }
+        double number = this.type.toDouble(value);
+        this.minNumber = Double.isNaN(this.minNumber) ? number : Math.min(this.minNumber, number);
+        this.maxNumber = Double.isNaN(this.maxNumber) ? number : Math.max(this.maxNumber, number);
+    }
+
+    public ColumnType getType() {
+        return (this.type == null) ? ColumnType.STRING : this.type;
+    }
+
+    public int getNumDistinctValues() {
+        return this.distinctValues.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnStatistics(" + this.attribute + ", values=" + this.numValues + ", empty=" + this.numEmptyValues +
+                ", distinct=" + this.getNumDistinctValues() + ", length=[" + this.minLength + "," + this.maxLength +
+                "], range=[" + this.minValue + "," + this.maxValue + "], type=" + this.getType() +
+                (this.getType().isNumeric() ? ", numbers=[" + this.minNumber + "," + this.maxNumber + "]" : "") + ")";
+    }
+}
@@ -0,0 +1,91 @@
+package de.di.data_profiling.structures;
+
+import de.di.Relation;
+import de.di.helper.RelationListener;
+import de.di.structures.EncodedColumn;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An IncrementalPositionListIndex maintains the position list index of an attribute list while records are appended
+ * to its relation. In contrast to a PositionListIndex, it keeps the clusters of all value combinations, including
+ * the ones with a single record, so that every appended record is added to its cluster in constant time. Whether the
+ * attribute list is still unique is therefore known after every append without re-partitioning the relation.
+ */
+public class IncrementalPositionListIndex implements RelationListener {
+
+    @Getter
+    private final AttributeList attributes;
+
+    // The cluster of every value combination that occurs in the relation, by the codes of the combination's values.
+    private final Object2ObjectOpenHashMap<IntArrayList, IntArrayList> clusters = new Object2ObjectOpenHashMap<>();
+
+    // The number of clusters with more than one record.
+    private int numNonUniqueClusters = 0;
+    private int relationLength = 0;
+
+    // The stripped index of the current records, which is built on request and discarded by every append.
+    private PositionListIndex snapshot = null;
+
+    /**
+     * Creates the index of the provided attributes over all current records of the provided relation and registers it
+     * as listener of the relation, so that appended records are indexed as well.
+     * @param relation The relation to index.
+     * @param attributes The attributes to index.
+     */
+    public IncrementalPositionListIndex(Relation relation, AttributeList attributes) {
+        this.attributes = attributes;
+        this.recordsAppended(relation, 0, relation.getNumRecords());
+        relation.addListener(this);
+    }
+
+    @Override
+    public void recordsAppended(Relation relation, int fromIndex, int toIndex) {
+        EncodedColumn[] columns = new EncodedColumn[this.attributes.size()];
+        for (int i = 0; i < columns.length; i++)
+            columns[i] = relation.getEncodedColumn(this.attributes.getAttributes()[i]);
+
+        for (int recordIndex = fromIndex; recordIndex < toIndex; recordIndex++) {
+            IntArrayList key = new IntArrayList(columns.length);
+            for (EncodedColumn column : columns)
+                key.add(column.getCode(recordIndex));
+            IntArrayList cluster = this.clusters.get(key);
+            if (cluster == null) {
+                cluster = new IntArrayList(1);
+                this.clusters.put(key, cluster);
+            }
+            cluster.add(recordIndex);
+            if (cluster.size() == 2)
+                this.numNonUniqueClusters++;
+        }
+        this.relationLength = toIndex;
+        this.snapshot = null;
+    }
+
+    /**
+     * Checks whether the indexed attributes are unique in the current records of the relation.
+     * @return true if no two records share the same value combination.
+     */
+    public boolean isUnique() {
+        return this.numNonUniqueClusters == 0;
+    }
+
+    /**
+     * Returns the stripped position list index of the current records, which can be intersected with other indexes.
+     * @return The position list index of the current records.
+     */
+    public PositionListIndex getPositionListIndex() {
+        if (this.snapshot == null) {
+            List<IntArrayList> strippedClusters = new ArrayList<>(this.numNonUniqueClusters);
+            for (IntArrayList cluster : this.clusters.values())
+                if (cluster.size() > 1)
+                    strippedClusters.add(new IntArrayList(cluster));
+            this.snapshot = new PositionListIndex(this.attributes, strippedClusters, this.relationLength);
+        }
+        return this.snapshot;
+    }
+}
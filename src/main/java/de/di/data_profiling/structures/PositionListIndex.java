@@ -1,11 +1,13 @@
 package de.di.data_profiling.structures;
 
+import de.di.structures.EncodedColumn;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import lombok.Getter;
 
 import java.util.*;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
 @Getter
@@ -21,6 +23,18 @@ public class PositionListIndex {
         this.invertedClusters = this.calculateInverted(this.clusters, values.length);
     }
 
+    public PositionListIndex(final AttributeList attributes, final int[] codes, final int cardinality) {
+        this.attributes = attributes;
+        this.clusters = this.calculateClusters(codes, cardinality);
+        this.invertedClusters = this.calculateInverted(this.clusters, codes.length);
+    }
+
+    public PositionListIndex(final AttributeList attributes, final EncodedColumn column) {
+        this.attributes = attributes;
+        this.clusters = this.calculateClusters(column);
+        this.invertedClusters = this.calculateInverted(this.clusters, column.size());
+    }
+
     public PositionListIndex(final AttributeList attributes, final List<IntArrayList> clusters, int relationLength) {
         this.attributes = attributes;
         this.clusters = clusters;
@@ -36,6 +50,37 @@ public class PositionListIndex {
         return invertedIndex.values().stream().filter(cluster -> cluster.size() > 1).collect(Collectors.toList());
     }
 
+    private List<IntArrayList> calculateClusters(final int[] codes, final int cardinality) {
+        return this.calculateClusters(recordIndex -> codes[recordIndex], codes.length, cardinality);
+    }
+
+    private List<IntArrayList> calculateClusters(final EncodedColumn column) {
+        // Reads the codes one by one, so that columns that keep their codes off the heap are not copied onto it
+        return this.calculateClusters(column::getCode, column.size(), column.cardinality());
+    }
+
+    private List<IntArrayList> calculateClusters(final IntUnaryOperator codes, final int size, final int cardinality) {
+        // Dictionary codes are dense, so values can be grouped by counting instead of hashing
+        int[] counts = new int[cardinality];
+        for (int recordIndex = 0; recordIndex < size; recordIndex++)
+            counts[codes.applyAsInt(recordIndex)]++;
+
+        IntArrayList[] clustersByCode = new IntArrayList[cardinality];
+        List<IntArrayList> clusters = new ArrayList<>();
+        for (int code = 0; code < cardinality; code++) {
+            if (counts[code] > 1) {
+                clustersByCode[code] = new IntArrayList(counts[code]);
+                clusters.add(clustersByCode[code]);
+            }
+        }
+        for (int recordIndex = 0; recordIndex < size; recordIndex++) {
+            int code = codes.applyAsInt(recordIndex);
+            if (clustersByCode[code] != null)
+                clustersByCode[code].add(recordIndex);
+        }
+        return clusters;
+    }
+
     private int[] calculateInverted(List<IntArrayList> clusters, int relationLength) {
         int[] invertedClusters = new int[relationLength];
         Arrays.fill(invertedClusters, -1);
@@ -0,0 +1,175 @@
+package de.di.duplicate_detection;
+
+import de.di.Relation;
+import de.di.duplicate_detection.structures.Duplicate;
+import de.di.helper.RelationListener;
+import de.di.structures.EncodedColumn;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+
+import java.util.*;
+
+/**
+ * An IncrementalSortedNeighborhood runs the Sorted Neighborhood Method on a relation that grows by appended records. It
+ * keeps the sorted order of all records and the sorted order of all distinct values for every sorting key; appended
+ * values and records are sorted among themselves, inserted into these orders by binary search and only the appended
+ * records are compared with the records in their windows, so an append costs O(newRecords * (log records +
+ * windowSize)) comparisons plus linear array copies instead of a complete run. The orders equal the ones of
+ * SortedNeighborhood.detectDuplicates() on the grown relation, which sorts every key's order stably from the previous
+ * key's order: records with equal key values are ordered by the values of the previous sorting keys, the latest first,
+ * and then by their record indexes. Appends only widen the distances between earlier records, and duplicates that have
+ * been detected once are kept, so the result is a superset of a complete run on the grown relation.
+ */
+public class IncrementalSortedNeighborhood implements RelationListener {
+
+    private final int[] sortingKeys;
+    private final int windowSize;
+    private final RecordComparator recordComparator;
+
+    // The record indexes of every sorting key in the order of their key values.
+    private final int[][] orders;
+
+    // The codes of every sorting key's distinct values in lexicographical order and the rank of every code in it.
+    private final int[][] codesByValue;
+    private final int[][] ranks;
+
+    private final Set<Duplicate> duplicates = new HashSet<>();
+
+    /**
+     * Detects all duplicates among the current records of the provided relation and registers as listener of the
+     * relation, so that appended records are checked for duplicates as well.
+     * @param relation The relation, in which duplicates should be detected.
+     * @param sortingKeys The attribute indexes whose values determine the sortations, one run per sorting key.
+     * @param windowSize The window size of every run.
+     * @param recordComparator The record comparator for the records in a window.
+     */
+    public IncrementalSortedNeighborhood(Relation relation, int[] sortingKeys, int windowSize, RecordComparator recordComparator) {
+        this.sortingKeys = sortingKeys;
+        this.windowSize = windowSize;
+        this.recordComparator = recordComparator;
+        this.orders = new int[sortingKeys.length][0];
+        this.codesByValue = new int[sortingKeys.length][0];
+        this.ranks = new int[sortingKeys.length][0];
+
+        // The initial run treats all current records as appended records
+        this.recordsAppended(relation, 0, relation.getNumRecords());
+        relation.addListener(this);
+    }
+
+    @Override
+    public void recordsAppended(Relation relation, int fromIndex, int toIndex) {
+        EncodedColumn[] columns = new EncodedColumn[this.sortingKeys.length];
+        for (int k = 0; k < this.sortingKeys.length; k++) {
+            columns[k] = relation.getEncodedColumn(this.sortingKeys[k]);
+            this.insertValues(k, columns[k]);
+        }
+
+        int[] appended = new int[toIndex - fromIndex];
+        for (int i = 0; i < appended.length; i++)
+            appended[i] = fromIndex + i;
+        for (int k = 0; k < this.sortingKeys.length; k++) {
+            int key = k;
+            IntComparator comparator = (record1, record2) -> this.compare(record1, record2, columns, key);
+            IntArrays.quickSort(appended, comparator);
+            int[] positions = new int[appended.length];
+            this.orders[k] = insert(this.orders[k], appended, comparator, positions);
+            this.compareWindowsOf(relation, this.orders[k], positions, fromIndex);
+        }
+    }
+
+    /**
+     * Returns all duplicates that have been detected so far.
+     * @return The detected duplicates.
+     */
+    public Set<Duplicate> getDuplicates() {
+        return Collections.unmodifiableSet(this.duplicates);
+    }
+
+    /**
+     * Inserts the distinct values that the provided column received since the last call into the value order of the
+     * sorting key with the provided index. Only the new values are sorted as Strings; the ranks of the earlier values
+     * keep their relative order and are shifted in one linear pass.
+     */
+    private void insertValues(int key, EncodedColumn column) {
+        int numOldValues = this.codesByValue[key].length;
+        int[] newCodes = new int[column.cardinality() - numOldValues];
+        if (newCodes.length == 0)
+            return;
+        for (int i = 0; i < newCodes.length; i++)
+            newCodes[i] = numOldValues + i;
+        IntComparator comparator = (code1, code2) -> column.getValue(code1).compareTo(column.getValue(code2));
+        IntArrays.quickSort(newCodes, comparator);
+
+        int[] codes = insert(this.codesByValue[key], newCodes, comparator, new int[newCodes.length]);
+        int[] ranks = new int[codes.length];
+        for (int rank = 0; rank < codes.length; rank++)
+            ranks[codes[rank]] = rank;
+        this.codesByValue[key] = codes;
+        this.ranks[key] = ranks;
+    }
+
+    /**
+     * Inserts the sorted elements into the sorted array; an element is inserted after all equal elements of the array.
+     * The insertion points are found by binary search and the runs in between are copied as a whole.
+     * @param sorted The sorted array.
+     * @param elements The sorted elements to insert.
+     * @param comparator The order of both arrays.
+     * @param positions The array that receives the position of every inserted element in the result.
+     * @return The sorted array with all elements.
+     */
+    private static int[] insert(int[] sorted, int[] elements, IntComparator comparator, int[] positions) {
+        int[] merged = new int[sorted.length + elements.length];
+        int from = 0;
+        for (int j = 0; j < elements.length; j++) {
+            int low = from;
+            int high = sorted.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.compare(sorted[middle], elements[j]) <= 0)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            System.arraycopy(sorted, from, merged, from + j, low - from);
+            positions[j] = low + j;
+            merged[low + j] = elements[j];
+            from = low;
+        }
+        System.arraycopy(sorted, from, merged, from + elements.length, sorted.length - from);
+        return merged;
+    }
+
+    /**
+     * Compares two records in the order that SortedNeighborhood produces for the sorting key with the provided index:
+     * by the ranks of their values for that key, ties by the ranks for the previous keys in reverse, and remaining ties
+     * by their record indexes.
+     */
+    private int compare(int record1, int record2, EncodedColumn[] columns, int key) {
+        for (int k = key; k >= 0; k--) {
+            int comparison = Integer.compare(this.ranks[k][columns[k].getCode(record1)], this.ranks[k][columns[k].getCode(record2)]);
+            if (comparison != 0)
+                return comparison;
+        }
+        return Integer.compare(record1, record2);
+    }
+
+    /**
+     * Compares the appended records at the provided positions of the order, i.e., the records with an index from
+     * fromIndex onwards, with all records within their windows. Pairs of two appended records are compared only once.
+     */
+    private void compareWindowsOf(Relation relation, int[] order, int[] positions, int fromIndex) {
+        for (int position : positions) {
+            int record = order[position];
+            int from = Math.max(0, position - this.windowSize + 1);
+            int to = Math.min(order.length, position + this.windowSize);
+            for (int other = from; other < to; other++) {
+                int otherRecord = order[other];
+                if (other == position || (otherRecord >= fromIndex && other < position))
+                    continue;
+                double similarity = this.recordComparator.compareWithThreshold(relation, record, otherRecord);
+                if (this.recordComparator.isDuplicate(similarity))
+                    this.duplicates.add(new Duplicate(record, otherRecord, similarity, relation));
+            }
+        }
+    }
+}
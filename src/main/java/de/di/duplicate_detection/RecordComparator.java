@@ -1,7 +1,9 @@
 package de.di.duplicate_detection;
 
+import de.di.Relation;
 import de.di.duplicate_detection.structures.AttrSimWeight;
 import de.di.similarity_measures.SimilarityMeasure;
+import de.di.structures.EncodedColumn;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -72,6 +74,58 @@ public class RecordComparator {
         return recordSimilarity;
     }
 
+    /**
+     * Compares the two records with the provided indexes of the provided relation like compare(String[], String[]),
+     * but without materializing the records: the values are passed to the similarity measures as codes of their columns,
+     * so that measures can compare encoded bytes or reuse their work per value.
+     * @param relation The relation that holds both records.
+     * @param recordIndex1 The index of the first record.
+     * @param recordIndex2 The index of the second record.
+     * @return The similarity of the two records w.r.t. the internal similarity measures.
+     */
+    public double compare(Relation relation, int recordIndex1, int recordIndex2) {
+        double recordSimilarity = 0;
+        for (AttrSimWeight attrSimWeight : this.attrSimWeights) {
+            EncodedColumn column = relation.getEncodedColumn(attrSimWeight.getAttribute());
+            SimilarityMeasure measure = attrSimWeight.getSimilarityMeasure();
+            double similarity = measure.calculate(column, column.getCode(recordIndex1), column.getCode(recordIndex2));
+            recordSimilarity += similarity * attrSimWeight.getWeight();
+        }
+        return recordSimilarity;
+    }
+
+    /**
+     * Compares the two records like compare(Relation, int, int), but stops as soon as the records cannot be duplicates
+     * anymore. Every attribute similarity is calculated with the minimum similarity that the attribute must reach if
+     * all remaining attributes were identical, so measures such as Levenshtein can reject hopeless value pairs early.
+     * The result equals the one of compare(Relation, int, int) for duplicates; for all other record pairs, it is some
+     * similarity that isDuplicate() rejects.
+     * @param relation The relation that holds both records.
+     * @param recordIndex1 The index of the first record.
+     * @param recordIndex2 The index of the second record.
+     * @return The similarity of the two records or, if they are no duplicates, a similarity not above the threshold.
+     */
+    public double compareWithThreshold(Relation relation, int recordIndex1, int recordIndex2) {
+        double recordSimilarity = 0;
+        double remainingWeight = 1;
+        for (AttrSimWeight attrSimWeight : this.attrSimWeights) {
+            double weight = attrSimWeight.getWeight();
+            remainingWeight -= weight;
+            if (weight <= 0)
+                continue;
+
+            // The tolerance keeps pairs whose bound is only missed by rounding errors of the weights
+            double minSimilarity = (this.threshold - recordSimilarity - remainingWeight) / weight - 1e-9;
+            EncodedColumn column = relation.getEncodedColumn(attrSimWeight.getAttribute());
+            SimilarityMeasure measure = attrSimWeight.getSimilarityMeasure();
+            double similarity = measure.calculate(column, column.getCode(recordIndex1), column.getCode(recordIndex2), minSimilarity);
+            if (similarity < minSimilarity)
+                return Math.min(this.threshold, recordSimilarity + similarity * weight);
+            recordSimilarity += similarity * weight;
+        }
+        return recordSimilarity;
+    }
+
     /**
      * Decides if the provided similarity is higher than the internal similarity threshold and, therefore,
      * characterizes a duplicate.
@@ -3,26 +3,16 @@ package de.di.duplicate_detection;
 import de.di.Relation;
 import de.di.duplicate_detection.structures.AttrSimWeight;
 import de.di.duplicate_detection.structures.Duplicate;
+import de.di.helper.RelationCursor;
 import de.di.similarity_measures.Jaccard;
 import de.di.similarity_measures.Levenshtein;
 import de.di.similarity_measures.SimilarityMeasure;
 import de.di.similarity_measures.helper.Tokenizer;
-import lombok.AllArgsConstructor;
-import lombok.Data;
 
 import java.util.*;
 
 public class SortedNeighborhood {
 
-    // A Record class that stores the values of a record with its original index. This class helps to remember the
-    // original index of a record when this record is being sorted.
-    @Data
-    @AllArgsConstructor
-    private static class Record {
-        private int index;
-        private String[] values;
-    }
-
     /**
      * Discovers all duplicates in the relation by running the Sorted Neighborhood Method once with every sortingKey.
      * Each run uses one of the specified sortingKeys for the sorting, the windowsSize for the windowing, and
@@ -41,9 +31,10 @@ public class SortedNeighborhood {
     public Set<Duplicate> detectDuplicates(Relation relation, int[] sortingKeys, int windowSize, RecordComparator recordComparator) {
         Set<Duplicate> duplicates = new HashSet<>();
 
-        Record[] records = new Record[relation.getRecords().length];
-        for (int i = 0; i < relation.getRecords().length; i++)
-            records[i] = new Record(i, relation.getRecords()[i]);
+        // The records are sorted and compared by their indexes, so the row-wise view of the relation is never needed
+        int[] records = new int[relation.getNumRecords()];
+        for (int i = 0; i < records.length; i++)
+            records[i] = i;
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         //                                      DATA INTEGRATION ASSIGNMENT                                           //
@@ -54,15 +45,15 @@ public class SortedNeighborhood {
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
         for (int key : sortingKeys) {
-            Arrays.sort(records, Comparator.comparing(r -> r.getValues()[key]));
+            sortByRanks(records, relation.getCodes(key), calculateRanks(relation.getDictionary(key)));
             for (int i = 0; i < records.length; i++) {
-                Record current = records[i];
+                int current = records[i];
                 for (int j = i + 1; j < Math.min(i + windowSize, records.length); j++) {
-                    Record record = records[j];
-                    double similarity = recordComparator.compare(current.getValues(), record.getValues());
+                    int record = records[j];
+                    double similarity = recordComparator.compareWithThreshold(relation, current, record);
                     if (recordComparator.isDuplicate(similarity)) {
-                        int index1 = Math.min(current.getIndex(), record.getIndex());
-                        int index2 = Math.max(current.getIndex(), record.getIndex());
+                        int index1 = Math.min(current, record);
+                        int index2 = Math.max(current, record);
                         duplicates.add(new Duplicate(index1, index2, similarity, relation));
                     }
                 }
@@ -71,6 +62,61 @@ public class SortedNeighborhood {
         return duplicates;
     }
 
+    /**
+     * Calculates the lexicographical rank of every dictionary value, i.e., ranks[code] < ranks[otherCode] if and only
+     * if the value with code is lexicographically smaller than the value with otherCode. Only the distinct values are
+     * sorted as Strings; the records are then sorted by their primitive ranks.
+     */
+    private static int[] calculateRanks(String[] dictionary) {
+        Integer[] codesByValue = new Integer[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++)
+            codesByValue[code] = code;
+        Arrays.sort(codesByValue, Comparator.comparing(code -> dictionary[code]));
+
+        int[] ranks = new int[dictionary.length];
+        for (int rank = 0; rank < codesByValue.length; rank++)
+            ranks[codesByValue[rank]] = rank;
+        return ranks;
+    }
+
+    /**
+     * Stably sorts the record indexes by the ranks of their codes with a primitive sort: the rank of every record is
+     * packed with the record's current position into one long, so equal ranks keep their current order.
+     */
+    private static void sortByRanks(int[] records, int[] codes, int[] ranks) {
+        long[] packed = new long[records.length];
+        for (int position = 0; position < records.length; position++)
+            packed[position] = ((long) ranks[codes[records[position]]] << 32) | position;
+        Arrays.sort(packed);
+
+        int[] sorted = new int[records.length];
+        for (int position = 0; position < records.length; position++)
+            sorted[position] = records[(int) packed[position]];
+        System.arraycopy(sorted, 0, records, 0, records.length);
+    }
+
+    /**
+     * Generates the sorting key values of every record for every provided sorting key by consuming the provided cursor
+     * in a single pass; only the key values are retained, not the records.
+     * @param cursor The cursor over the records whose sorting keys should be generated; it is closed afterwards.
+     * @param sortingKeys The attribute indexes that serve as sorting keys.
+     * @return The key values per sorting key, i.e., keys[k][recordIndex] is the value of sortingKeys[k] in the record
+     *         with the given index.
+     */
+    public static String[][] generateSortingKeys(RelationCursor cursor, int[] sortingKeys) {
+        List<List<String>> keys = new ArrayList<>(sortingKeys.length);
+        for (int k = 0; k < sortingKeys.length; k++)
+            keys.add(new ArrayList<>());
+        try (cursor) {
+            while (cursor.hasNext()) {
+                String[] record = cursor.next();
+                for (int k = 0; k < sortingKeys.length; k++)
+                    keys.get(k).add(record[sortingKeys[k]]);
+            }
+        }
+        return keys.stream().map(runKeys -> runKeys.toArray(new String[0])).toArray(String[][]::new);
+    }
+
     /**
      * Suggests a RecordComparator instance based on the provided relation for duplicate detection purposes.
      * @param relation The relation a RecordComparator needs to be suggested for.
@@ -0,0 +1,228 @@
+package de.di.helper;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import de.di.structures.ValuePool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A CsvRelationCursor streams the records of a CSV file. Files in ASCII-compatible charsets are mapped window by
+ * window, or decompressed block by block if they are gzip-compressed, and fed into a CsvScanner, so only the records of
+ * the current window are buffered; files in all other charsets are read line by line with opencsv. Records are shaped
+ * like the records of a Relation read by a RelationReader: missing values are empty strings and surplus values are
+ * dropped. Repeated values of a column share one String instance via a bounded per-column ValuePool, which falls back
+ * to fresh instances for columns whose cardinality exceeds the pool's capacity.
+ */
+class CsvRelationCursor implements RelationCursor {
+
+    // The number of bytes that are mapped and scanned at once.
+    static final int DEFAULT_WINDOW_SIZE = 1 << 20;
+
+    // The default maximum number of distinct values that are interned per column.
+    static final int DEFAULT_INTERN_CAPACITY = 1 << 16;
+
+    private final String name;
+    private final String[] attributes;
+    private final Charset charset;
+    private final int windowSize;
+
+    // The source of the byte-level path, which is either a mapped channel or a decompressing stream; both are null if
+    // the file is read with opencsv.
+    private final FileChannel channel;
+    private final PipelinedGzipInputStream input;
+    private final CsvScanner scanner;
+    private long position = 0;
+    private boolean finished = false;
+
+    // The source of the opencsv path, which is null if the file is scanned at byte level.
+    private final CSVReader reader;
+
+    // The scanned records that have not been returned yet and the fields of the record that is being scanned.
+    private final ArrayDeque<String[]> buffered = new ArrayDeque<>();
+    private final List<String> fields = new ArrayList<>();
+
+    // The interning pool of every field position, which are created on first use unless interning is disabled.
+    private final int internCapacity;
+    private final List<ValuePool> pools = new ArrayList<>();
+
+    private boolean closed = false;
+
+    CsvRelationCursor(Path filePath, boolean hasHeader, char separator, Charset charset, int windowSize, int internCapacity, CSVReader reader) throws IOException {
+        this.name = RelationReader.relationNameOf(filePath);
+        this.charset = charset;
+        this.windowSize = windowSize;
+        this.reader = reader;
+        this.internCapacity = internCapacity;
+        if (reader != null) {
+            this.channel = null;
+            this.input = null;
+            this.scanner = null;
+        } else if (PipelinedGzipInputStream.isCompressed(filePath)) {
+            this.channel = null;
+            this.input = new PipelinedGzipInputStream(filePath, windowSize);
+            this.scanner = new CsvScanner(separator, charset, new FieldCollector());
+        } else {
+            this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            this.input = null;
+            this.scanner = new CsvScanner(separator, charset, new FieldCollector());
+        }
+
+        // The first record determines the attributes, so it is read before the cursor is handed out
+        String[] firstRecord = this.readRecord();
+        if (firstRecord == null) {
+            this.attributes = new String[0];
+        } else if (hasHeader) {
+            this.attributes = firstRecord;
+        } else {
+            this.attributes = RelationReader.defaultAttributes(firstRecord.length);
+            this.buffered.addFirst(firstRecord);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public String[] getAttributes() {
+        return this.attributes;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.buffered.isEmpty()) {
+            String[] record = this.readRecord();
+            if (record == null) {
+                this.close();
+                return false;
+            }
+            this.buffered.addFirst(record);
+        }
+        return true;
+    }
+
+    @Override
+    public String[] next() {
+        if (!this.hasNext())
+            throw new NoSuchElementException();
+        return this.shape(this.buffered.pollFirst());
+    }
+
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+        this.closed = true;
+        try {
+            if (this.channel != null)
+                this.channel.close();
+            if (this.input != null)
+                this.input.close();
+            if (this.reader != null)
+                this.reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the next raw record of the file or null if the file has no more records.
+     */
+    private String[] readRecord() {
+        if (!this.buffered.isEmpty())
+            return this.buffered.pollFirst();
+        if (this.closed)
+            return null;
+        try {
+            if (this.reader != null)
+                return this.intern(this.reader.readNext());
+
+            if (this.input != null) {
+                while (this.buffered.isEmpty() && !this.finished) {
+                    ByteBuffer block = this.input.nextBlock();
+                    if (block == null) {
+                        this.scanner.finish();
+                        this.finished = true;
+                    } else {
+                        this.scanner.scan(block, 0, block.limit());
+                    }
+                }
+                return this.buffered.pollFirst();
+            }
+
+            long size = this.channel.size();
+            while (this.buffered.isEmpty() && this.position < size) {
+                int length = (int) Math.min(this.windowSize, size - this.position);
+                MappedByteBuffer window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+                this.scanner.scan(window, 0, length);
+                this.position += length;
+                if (this.position == size)
+                    this.scanner.finish();
+            }
+            return this.buffered.pollFirst();
+        } catch (IOException | CsvValidationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String[] intern(String[] record) {
+        if (this.internCapacity > 0 && record != null)
+            for (int i = 0; i < record.length; i++)
+                record[i] = this.poolOf(i).intern(record[i]);
+        return record;
+    }
+
+    private ValuePool poolOf(int fieldIndex) {
+        while (this.pools.size() <= fieldIndex)
+            this.pools.add(new ValuePool(this.charset, this.internCapacity));
+        return this.pools.get(fieldIndex);
+    }
+
+    private String[] shape(String[] record) {
+        if (record.length == this.attributes.length && !containsNull(record))
+            return record;
+        String[] shaped = new String[this.attributes.length];
+        for (int i = 0; i < shaped.length; i++)
+            shaped[i] = (i < record.length && record[i] != null) ? record[i] : "";
+        return shaped;
+    }
+
+    private static boolean containsNull(String[] record) {
+        for (String value : record)
+            if (value == null)
+                return true;
+        return false;
+    }
+
+    /**
+     * A FieldCollector decodes the fields of scanned records and appends every complete record to the buffer.
+     */
+    private class FieldCollector implements CsvScanner.RecordHandler {
+
+        @Override
+        public void field(int fieldIndex, byte[] bytes, int length) {
+            if (CsvRelationCursor.this.internCapacity > 0)
+                CsvRelationCursor.this.fields.add(CsvRelationCursor.this.poolOf(fieldIndex).intern(bytes, length));
+            else
+                CsvRelationCursor.this.fields.add(new String(bytes, 0, length, CsvRelationCursor.this.charset));
+        }
+
+        @Override
+        public void endRecord(int numFields) {
+            CsvRelationCursor.this.buffered.addLast(CsvRelationCursor.this.fields.toArray(new String[0]));
+            CsvRelationCursor.this.fields.clear();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package de.di.helper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A CsvScanner splits raw, encoded bytes into records and fields. It implements the same grammar as the opencsv
+ * parser that Relation has always been configured with (quote char '"', escape char '\\', no strict quotes, no
+ * leading white space removal, empty fields as empty strings), but works directly on the bytes so that no String or
+ * String[] needs to be allocated per line or per field. Because all grammar characters are ASCII, this is only valid
+ * for ASCII-compatible charsets in which these bytes never occur inside a multi-byte character; see supports().
+ * The scanner is a push parser: callers feed arbitrary slices of the input and the scanner carries incomplete lines
+ * over to the next slice, which allows it to consume memory-mapped segments and streams alike.
+ */
+public class CsvScanner {
+
+    public static final byte QUOTE_CHAR = '"';
+    public static final byte ESCAPE_CHAR = '\\';
+
+    // The (0-indexed) position a quote needs to exceed within its line to be kept as an embedded quote; see opencsv.
+    private static final int BEGINNING_OF_LINE = 3;
+
+    /**
+     * A RecordHandler receives the fields of the scanned records. The byte array passed to field() is a scratch buffer
+     * owned by the scanner, so handlers need to copy or decode the bytes before returning.
+     */
+    public interface RecordHandler {
+
+        void field(int fieldIndex, byte[] bytes, int length);
+
+        void endRecord(int numFields);
+    }
+
+    private final byte separator;
+    private final boolean multiByteCharset;
+    private final RecordHandler handler;
+
+    // The unescaped bytes of the field that is currently being scanned.
+    private byte[] field = new byte[256];
+    private int fieldLength = 0;
+    private int fieldIndex = 0;
+
+    // Parser state that survives line ends, i.e., the state of a quoted field spanning several lines.
+    private boolean pending = false;
+    private boolean inField = false;
+
+    // Bytes of a line that was not terminated within the slice that was fed last.
+    private byte[] carry = new byte[256];
+    private int carryLength = 0;
+
+    // Set if the last slice ended with '\r', so that a leading '\n' of the next slice belongs to the same line break.
+    private boolean skipLineFeed = false;
+
+    public CsvScanner(final char separator, final Charset charset, final RecordHandler handler) {
+        if (!supports(charset) || separator > 127)
+            throw new IllegalArgumentException("Byte-level scanning is not supported for separator '" + separator + "' in " + charset);
+        this.separator = (byte) separator;
+        this.multiByteCharset = charset.equals(StandardCharsets.UTF_8);
+        this.handler = handler;
+    }
+
+    /**
+     * Checks whether files in the provided charset can be scanned at byte level.
+     * @param charset The charset of the input.
+     * @return true if the input can be scanned with a CsvScanner.
+     */
+    public static boolean supports(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Scans the bytes from (inclusive) to (exclusive) of the provided buffer. A trailing line without line break is
+     * carried over to the next call.
+     * @param buffer The buffer holding the input; its position and limit are not modified.
+     * @param from The index of the first byte to scan.
+     * @param to The index after the last byte to scan.
+     */
+    public void scan(ByteBuffer buffer, int from, int to) {
+        int lineStart = from;
+        if (this.skipLineFeed && from < to) {
+            this.skipLineFeed = false;
+            if (buffer.get(from) == '\n')
+                lineStart++;
+        }
+        for (int i = lineStart; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b != '\n' && b != '\r')
+                continue;
+
+            if (this.carryLength > 0) {
+                this.appendToCarry(buffer, lineStart, i);
+                this.scanLine(ByteBuffer.wrap(this.carry), 0, this.carryLength);
+                this.carryLength = 0;
+            } else {
+                this.scanLine(buffer, lineStart, i);
+            }
+
+            if (b == '\r') {
+                if (i + 1 == to)
+                    this.skipLineFeed = true;
+                else if (buffer.get(i + 1) == '\n')
+                    i++;
+            }
+            lineStart = i + 1;
+        }
+        this.appendToCarry(buffer, lineStart, to);
+    }
+
+    /**
+     * Scans the carried-over last line, if any, and checks that the input did not end within a quoted field.
+     */
+    public void finish() {
+        if (this.carryLength > 0) {
+            this.scanLine(ByteBuffer.wrap(this.carry), 0, this.carryLength);
+            this.carryLength = 0;
+        }
+        if (this.pending)
+            throw new RuntimeException("Unterminated quoted field at end of input: " + new String(this.field, 0, Math.min(this.fieldLength, 100), StandardCharsets.ISO_8859_1));
+    }
+
+    private void appendToCarry(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (length <= 0)
+            return;
+        if (this.carryLength + length > this.carry.length)
+            this.carry = Arrays.copyOf(this.carry, Math.max(2 * this.carry.length, this.carryLength + length));
+        ByteBuffer source = buffer.duplicate();
+        source.position(from);
+        source.get(this.carry, this.carryLength, length);
+        this.carryLength += length;
+    }
+
+    /**
+     * Scans one physical line without its line break. The logic follows opencsv's CSVParser.parseLine() step by step,
+     * including its lookahead and lookbehind rules for escapes and embedded quotes.
+     */
+    private void scanLine(ByteBuffer line, int start, int end) {
+        boolean inQuotes = this.pending;
+        this.pending = false;
+
+        int i = start;
+        while (i < end) {
+            byte c = line.get(i++);
+            if (c == ESCAPE_CHAR) {
+                // opencsv marks the field as started first, so the escape always applies if an escapable char follows
+                this.inField = true;
+                if (i < end && this.isEscapable(line.get(i)))
+                    this.append(line.get(i++));
+            } else if (c == QUOTE_CHAR) {
+                if ((inQuotes || this.inField) && i < end && line.get(i) == QUOTE_CHAR) {
+                    this.append(line.get(i++));
+                } else {
+                    inQuotes = !inQuotes;
+                    // The tricky case of an embedded quote in the middle of a field: a,bc"d"ef,g
+                    if (this.isBeyondLineBeginning(line, start, i - 1) && line.get(i - 2) != this.separator && i < end && line.get(i) != this.separator)
+                        this.append(c);
+                }
+                this.inField = !this.inField;
+            } else if (c == this.separator && !inQuotes) {
+                this.emitField();
+                this.inField = false;
+            } else {
+                this.append(c);
+                this.inField = true;
+            }
+        }
+
+        if (inQuotes) {
+            // A quoted field continues on the next line; the line break is re-appended as '\n'
+            this.append((byte) '\n');
+            this.pending = true;
+            return;
+        }
+        this.inField = false;
+        this.emitField();
+        this.handler.endRecord(this.fieldIndex);
+        this.fieldIndex = 0;
+    }
+
+    private boolean isEscapable(byte b) {
+        return b == QUOTE_CHAR || b == ESCAPE_CHAR || b == this.separator;
+    }
+
+    /**
+     * Checks whether more than BEGINNING_OF_LINE characters precede the quote at the provided index. opencsv counts
+     * UTF-16 chars, so multi-byte characters need to be counted as one (or two for supplementary characters).
+     */
+    private boolean isBeyondLineBeginning(ByteBuffer line, int start, int quoteIndex) {
+        if (quoteIndex - start < BEGINNING_OF_LINE)
+            return false;
+        if (!this.multiByteCharset)
+            return true;
+        int chars = 0;
+        for (int i = start; i < quoteIndex && chars < BEGINNING_OF_LINE; i++) {
+            int b = line.get(i) & 0xFF;
+            if (b >= 0xF0)
+                chars += 2;
+            else if (b < 0x80 || b >= 0xC0)
+                chars++;
+        }
+        return chars >= BEGINNING_OF_LINE;
+    }
+
+    private void append(byte b) {
+        if (this.fieldLength == this.field.length)
+            this.field = Arrays.copyOf(this.field, 2 * this.field.length);
+        this.field[this.fieldLength++] = b;
+    }
+
+    private void emitField() {
+        this.handler.field(this.fieldIndex++, this.field, this.fieldLength);
+        this.fieldLength = 0;
+    }
+}
@@ -0,0 +1,58 @@
+package de.di.helper;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A MappedCsvReader memory-maps a CSV file and feeds the mapped bytes into a CsvScanner. Files larger than what a
+ * single buffer can address are mapped segment by segment; records that cross segment borders are stitched by the
+ * scanner's carry-over buffer.
+ */
+public class MappedCsvReader {
+
+    // The maximum number of bytes that are mapped at once.
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private final char separator;
+    private final Charset charset;
+
+    public MappedCsvReader(final char separator, final Charset charset) {
+        this.separator = separator;
+        this.charset = charset;
+    }
+
+    /**
+     * Reads all records of the provided file and passes their fields to the provided handler.
+     * @param filePath The CSV file to read.
+     * @param handler The handler that receives the fields of all records in file order.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public void read(Path filePath, CsvScanner.RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            this.read(channel, 0, channel.size(), handler);
+        }
+    }
+
+    /**
+     * Reads all records in the byte range from (inclusive) to (exclusive) of the provided file and passes their fields
+     * to the provided handler. The range needs to start at the beginning of a record.
+     * @param channel The channel of the CSV file to read.
+     * @param from The position of the first byte to read.
+     * @param to The position after the last byte to read.
+     * @param handler The handler that receives the fields of all records in the range in file order.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public void read(FileChannel channel, long from, long to, CsvScanner.RecordHandler handler) throws IOException {
+        CsvScanner scanner = new CsvScanner(this.separator, this.charset, handler);
+        for (long position = from; position < to; position += MAX_SEGMENT_SIZE) {
+            long segmentSize = Math.min(MAX_SEGMENT_SIZE, to - position);
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, segmentSize);
+            scanner.scan(segment, 0, (int) segmentSize);
+        }
+        scanner.finish();
+    }
+}
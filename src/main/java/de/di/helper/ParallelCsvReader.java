@@ -0,0 +1,243 @@
+package de.di.helper;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * A ParallelCsvReader splits a CSV file into byte ranges that start and end at record boundaries and scans these
+ * ranges concurrently on a thread pool. Every range is scanned by its own CsvScanner into its own handler and the
+ * handlers are returned in file order, so callers can stitch the records back together without changing their order.
+ */
+public class ParallelCsvReader {
+
+    // The minimum number of bytes per chunk; smaller files are not worth being split.
+    public static final long DEFAULT_MIN_CHUNK_SIZE = 8L << 20;
+
+    // The maximum number of bytes per chunk, which keeps every chunk mappable with a single buffer.
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    // The number of bytes that are mapped at once while searching for record boundaries.
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final char separator;
+    private final Charset charset;
+    private final int parallelism;
+    private final long minChunkSize;
+
+    public ParallelCsvReader(final char separator, final Charset charset, final int parallelism) {
+        this(separator, charset, parallelism, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    ParallelCsvReader(final char separator, final Charset charset, final int parallelism, final long minChunkSize) {
+        this.separator = separator;
+        this.charset = charset;
+        this.parallelism = Math.max(1, parallelism);
+        this.minChunkSize = Math.max(1, minChunkSize);
+    }
+
+    /**
+     * Reads all records from the provided offset to the end of the file. The file is split into chunks, each chunk
+     * is scanned into a handler created by the handler factory for the chunk's index, and the handlers are returned in
+     * chunk, i.e., file order.
+     * @param filePath The CSV file to read.
+     * @param offset The position of the first byte to read, which needs to be the start of a record.
+     * @param handlerFactory The factory that creates the handler for the chunk with the given index.
+     * @return The handlers of all chunks in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    public <H extends CsvScanner.RecordHandler> List<H> read(Path filePath, long offset, IntFunction<H> handlerFactory) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long[] boundaries = this.split(channel, offset);
+            int numChunks = boundaries.length - 1;
+
+            List<H> handlers = new ArrayList<>(numChunks);
+            List<Callable<Void>> tasks = new ArrayList<>(numChunks);
+            for (int chunk = 0; chunk < numChunks; chunk++) {
+                H handler = handlerFactory.apply(chunk);
+                long from = boundaries[chunk];
+                long to = boundaries[chunk + 1];
+                handlers.add(handler);
+                tasks.add(() -> {
+                    new MappedCsvReader(this.separator, this.charset).read(channel, from, to, handler);
+                    return null;
+                });
+            }
+
+            if (numChunks == 1) {
+                tasks.get(0).call();
+                return handlers;
+            }
+
+            // A plain thread pool reports the original exception of a failed chunk; a ForkJoinPool would re-wrap it
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.parallelism, numChunks));
+            try {
+                for (Future<Void> future : pool.invokeAll(tasks))
+                    future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException)
+                    throw (IOException) e.getCause();
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new RuntimeException(e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+            return handlers;
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Only the single-chunk call() declares a checked exception beyond IOException
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the position right after the first record that starts at the provided offset, i.e., the start of the
+     * second record, or the file size if there is no second record.
+     * @param filePath The CSV file to read.
+     * @param offset The position of the start of a record.
+     * @return The position right after the record starting at offset.
+     * @throws IOException If the file cannot be read.
+     */
+    public long endOfRecord(Path filePath, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return new RecordBoundaryFinder((byte) this.separator).find(channel, offset, offset + 1);
+        }
+    }
+
+    /**
+     * Splits the range from offset to the end of the file into chunks. The split points are first placed evenly and
+     * then moved forward to the next record start, which requires one sequential pass over the quote and escape
+     * structure of the file; this pass is much cheaper than the actual scanning.
+     */
+    private long[] split(FileChannel channel, long offset) throws IOException {
+        long size = channel.size();
+        long length = Math.max(0, size - offset);
+        int numChunks = (int) Math.max(1, Math.min(this.parallelism, length / this.minChunkSize));
+        numChunks = (int) Math.max(numChunks, (length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+
+        List<Long> boundaries = new ArrayList<>(numChunks + 1);
+        boundaries.add(offset);
+        long previous = offset;
+        for (int chunk = 1; chunk < numChunks; chunk++) {
+            long target = Math.max(previous + 1, offset + length * chunk / numChunks);
+            long boundary = new RecordBoundaryFinder((byte) this.separator).find(channel, previous, target);
+            if (boundary >= size)
+                break;
+            if (boundary - previous > MAX_CHUNK_SIZE)
+                throw new IOException("Record at position " + previous + " is larger than " + MAX_CHUNK_SIZE + " bytes");
+            boundaries.add(boundary);
+            previous = boundary;
+        }
+        boundaries.add(Math.max(offset, size));
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * A RecordBoundaryFinder tracks only the part of the CsvScanner state that decides where records end, i.e.,
+     * whether a line break is inside a quoted field. The quote, doubled-quote and escape rules are the same as in
+     * CsvScanner.scanLine(), but lookaheads are resolved with the following byte so that the input can be consumed as a
+     * plain byte stream.
+     */
+    private static class RecordBoundaryFinder {
+
+        private final byte separator;
+
+        private boolean inQuotes = false;
+        private boolean inField = false;
+        private boolean skipEscapable = false;
+        private boolean quoteDeferred = false;
+        private boolean afterCarriageReturn = false;
+
+        public RecordBoundaryFinder(byte separator) {
+            this.separator = separator;
+        }
+
+        /**
+         * Returns the first record start at or after target; the search starts at position from, which needs to be a
+         * record start. Returns the channel size if there is no such record start.
+         */
+        public long find(FileChannel channel, long from, long target) throws IOException {
+            long size = channel.size();
+            for (long windowStart = from; windowStart < size; windowStart += WINDOW_SIZE) {
+                int windowSize = (int) Math.min(WINDOW_SIZE, size - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                for (int i = 0; i < windowSize; i++) {
+                    long position = windowStart + i;
+                    long recordStart = this.step(window.get(i), position);
+                    if (recordStart >= target)
+                        return recordStart;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Consumes the byte at the provided position and returns the position of a record start if the consumption
+         * of this byte revealed one, otherwise -1.
+         */
+        private long step(byte b, long position) {
+            long recordStart = -1;
+            if (this.afterCarriageReturn) {
+                this.afterCarriageReturn = false;
+                if (b == '\n')
+                    return position + 1;
+                recordStart = position;
+            }
+            if (this.skipEscapable) {
+                this.skipEscapable = false;
+                if (b == CsvScanner.QUOTE_CHAR || b == CsvScanner.ESCAPE_CHAR || b == this.separator)
+                    return recordStart;
+            }
+            if (this.quoteDeferred) {
+                this.quoteDeferred = false;
+                if (b == CsvScanner.QUOTE_CHAR) {
+                    this.inField = !this.inField;
+                    return recordStart;
+                }
+                this.inQuotes = !this.inQuotes;
+                this.inField = !this.inField;
+            }
+
+            if (b == CsvScanner.ESCAPE_CHAR) {
+                this.inField = true;
+                this.skipEscapable = true;
+            } else if (b == CsvScanner.QUOTE_CHAR) {
+                if (this.inQuotes || this.inField) {
+                    this.quoteDeferred = true;
+                } else {
+                    this.inQuotes = true;
+                    this.inField = !this.inField;
+                }
+            } else if (b == '\n' || b == '\r') {
+                if (!this.inQuotes) {
+                    this.inField = false;
+                    if (b == '\r')
+                        this.afterCarriageReturn = true;
+                    else
+                        recordStart = position + 1;
+                }
+            } else if (b == this.separator && !this.inQuotes) {
+                this.inField = false;
+            } else {
+                this.inField = true;
+            }
+            return recordStart;
+        }
+    }
+}
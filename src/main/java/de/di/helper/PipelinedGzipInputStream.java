@@ -0,0 +1,153 @@
+package de.di.helper;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A PipelinedGzipInputStream decompresses a gzip file on a separate thread, so that reading and inflating the file
+ * overlaps with parsing its content. The decompressing thread hands blocks of decompressed bytes to the consumer via a
+ * bounded queue, which limits the decompressed data in memory to a few blocks. Files that consist of several
+ * concatenated gzip members are decompressed as one stream, as GZIPInputStream does.
+ */
+class PipelinedGzipInputStream extends InputStream {
+
+    // The file extension of gzip-compressed files.
+    static final String EXTENSION = ".gz";
+
+    // The number of decompressed bytes per block.
+    static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    // The number of decompressed blocks that can wait for the consumer.
+    private static final int QUEUE_CAPACITY = 4;
+
+    // The block that marks the end of the decompressed stream.
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> blocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread decompressor;
+
+    // The failure of the decompressing thread, which is rethrown to the consumer.
+    private volatile IOException failure = null;
+
+    // The block that is currently consumed by read() or null if the next block needs to be taken from the queue.
+    private ByteBuffer current = null;
+    private boolean ended = false;
+
+    PipelinedGzipInputStream(Path filePath) throws IOException {
+        this(filePath, DEFAULT_BLOCK_SIZE);
+    }
+
+    PipelinedGzipInputStream(Path filePath, int blockSize) throws IOException {
+        this(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(filePath), 1 << 16), 1 << 16), "gunzip-" + filePath.getFileName(), blockSize);
+    }
+
+    PipelinedGzipInputStream(InputStream input, String threadName, int blockSize) {
+        this.decompressor = new Thread(() -> this.decompress(input, blockSize), threadName);
+        this.decompressor.setDaemon(true);
+        this.decompressor.start();
+    }
+
+    /**
+     * Checks whether the provided file is gzip-compressed, judging by its file name.
+     * @param filePath The file to check.
+     * @return true if the file is gzip-compressed.
+     */
+    static boolean isCompressed(Path filePath) {
+        return filePath.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * Returns the next block of decompressed bytes, which spans from position 0 to the block's limit, or null if the
+     * stream has ended. The block is owned by the caller.
+     * @return The next block of decompressed bytes or null at the end of the stream.
+     */
+    ByteBuffer nextBlock() throws IOException {
+        if (this.current != null && this.current.hasRemaining()) {
+            ByteBuffer block = this.current.slice();
+            this.current = null;
+            return block;
+        }
+        if (this.ended)
+            return null;
+        try {
+            ByteBuffer block = this.blocks.take();
+            if (block == END) {
+                this.ended = true;
+                if (this.failure != null)
+                    throw this.failure;
+                return null;
+            }
+            return block;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return (this.read(single, 0, 1) < 0) ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+        if (this.current == null || !this.current.hasRemaining()) {
+            this.current = this.nextBlock();
+            if (this.current == null)
+                return -1;
+        }
+        int count = Math.min(length, this.current.remaining());
+        this.current.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() {
+        this.decompressor.interrupt();
+        this.ended = true;
+        this.blocks.clear();
+    }
+
+    private void decompress(InputStream input, int blockSize) {
+        boolean closed = false;
+        try (input) {
+            while (true) {
+                byte[] block = new byte[blockSize];
+                int length = input.readNBytes(block, 0, blockSize);
+                if (length > 0)
+                    this.blocks.put(ByteBuffer.wrap(block, 0, length).slice());
+                if (length < blockSize)
+                    break;
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        } catch (InterruptedException e) {
+            // The consumer closed the stream, so nobody waits for further blocks
+            closed = true;
+        } catch (Throwable e) {
+            // Unchecked failures, e.g., an OutOfMemoryError, must end the stream as well, or the consumer waits forever
+            this.failure = new IOException(e);
+        } finally {
+            if (!closed)
+                this.putEnd();
+        }
+    }
+
+    private void putEnd() {
+        try {
+            this.blocks.put(END);
+        } catch (InterruptedException e) {
+            // The consumer closed the stream, so nobody waits for the end anymore
+        }
+    }
+}
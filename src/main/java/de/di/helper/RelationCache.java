@@ -0,0 +1,213 @@
+package de.di.helper;
+
+import de.di.Relation;
+import de.di.structures.DictionaryColumn;
+import de.di.structures.EncodedColumn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+
+/**
+ * A RelationCache stores already parsed relations in a compact binary, column-wise format and loads them again with
+ * one buffered sequential read, which skips CSV parsing and dictionary building entirely and works for cache files of
+ * any size. A cache file is only used if the size and the modification time of its CSV file as well as the hash of
+ * the parsing options are still the same as when the cache file was written; otherwise, it is silently replaced on the
+ * next store(). Unreadable or corrupt cache files are treated like missing ones.
+ * The format is: magic, version, source size, source modification time, options hash, the attributes, the number of
+ * records and, for every column, its dictionary followed by its codes.
+ */
+public class RelationCache {
+
+    // The file extension of cache files, which readers use to skip cache files that lie next to CSV files.
+    public static final String EXTENSION = ".relcache";
+
+    private static final long MAGIC = 0x44495245_4C434348L; // "DIRELCCH"
+    private static final int VERSION = 1;
+
+    // The directory that stores the cache files or null if cache files should be written next to their CSV files.
+    private final Path directory;
+
+    public RelationCache(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Checks whether the provided file is a cache file.
+     * @param filePath The path of the file.
+     * @return true if the file is a cache file.
+     */
+    public static boolean isCacheFile(Path filePath) {
+        return filePath.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * Returns the cache file for the provided CSV file.
+     * @param filePath The path of the CSV file.
+     * @return The path of the cache file for the provided CSV file.
+     */
+    public Path cacheFileOf(Path filePath) {
+        String fileName = filePath.getFileName().toString();
+        if (this.directory == null)
+            return filePath.resolveSibling(fileName + EXTENSION);
+        // Files with equal names in different folders must not share a cache file
+        String pathHash = Integer.toHexString(filePath.toAbsolutePath().normalize().toString().hashCode());
+        return this.directory.resolve(fileName + "." + pathHash + EXTENSION);
+    }
+
+    /**
+     * Loads the cached relation of the provided CSV file.
+     * @param filePath The path of the CSV file.
+     * @param hasHeader The header flag the relation would be parsed with.
+     * @param separator The separator the relation would be parsed with.
+     * @param charset The charset the relation would be parsed with.
+     * @return The cached relation or null if there is no valid cache file for the CSV file and parsing options.
+     */
+    public Relation load(Path filePath, boolean hasHeader, char separator, Charset charset) {
+        Path cacheFile = this.cacheFileOf(filePath);
+        if (!Files.isRegularFile(cacheFile))
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile), 1 << 16))) {
+            if (in.readLong() != MAGIC || in.readInt() != VERSION)
+                return null;
+            if (in.readLong() != Files.size(filePath) ||
+                    in.readLong() != Files.getLastModifiedTime(filePath).toMillis() ||
+                    in.readInt() != optionsHash(hasHeader, separator, charset))
+                return null;
+
+            // Every length is bounded by the file size, so a corrupt length cannot allocate more than the file holds
+            long fileSize = Files.size(cacheFile);
+            String[] attributes = new String[checkedLength(in.readInt(), Integer.BYTES, fileSize)];
+            for (int i = 0; i < attributes.length; i++)
+                attributes[i] = readString(in, fileSize);
+
+            int numRecords = checkedLength(in.readInt(), Integer.BYTES, fileSize);
+            DictionaryColumn[] columns = new DictionaryColumn[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                String[] dictionary = new String[checkedLength(in.readInt(), Integer.BYTES, fileSize)];
+                for (int code = 0; code < dictionary.length; code++)
+                    dictionary[code] = readString(in, fileSize);
+                int[] codes = new int[numRecords];
+                readInts(in, codes);
+                columns[i] = new DictionaryColumn(dictionary, codes);
+            }
+            return new Relation(RelationReader.relationNameOf(filePath), attributes, columns);
+        } catch (IOException | RuntimeException e) {
+            // A truncated, corrupt or unreadable cache file is treated like a missing one
+            return null;
+        }
+    }
+
+    /**
+     * Stores the provided relation as cache file of the provided CSV file. The file is written to a temporary file
+     * first and then moved, so concurrent readers never see a partially written cache file; if writing or moving fails,
+     * the temporary file is deleted again.
+     * @param filePath The path of the CSV file the relation was parsed from.
+     * @param hasHeader The header flag the relation was parsed with.
+     * @param separator The separator the relation was parsed with.
+     * @param charset The charset the relation was parsed with.
+     * @param relation The relation to store.
+     */
+    public void store(Path filePath, boolean hasHeader, char separator, Charset charset, Relation relation) {
+        Path cacheFile = this.cacheFileOf(filePath);
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            Path tempFile = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), "tmp.", EXTENSION);
+            boolean moved = false;
+            try {
+                write(tempFile, filePath, hasHeader, separator, charset, relation);
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                moved = true;
+            } finally {
+                if (!moved)
+                    Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void write(Path tempFile, Path filePath, boolean hasHeader, char separator, Charset charset, Relation relation) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(filePath));
+            out.writeLong(Files.getLastModifiedTime(filePath).toMillis());
+            out.writeInt(optionsHash(hasHeader, separator, charset));
+
+            out.writeInt(relation.getAttributes().length);
+            for (String attribute : relation.getAttributes())
+                writeString(out, attribute);
+
+            out.writeInt(relation.getNumRecords());
+            for (int i = 0; i < relation.getAttributes().length; i++) {
+                EncodedColumn column = relation.getEncodedColumn(i);
+                out.writeInt(column.cardinality());
+                for (String value : column.getDictionary())
+                    writeString(out, value);
+                writeInts(out, column.getCodes());
+            }
+        }
+    }
+
+    private static int optionsHash(boolean hasHeader, char separator, Charset charset) {
+        return Objects.hash(hasHeader, separator, charset.name());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * Math.min(values.length, 1 << 14));
+        for (int offset = 0; offset < values.length; offset += buffer.capacity() / Integer.BYTES) {
+            int length = Math.min(values.length - offset, buffer.capacity() / Integer.BYTES);
+            buffer.clear();
+            buffer.asIntBuffer().put(values, offset, length);
+            out.write(buffer.array(), 0, Integer.BYTES * length);
+        }
+    }
+
+    private static String readString(DataInputStream in, long fileSize) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[checkedLength(length, 1, fileSize)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readInts(DataInputStream in, int[] values) throws IOException {
+        byte[] bytes = new byte[Integer.BYTES * Math.min(values.length, 1 << 14)];
+        for (int offset = 0; offset < values.length; offset += bytes.length / Integer.BYTES) {
+            int length = Math.min(values.length - offset, bytes.length / Integer.BYTES);
+            in.readFully(bytes, 0, Integer.BYTES * length);
+            ByteBuffer.wrap(bytes).asIntBuffer().get(values, offset, length);
+        }
+    }
+
+    /**
+     * Returns the provided length if that many elements of the provided size fit into the cache file.
+     */
+    private static int checkedLength(int length, int elementSize, long fileSize) throws IOException {
+        if (length < 0 || (long) length * elementSize > fileSize)
+            throw new IOException("Invalid length " + length + " in cache file");
+        return length;
+    }
+}
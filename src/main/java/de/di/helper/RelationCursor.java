@@ -0,0 +1,31 @@
+package de.di.helper;
+
+import java.util.Iterator;
+
+/**
+ * A RelationCursor iterates the records of a relation once, in record order, without requiring the relation to be
+ * held in memory as a whole. Algorithms that need only a single pass over the records, such as value set building or
+ * key generation, can consume a cursor and thereby work on inputs that are larger than the heap and start before the
+ * input has been read completely. Every record returned by next() has exactly one value per attribute and is owned by
+ * the caller.
+ */
+public interface RelationCursor extends Iterator<String[]>, AutoCloseable {
+
+    /**
+     * Returns the name of the relation this cursor iterates.
+     * @return The name of the relation.
+     */
+    String getName();
+
+    /**
+     * Returns the attributes of the relation this cursor iterates.
+     * @return The attributes of the relation.
+     */
+    String[] getAttributes();
+
+    /**
+     * Releases the resources of this cursor; a cursor that has been iterated to its end is closed implicitly.
+     */
+    @Override
+    void close();
+}
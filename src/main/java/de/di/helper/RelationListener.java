@@ -0,0 +1,20 @@
+package de.di.helper;
+
+import de.di.Relation;
+
+/**
+ * A RelationListener is notified about records that are appended to a relation, so that structures derived from the
+ * relation, such as indexes or profiling results, can be updated with the new records only instead of being rebuilt
+ * from all records.
+ */
+public interface RelationListener {
+
+    /**
+     * Called after records have been appended to the provided relation. The appended records have the indexes from
+     * fromIndex (inclusive) to toIndex (exclusive); the indexes of all other records are unchanged.
+     * @param relation The relation that has grown.
+     * @param fromIndex The index of the first appended record.
+     * @param toIndex The index after the last appended record, which is the new number of records.
+     */
+    void recordsAppended(Relation relation, int fromIndex, int toIndex);
+}
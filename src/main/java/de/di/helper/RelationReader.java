@@ -0,0 +1,539 @@
+package de.di.helper;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.enums.CSVReaderNullFieldIndicator;
+import com.opencsv.exceptions.CsvValidationException;
+import de.di.Relation;
+import de.di.structures.ByteColumn;
+import de.di.structures.DictionaryColumn;
+import de.di.structures.EncodedColumn;
+import de.di.structures.OffHeapColumn;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A RelationReader loads CSV files into dictionary-encoded Relations. Files in ASCII-compatible charsets are
+ * memory-mapped and scanned at byte level, so neither lines nor fields are materialized as Strings; large files are
+ * additionally split into chunks that are scanned in parallel. Files in all other charsets are read with opencsv.
+ */
+public class RelationReader {
+
+    private final boolean hasHeader;
+    private final char separator;
+    private final Charset charset;
+
+    // The maximum number of threads that scan chunks of the same file concurrently.
+    private final int parallelism;
+
+    // The cache for already parsed relations or null if relations should always be parsed.
+    private final RelationCache cache;
+
+    // The directory for the storage files of off-heap relations or null if relations should be stored on the heap.
+    private final Path offHeapDirectory;
+
+    // The sampling that selects the loaded records or null if all records should be loaded.
+    private Sampling sampling = null;
+
+    // The load time in milliseconds of every file read by the last readAll() call, in file name order.
+    private Map<Path, Long> loadTimes = Collections.emptyMap();
+
+    public RelationReader(final boolean hasHeader, final char separator, final Charset charset) {
+        this(hasHeader, separator, charset, Runtime.getRuntime().availableProcessors());
+    }
+
+    public RelationReader(final boolean hasHeader, final char separator, final Charset charset, final int parallelism) {
+        this(hasHeader, separator, charset, parallelism, null);
+    }
+
+    public RelationReader(final boolean hasHeader, final char separator, final Charset charset, final int parallelism, final RelationCache cache) {
+        this(hasHeader, separator, charset, parallelism, cache, null);
+    }
+
+    public RelationReader(final boolean hasHeader, final char separator, final Charset charset, final int parallelism, final RelationCache cache, final Path offHeapDirectory) {
+        this.hasHeader = hasHeader;
+        this.separator = separator;
+        this.charset = charset;
+        this.parallelism = parallelism;
+        this.cache = cache;
+        this.offHeapDirectory = offHeapDirectory;
+    }
+
+    /**
+     * Returns a reader with the same options as this reader that loads only a sample of the records of every file.
+     * Sampled relations are drawn from a cursor over the file; they are always stored on the heap and bypass the cache.
+     * @param sampling The sampling that selects the loaded records or null if all records should be loaded.
+     * @return The sampling reader.
+     */
+    public RelationReader withSampling(Sampling sampling) {
+        RelationReader reader = new RelationReader(this.hasHeader, this.separator, this.charset, this.parallelism, this.cache, this.offHeapDirectory);
+        reader.sampling = sampling;
+        return reader;
+    }
+
+    /**
+     * Returns the relation name for the provided file, which is the file name up to its first dot.
+     * @param filePath The path of the file.
+     * @return The relation name for the provided file.
+     */
+    public static String relationNameOf(Path filePath) {
+        return filePath.getFileName().toString().split("\\.")[0];
+    }
+
+    /**
+     * Reads the provided CSV file into a relation. Missing values of short records are encoded as empty strings and
+     * surplus values of long records are dropped. If this reader has a cache, a valid cache file is loaded instead of
+     * the CSV file and a freshly parsed relation is written to the cache. If this reader has an off-heap directory, the
+     * relation is stored in memory-mapped files in that directory instead of on the heap; such relations bypass the
+     * cache. If this reader has a sampling, the relation holds only the sampled records. Files whose name ends with .gz
+     * are decompressed on the fly by a separate thread, so the decompressed file never needs to be stored.
+     * @param filePath The CSV file to read.
+     * @return The relation holding the file's content.
+     */
+    public Relation read(Path filePath) {
+        if (this.sampling != null)
+            return this.sampling.apply(this.cursor(filePath));
+
+        if (this.offHeapDirectory != null) {
+            try {
+                return this.readOffHeap(filePath);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        if (this.cache != null) {
+            Relation relation = this.cache.load(filePath, this.hasHeader, this.separator, this.charset);
+            if (relation != null)
+                return relation;
+        }
+
+        Relation relation;
+        try {
+            if (CsvScanner.supports(this.charset) && this.separator < 128 && PipelinedGzipInputStream.isCompressed(filePath))
+                relation = this.readCompressed(filePath);
+            else if (CsvScanner.supports(this.charset) && this.separator < 128)
+                relation = this.readMapped(filePath, new ParallelCsvReader(this.separator, this.charset, this.parallelism));
+            else
+                relation = this.readWithOpenCsv(filePath);
+        } catch (CsvValidationException | IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (this.cache != null) {
+            try {
+                this.cache.store(filePath, this.hasHeader, this.separator, this.charset, relation);
+            } catch (RuntimeException e) {
+                // The cache is only an optimization, so a failed write must not discard the relation that was just
+                // read; the next read simply parses the file again
+            }
+        }
+        return relation;
+    }
+
+    /**
+     * Opens a cursor that streams the records of the provided CSV file in one pass, without holding the file in memory
+     * as a whole. The records are shaped like the records of the relation that read() would return; the cache of this
+     * reader is not used. Repeated values are interned per column up to a default number of distinct values.
+     * @param filePath The CSV file to stream.
+     * @return A cursor over the records of the file, which the caller needs to close.
+     */
+    public RelationCursor cursor(Path filePath) {
+        return this.cursor(filePath, CsvRelationCursor.DEFAULT_INTERN_CAPACITY);
+    }
+
+    /**
+     * Opens a cursor that streams the records of the provided CSV file in one pass. Repeated values of every column
+     * share one String instance until the column exceeds internCapacity distinct values; from then on, the column's
+     * values are not interned anymore.
+     * @param filePath The CSV file to stream.
+     * @param internCapacity The maximum number of distinct values that are interned per column; 0 disables interning.
+     * @return A cursor over the records of the file, which the caller needs to close.
+     */
+    public RelationCursor cursor(Path filePath, int internCapacity) {
+        try {
+            CSVReader reader = (CsvScanner.supports(this.charset) && this.separator < 128) ? null : this.openCsvReader(filePath);
+            return new CsvRelationCursor(filePath, this.hasHeader, this.separator, this.charset, CsvRelationCursor.DEFAULT_WINDOW_SIZE, internCapacity, reader);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads all files in the provided folder (and its sub-folders) into relations. Up to fileParallelism files are
+     * loaded concurrently on a bounded thread pool; the threads that scan chunks of a single file are divided among
+     * them, so the total number of threads stays within the parallelism of this reader. The relations are returned in
+     * the order of their file paths, independent of the order in which their loading finishes.
+     * @param folderPath The folder whose files should be read.
+     * @param fileParallelism The maximum number of files that are loaded concurrently.
+     * @return The relations of all files in the folder, sorted by file path.
+     */
+    public List<Relation> readAll(String folderPath, int fileParallelism) {
+        List<Path> filePaths;
+        try (Stream<Path> paths = Files.walk(Path.of(folderPath))) {
+            filePaths = paths.filter(Files::isRegularFile)
+                    .filter(filePath -> !RelationCache.isCacheFile(filePath))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        int numThreads = Math.max(1, Math.min(fileParallelism, filePaths.size()));
+        RelationReader fileReader = new RelationReader(this.hasHeader, this.separator, this.charset, Math.max(1, this.parallelism / numThreads), this.cache, this.offHeapDirectory).withSampling(this.sampling);
+        Map<Path, Long> loadTimes = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<Relation>> futures = new ArrayList<>(filePaths.size());
+            for (Path filePath : filePaths) {
+                futures.add(executor.submit(() -> {
+                    long time = System.nanoTime();
+                    Relation relation = fileReader.read(filePath);
+                    loadTimes.put(filePath, (System.nanoTime() - time) / 1_000_000);
+                    return relation;
+                }));
+            }
+
+            List<Relation> relations = new ArrayList<>(futures.size());
+            for (Future<Relation> future : futures)
+                relations.add(future.get());
+
+            this.loadTimes = new LinkedHashMap<>();
+            for (Path filePath : filePaths)
+                this.loadTimes.put(filePath, loadTimes.get(filePath));
+            return relations;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the load time in milliseconds of every file that was read by the last call of readAll().
+     * @return The load times by file path, in file path order.
+     */
+    public Map<Path, Long> getLoadTimes() {
+        return this.loadTimes;
+    }
+
+    Relation readMapped(Path filePath, ParallelCsvReader reader) throws IOException {
+        // The first record determines the attributes, which all chunks need to know before they can be scanned
+        long firstRecordEnd = reader.endOfRecord(filePath, 0);
+        String[] attributes = this.readAttributes(filePath, firstRecordEnd);
+        long offset = this.hasHeader ? firstRecordEnd : 0;
+
+        List<HeapColumnEncoder> encoders = reader.read(filePath, offset, chunk -> new HeapColumnEncoder(attributes.length, this.charset));
+
+        // Stitch the chunks in file order, so that record indexes are the same as with a sequential scan
+        EncodedColumn[] columns = new EncodedColumn[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            List<ByteColumn> parts = new ArrayList<>(encoders.size());
+            for (HeapColumnEncoder encoder : encoders)
+                parts.add(encoder.build(i));
+            columns[i] = stitch(parts);
+        }
+        return new Relation(relationNameOf(filePath), attributes, columns);
+    }
+
+    /**
+     * Reads the provided gzip-compressed CSV file into a relation. The file is decompressed on a separate thread while
+     * this thread scans the decompressed blocks, so decompression and parsing overlap.
+     */
+    private Relation readCompressed(Path filePath) throws IOException {
+        HeaderSplitter splitter = new HeaderSplitter(this.hasHeader, this.charset);
+        CsvScanner scanner = new CsvScanner(this.separator, this.charset, splitter);
+        try (PipelinedGzipInputStream input = new PipelinedGzipInputStream(filePath)) {
+            ByteBuffer block;
+            while ((block = input.nextBlock()) != null)
+                scanner.scan(block, 0, block.limit());
+            scanner.finish();
+        }
+
+        String[] attributes = splitter.getAttributes();
+        EncodedColumn[] columns = new EncodedColumn[attributes.length];
+        for (int i = 0; i < attributes.length; i++)
+            columns[i] = stitch(List.of(splitter.getEncoder().build(i)));
+        return new Relation(relationNameOf(filePath), attributes, columns);
+    }
+
+    /**
+     * Concatenates the provided parts of a column; columns with one byte per character stay raw bytes, all others are
+     * decoded once per distinct value.
+     */
+    private static EncodedColumn stitch(List<ByteColumn> parts) {
+        if (parts.stream().allMatch(ByteColumn::isSingleByte))
+            return ByteColumn.concat(parts);
+        return DictionaryColumn.concat(parts.stream().map(ByteColumn::toDictionaryColumn).collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads the provided CSV file into a relation whose columns are stored in memory-mapped files. The file is scanned
+     * sequentially, because off-heap columns are encoded in place and cannot be concatenated from chunks cheaply.
+     */
+    private Relation readOffHeap(Path filePath) throws IOException {
+        if (!CsvScanner.supports(this.charset) || this.separator > 127 || PipelinedGzipInputStream.isCompressed(filePath)) {
+            try (RelationCursor cursor = this.cursor(filePath, 0)) {
+                OffHeapColumnEncoder encoder = new OffHeapColumnEncoder(cursor.getAttributes().length, StandardCharsets.UTF_8, this.offHeapDirectory);
+                while (cursor.hasNext())
+                    encoder.add(cursor.next());
+                return new Relation(relationNameOf(filePath), cursor.getAttributes(), encoder.build());
+            }
+        }
+
+        long firstRecordEnd = new ParallelCsvReader(this.separator, this.charset, 1).endOfRecord(filePath, 0);
+        String[] attributes = this.readAttributes(filePath, firstRecordEnd);
+        long offset = this.hasHeader ? firstRecordEnd : 0;
+
+        OffHeapColumnEncoder encoder = new OffHeapColumnEncoder(attributes.length, this.charset, this.offHeapDirectory);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            new MappedCsvReader(this.separator, this.charset).read(channel, offset, channel.size(), encoder);
+        }
+        return new Relation(relationNameOf(filePath), attributes, encoder.build());
+    }
+
+    /**
+     * Reads the attributes from the first record of the provided file, which ends at firstRecordEnd.
+     */
+    private String[] readAttributes(Path filePath, long firstRecordEnd) throws IOException {
+        List<String> firstRecord = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            new MappedCsvReader(this.separator, this.charset).read(channel, 0, firstRecordEnd, new CsvScanner.RecordHandler() {
+                @Override
+                public void field(int fieldIndex, byte[] bytes, int length) {
+                    firstRecord.add(new String(bytes, 0, length, RelationReader.this.charset));
+                }
+
+                @Override
+                public void endRecord(int numFields) {
+                }
+            });
+        }
+        return this.hasHeader ? firstRecord.toArray(new String[0]) : defaultAttributes(firstRecord.size());
+    }
+
+    CSVReader openCsvReader(Path filePath) throws IOException {
+        CSVParser parser = new CSVParserBuilder()
+                .withSeparator(this.separator)
+                .withQuoteChar((char) CsvScanner.QUOTE_CHAR)
+                .withEscapeChar((char) CsvScanner.ESCAPE_CHAR)
+                .withStrictQuotes(false)
+                .withIgnoreLeadingWhiteSpace(false)
+                .withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
+                .build();
+        Reader reader = PipelinedGzipInputStream.isCompressed(filePath) ?
+                new InputStreamReader(new PipelinedGzipInputStream(filePath), this.charset) :
+                Files.newBufferedReader(filePath, this.charset);
+        return new CSVReaderBuilder(reader).withCSVParser(parser).build();
+    }
+
+    private Relation readWithOpenCsv(Path filePath) throws IOException, CsvValidationException {
+        String[] attributes = null;
+        DictionaryColumn.Builder[] builders = null;
+        try (CSVReader reader = this.openCsvReader(filePath)) {
+
+            if (this.hasHeader)
+                attributes = reader.readNext();
+
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                if (attributes == null)
+                    attributes = defaultAttributes(line.length);
+                if (builders == null)
+                    builders = createBuilders(attributes.length);
+                for (int i = 0; i < builders.length; i++)
+                    builders[i].add(i < line.length ? line[i] : "");
+            }
+        }
+
+        attributes = (attributes == null) ? new String[0] : attributes;
+        builders = (builders == null) ? createBuilders(attributes.length) : builders;
+
+        DictionaryColumn[] columns = new DictionaryColumn[builders.length];
+        for (int i = 0; i < builders.length; i++)
+            columns[i] = builders[i].build();
+        return new Relation(relationNameOf(filePath), attributes, columns);
+    }
+
+    private static DictionaryColumn.Builder[] createBuilders(int numAttributes) {
+        DictionaryColumn.Builder[] builders = new DictionaryColumn.Builder[numAttributes];
+        for (int i = 0; i < numAttributes; i++)
+            builders[i] = new DictionaryColumn.Builder();
+        return builders;
+    }
+
+    static String[] defaultAttributes(int numAttributes) {
+        String[] attributes = new String[numAttributes];
+        for (int i = 0; i < numAttributes; i++)
+            attributes[i] = String.valueOf(i);
+        return attributes;
+    }
+
+    /**
+     * A ColumnEncoder receives the fields of scanned records as raw bytes and appends them to one column builder per
+     * attribute.
+     */
+    private abstract static class ColumnEncoder implements CsvScanner.RecordHandler {
+
+        private static final byte[] EMPTY_VALUE = new byte[0];
+
+        private final int numAttributes;
+
+        public ColumnEncoder(int numAttributes) {
+            this.numAttributes = numAttributes;
+        }
+
+        @Override
+        public void field(int fieldIndex, byte[] bytes, int length) {
+            if (fieldIndex < this.numAttributes)
+                this.add(fieldIndex, bytes, length);
+        }
+
+        @Override
+        public void endRecord(int numFields) {
+            for (int i = numFields; i < this.numAttributes; i++)
+                this.add(i, EMPTY_VALUE, 0);
+        }
+
+        protected abstract void add(int attribute, byte[] bytes, int length);
+    }
+
+    /**
+     * A HeapColumnEncoder encodes the fields into ByteColumns.
+     */
+    private static class HeapColumnEncoder extends ColumnEncoder {
+
+        private final ByteColumn.Builder[] builders;
+
+        public HeapColumnEncoder(int numAttributes, Charset charset) {
+            super(numAttributes);
+            this.builders = new ByteColumn.Builder[numAttributes];
+            for (int i = 0; i < numAttributes; i++)
+                this.builders[i] = new ByteColumn.Builder(charset);
+        }
+
+        @Override
+        protected void add(int attribute, byte[] bytes, int length) {
+            this.builders[attribute].add(bytes, length);
+        }
+
+        public ByteColumn build(int attribute) {
+            return this.builders[attribute].build();
+        }
+    }
+
+    /**
+     * A HeaderSplitter receives the records of a file that is scanned in one sequential pass: it takes the attributes
+     * from the first record and creates the column encoder for the remaining records, into which the first record is
+     * also encoded if the file has no header.
+     */
+    private static class HeaderSplitter implements CsvScanner.RecordHandler {
+
+        private final boolean hasHeader;
+        private final Charset charset;
+
+        // The raw fields of the first record, which is complete once the encoder has been created.
+        private final List<byte[]> firstRecord = new ArrayList<>();
+        private String[] attributes = null;
+        private HeapColumnEncoder encoder = null;
+
+        public HeaderSplitter(boolean hasHeader, Charset charset) {
+            this.hasHeader = hasHeader;
+            this.charset = charset;
+        }
+
+        @Override
+        public void field(int fieldIndex, byte[] bytes, int length) {
+            if (this.encoder == null)
+                this.firstRecord.add(Arrays.copyOf(bytes, length));
+            else
+                this.encoder.field(fieldIndex, bytes, length);
+        }
+
+        @Override
+        public void endRecord(int numFields) {
+            if (this.encoder != null) {
+                this.encoder.endRecord(numFields);
+                return;
+            }
+            if (this.hasHeader) {
+                this.attributes = this.firstRecord.stream().map(field -> new String(field, this.charset)).toArray(String[]::new);
+                this.encoder = new HeapColumnEncoder(this.attributes.length, this.charset);
+            } else {
+                this.attributes = defaultAttributes(numFields);
+                this.encoder = new HeapColumnEncoder(this.attributes.length, this.charset);
+                for (int i = 0; i < this.firstRecord.size(); i++)
+                    this.encoder.field(i, this.firstRecord.get(i), this.firstRecord.get(i).length);
+                this.encoder.endRecord(numFields);
+            }
+        }
+
+        public String[] getAttributes() {
+            return (this.attributes == null) ? new String[0] : this.attributes;
+        }
+
+        public HeapColumnEncoder getEncoder() {
+            return (this.encoder == null) ? new HeapColumnEncoder(0, this.charset) : this.encoder;
+        }
+    }
+
+    /**
+     * An OffHeapColumnEncoder encodes the fields into OffHeapColumns.
+     */
+    private static class OffHeapColumnEncoder extends ColumnEncoder {
+
+        private final OffHeapColumn.Builder[] builders;
+
+        public OffHeapColumnEncoder(int numAttributes, Charset charset, Path directory) {
+            super(numAttributes);
+            this.builders = new OffHeapColumn.Builder[numAttributes];
+            for (int i = 0; i < numAttributes; i++)
+                this.builders[i] = new OffHeapColumn.Builder(charset, directory);
+        }
+
+        @Override
+        protected void add(int attribute, byte[] bytes, int length) {
+            this.builders[attribute].add(bytes, length);
+        }
+
+        public void add(String[] record) {
+            for (int i = 0; i < this.builders.length; i++)
+                this.builders[i].add(record[i]);
+        }
+
+        public OffHeapColumn[] build() {
+            OffHeapColumn[] columns = new OffHeapColumn[this.builders.length];
+            for (int i = 0; i < columns.length; i++)
+                columns[i] = this.builders[i].build();
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.di.helper;
+
+import de.di.Relation;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A Sampling describes which records of a file are loaded if a relation should only be approximated by a subset of its
+ * records. A reservoir sampling draws a uniform random sample of a fixed size in a single pass, which is reproducible
+ * for the same seed; a head sampling takes the first records of the file. Both keep the sampled records in file order.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Sampling {
+
+    public enum Mode {
+        RESERVOIR, HEAD
+    }
+
+    private final Mode mode;
+
+    // The maximum number of records in a sample.
+    private final int size;
+
+    // The seed of the random number generator; only used by reservoir samplings.
+    private final long seed;
+
+    /**
+     * Creates a sampling that draws a uniform random sample of the provided size.
+     * @param size The maximum number of records in a sample.
+     * @param seed The seed that makes the sample reproducible.
+     * @return The reservoir sampling.
+     */
+    public static Sampling reservoir(int size, long seed) {
+        if (size < 0)
+            throw new IllegalArgumentException("Sample size must not be negative: " + size);
+        return new Sampling(Mode.RESERVOIR, size, seed);
+    }
+
+    /**
+     * Creates a sampling that takes the first records of a file.
+     * @param size The maximum number of records in a sample.
+     * @return The head sampling.
+     */
+    public static Sampling head(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Sample size must not be negative: " + size);
+        return new Sampling(Mode.HEAD, size, 0);
+    }
+
+    /**
+     * Draws a sample from the records of the provided cursor. A head sampling stops reading as soon as the sample is
+     * complete; a reservoir sampling reads all records, but only draws random numbers for the O(size * log(n / size))
+     * records that enter the reservoir (Li's Algorithm L), so it costs little more than the scan itself.
+     * @param cursor The cursor over the records to sample from; it is closed afterwards.
+     * @return The relation with the sampled records in their original order.
+     */
+    public Relation apply(RelationCursor cursor) {
+        try (cursor) {
+            String[][] records = (this.mode == Mode.HEAD) ? this.head(cursor) : this.reservoir(cursor);
+            return new Relation(cursor.getName(), cursor.getAttributes(), records);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (this.mode == Mode.HEAD) ? "head(" + this.size + ")" : "reservoir(" + this.size + ", seed " + this.seed + ")";
+    }
+
+    private String[][] head(RelationCursor cursor) {
+        List<String[]> records = new ArrayList<>();
+        while (records.size() < this.size && cursor.hasNext())
+            records.add(cursor.next());
+        return records.toArray(new String[0][]);
+    }
+
+    private String[][] reservoir(RelationCursor cursor) {
+        if (this.size == 0)
+            return new String[0][];
+
+        // The reservoir remembers the position of every record, so that the sample can be restored to file order
+        String[][] reservoir = new String[this.size][];
+        long[] positions = new long[this.size];
+        long position = 0;
+        while (position < this.size && cursor.hasNext()) {
+            reservoir[(int) position] = cursor.next();
+            positions[(int) position] = position;
+            position++;
+        }
+        if (position < this.size)
+            return Arrays.copyOf(reservoir, (int) position);
+
+        // Algorithm L: the gaps between records that enter the reservoir are geometrically distributed
+        Random random = new Random(this.seed);
+        double weight = Math.exp(Math.log(nextUniform(random)) / this.size);
+        long next = position + skip(random, weight);
+        while (cursor.hasNext()) {
+            String[] record = cursor.next();
+            if (position == next) {
+                int slot = random.nextInt(this.size);
+                reservoir[slot] = record;
+                positions[slot] = position;
+                weight *= Math.exp(Math.log(nextUniform(random)) / this.size);
+                next = position + 1 + skip(random, weight);
+            }
+            position++;
+        }
+
+        // Restore the file order of the sampled records
+        Integer[] order = new Integer[this.size];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (i, j) -> Long.compare(positions[i], positions[j]));
+        String[][] records = new String[this.size][];
+        for (int i = 0; i < records.length; i++)
+            records[i] = reservoir[order[i]];
+        return records;
+    }
+
+    private static long skip(Random random, double weight) {
+        return (long) Math.floor(Math.log(nextUniform(random)) / Math.log(1 - weight));
+    }
+
+    // A uniform random number in (0, 1], which keeps the logarithms finite
+    private static double nextUniform(Random random) {
+        return 1.0 - random.nextDouble();
+    }
+}
@@ -1,22 +1,40 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.Batches;
+import de.di.similarity_measures.helper.ColumnCache;
+import de.di.similarity_measures.helper.TokenDictionary;
 import de.di.similarity_measures.helper.Tokenizer;
-import lombok.AllArgsConstructor;
+import de.di.structures.EncodedColumn;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.*;
 
-@AllArgsConstructor
 public class Jaccard implements SimilarityMeasure {
 
+    // The reusable token buffers of every thread, so that the calculations do not allocate per call.
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
     // The tokenizer that is used to transform string inputs into token lists.
     private final Tokenizer tokenizer;
 
     // A flag indicating whether the Jaccard algorithm should use set or bag semantics for the similarity calculation.
     private final boolean bagSemantics;
 
+    // The token dictionary and the sorted token ids of the values of every column that has been compared by codes.
+    private final ColumnCache<int[]> tokenIds;
+
+    public Jaccard(final Tokenizer tokenizer, final boolean bagSemantics) {
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+        this.tokenIds = new ColumnCache<>(tokenizer, (column, tokenDictionary, code) -> tokenDictionary.getTokenIds(code));
+    }
+
     /**
      * Calculates the Jaccard similarity of the two input strings. Note that the Jaccard similarity may use set or
      * multiset, i.e., bag semantics for the union and intersect operations. The maximum Jaccard similarity with
      * multiset semantics is 1/2 and the maximum Jaccard similarity with set semantics is 1.
+     * If the tokenizer's codes identify tokens exactly, the strings are tokenized into primitive codes instead of
+     * token strings.
      *
      * @param string1 The first string argument for the similarity calculation.
      * @param string2 The second string argument for the similarity calculation.
@@ -27,6 +45,13 @@ public class Jaccard implements SimilarityMeasure {
         string1 = (string1 == null) ? "" : string1;
         string2 = (string2 == null) ? "" : string2;
 
+        if (this.tokenizer.hasExactCodes()) {
+            Buffers buffers = BUFFERS.get();
+            this.tokenizer.tokenize(string1, buffers.tokens1);
+            this.tokenizer.tokenize(string2, buffers.tokens2);
+            return calculate(buffers.tokens1, buffers.tokens2, this.bagSemantics);
+        }
+
         String[] strings1 = this.tokenizer.tokenize(string1);
         String[] strings2 = this.tokenizer.tokenize(string2);
         return this.calculate(strings1, strings2);
@@ -36,65 +61,212 @@ public class Jaccard implements SimilarityMeasure {
      * Calculates the Jaccard similarity of the two string lists. Note that the Jaccard similarity may use set or
      * multiset, i.e., bag semantics for the union and intersect operations. The maximum Jaccard similarity with
      * multiset semantics is 1/2 and the maximum Jaccard similarity with set semantics is 1.
+     * The tokens are replaced by ids that are unique within this call, so that the similarity can be calculated by
+     * merging the two sorted id lists.
      *
      * @param strings1 The first string list argument for the similarity calculation.
      * @param strings2 The second string list argument for the similarity calculation.
      * @return The multiset Jaccard similarity of the two arguments.
      */
     @Override
+    public double calculate(String[] strings1, String[] strings2) {
+        Buffers buffers = BUFFERS.get();
+        // Clearing costs the capacity of the map, so a map that has grown for large token lists is shrunk again
+        if (buffers.tokenIds.size() > Buffers.MAX_RETAINED_IDS)
+            buffers.tokenIds.trim(Buffers.MAX_RETAINED_IDS);
+        buffers.tokenIds.clear();
+        toIds(strings1, buffers.tokenIds, buffers.tokens1);
+        toIds(strings2, buffers.tokenIds, buffers.tokens2);
+        return calculate(buffers.tokens1, buffers.tokens2, this.bagSemantics);
+    }
 
-        public double calculate(String[] strings1, String[] strings2) {
-            double jaccardSimilarity;
-
-            if (!bagSemantics) { //it means we have set semantics
-                int union_size;
-                int intersection_size;
-                Set<String> set_string1, set_string2;
-                set_string1 = new HashSet<>(Arrays.asList(strings1)); //create set so that no duplicates are there
-                set_string2 = new HashSet<>(Arrays.asList(strings2));
-                Set<String> intersection = new HashSet<>(set_string1); //calculate intersection
-                intersection.retainAll(set_string2);
-                Set<String> union = new HashSet<>(set_string1); //calculate union
-                union.addAll(set_string2);
-                intersection_size = intersection.size();
-                union_size = union.size();
-                if (union_size == 0) {
-                    jaccardSimilarity = 0;
-                } else {
-                    jaccardSimilarity = (double) intersection_size / union_size;
-                }
+    /**
+     * Calculates the Jaccard similarity of two values of the provided column on their cached token ids, so that every
+     * value of the column is tokenized only once by this measure.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @return The (multiset) Jaccard similarity of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2) {
+        return calculate(this.tokenIds.get(column, code1), this.tokenIds.get(column, code2), this.bagSemantics);
+    }
+
+    /**
+     * Calculates the Jaccard similarity of two values of the provided column on their cached token ids; the merge of
+     * the id lists is cheap enough to ignore the bound.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @param minSimilarity The minimum similarity of interest, which is ignored.
+     * @return The (multiset) Jaccard similarity of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2, final double minSimilarity) {
+        return this.calculate(column, code1, code2);
+    }
+
+    /**
+     * Returns the token dictionary that this measure uses for the values of the provided column.
+     * @param column The column whose values are compared.
+     * @return The token dictionary of the column.
+     */
+    public TokenDictionary tokenDictionaryOf(final EncodedColumn column) {
+        return this.tokenIds.tokenDictionaryOf(column);
+    }
+
+    /**
+     * Calculates the Jaccard similarity of two ascendingly sorted token id lists, e.g., the ids of a TokenDictionary,
+     * with a single linear merge like calculate(LongArrayList, LongArrayList, boolean).
+     * @param sortedTokenIds1 The first sorted token id list.
+     * @param sortedTokenIds2 The second sorted token id list.
+     * @param bagSemantics Whether bag semantics should be used instead of set semantics.
+     * @return The (multiset) Jaccard similarity of the two token lists.
+     */
+    public static double calculate(int[] sortedTokenIds1, int[] sortedTokenIds2, boolean bagSemantics) {
+        int intersectionSize = 0;
+        int unionSize = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sortedTokenIds1.length || j < sortedTokenIds2.length) {
+            int tokenId = (j == sortedTokenIds2.length || (i < sortedTokenIds1.length && sortedTokenIds1[i] <= sortedTokenIds2[j]))
+                    ? sortedTokenIds1[i] : sortedTokenIds2[j];
+            int count1 = 0;
+            int count2 = 0;
+            while (i < sortedTokenIds1.length && sortedTokenIds1[i] == tokenId) {
+                count1++;
+                i++;
             }
-           else {//bag semantics
-                Map<String, Integer> tokens1 = get_Tokens_Freq(strings1);
-                Map<String, Integer> tokens2 = get_Tokens_Freq(strings2);
+            while (j < sortedTokenIds2.length && sortedTokenIds2[j] == tokenId) {
+                count2++;
+                j++;
+            }
+            intersectionSize += bagSemantics ? Math.min(count1, count2) : ((count1 > 0 && count2 > 0) ? 1 : 0);
+            unionSize += bagSemantics ? count1 + count2 : 1;
+        }
+        return (unionSize == 0) ? 0 : (double) intersectionSize / unionSize;
+    }
+
+    /**
+     * Calculates the Jaccard similarity of the two token lists, which are given as primitive token codes, e.g., the
+     * codes of Tokenizer.tokenize(String, LongArrayList). Both lists are sorted in place, so that a single linear merge
+     * counts the intersection and the union: with set semantics, equal codes count once; with bag semantics, equal
+     * codes count as often as they occur and the intersection counts the smaller number of occurrences.
+     *
+     * @param tokens1 The first token list, which is sorted by this call.
+     * @param tokens2 The second token list, which is sorted by this call.
+     * @param bagSemantics Whether bag semantics should be used instead of set semantics.
+     * @return The (multiset) Jaccard similarity of the two token lists.
+     */
+    public static double calculate(LongArrayList tokens1, LongArrayList tokens2, boolean bagSemantics) {
+        Arrays.sort(tokens1.elements(), 0, tokens1.size());
+        Arrays.sort(tokens2.elements(), 0, tokens2.size());
+        return merge(tokens1.elements(), tokens1.size(), tokens2.elements(), tokens2.size(), bagSemantics);
+    }
 
-                int intersection_size = 0;
-                int union_size = 0;
+    /**
+     * Calculates the Jaccard similarity of one query to many candidates. The query is tokenized only once: with exact
+     * token codes, its sorted codes are merged with the codes of every candidate; otherwise, its tokens are compared to
+     * the tokens of every candidate.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param similarities The array that receives the (multiset) Jaccard similarity of the query to every candidate.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double[] similarities) {
+        String queryString = (query == null) ? "" : query;
 
-                for (String token : tokens1.keySet()) {
-                    intersection_size += Math.min(tokens1.get(token), tokens2.getOrDefault(token, 0)); //get intersection size
-                    union_size += tokens1.get(token); //get part of union size
+        if (this.tokenizer.hasExactCodes()) {
+            long[] queryTokens = this.tokenizer.tokenize(queryString, new LongArrayList()).toLongArray();
+            Arrays.sort(queryTokens);
+            Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+                LongArrayList candidateTokens = BUFFERS.get().tokens2;
+                for (int i = from; i < to; i++) {
+                    this.tokenizer.tokenize((candidates[i] == null) ? "" : candidates[i], candidateTokens);
+                    Arrays.sort(candidateTokens.elements(), 0, candidateTokens.size());
+                    similarities[i] = merge(queryTokens, queryTokens.length, candidateTokens.elements(), candidateTokens.size(), this.bagSemantics);
                 }
+            });
+            return;
+        }
 
-                for (String token : tokens2.keySet()) {
-                    union_size += tokens2.get(token); //complete union size with elements from second list
-                }
+        String[] queryTokens = this.tokenizer.tokenize(queryString);
+        Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+            for (int i = from; i < to; i++)
+                similarities[i] = this.calculate(queryTokens, this.tokenizer.tokenize((candidates[i] == null) ? "" : candidates[i]));
+        });
+    }
 
-                if (union_size == 0) {
-                    jaccardSimilarity = 0;
-                } else {
-                    jaccardSimilarity = (double) intersection_size / union_size;
-                }
+    /**
+     * Calculates the Jaccard similarities of one query to many candidates exactly; the merges are cheap enough to
+     * ignore the bound.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param minSimilarity The minimum similarity of interest, which is ignored.
+     * @param similarities The array that receives the (multiset) Jaccard similarity of the query to every candidate.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double minSimilarity, final double[] similarities) {
+        this.calculate(query, candidates, similarities);
+    }
+
+    /**
+     * Merges two ascendingly sorted token code lists to count their intersection and union.
+     */
+    private static double merge(long[] sorted1, int length1, long[] sorted2, int length2, boolean bagSemantics) {
+        int intersectionSize = 0;
+        int unionSize = 0;
+        int i = 0;
+        int j = 0;
+        while (i < length1 || j < length2) {
+            // Every iteration consumes the runs of the next token of both lists
+            long token = (j == length2 || (i < length1 && sorted1[i] <= sorted2[j])) ? sorted1[i] : sorted2[j];
+            int count1 = 0;
+            int count2 = 0;
+            while (i < length1 && sorted1[i] == token) {
+                count1++;
+                i++;
+            }
+            while (j < length2 && sorted2[j] == token) {
+                count2++;
+                j++;
+            }
+            if (bagSemantics) {
+                intersectionSize += Math.min(count1, count2);
+                unionSize += count1 + count2;
+            }
+            else {
+                intersectionSize += (count1 > 0 && count2 > 0) ? 1 : 0;
+                unionSize++;
             }
-            return jaccardSimilarity;
         }
+        return (unionSize == 0) ? 0 : (double) intersectionSize / unionSize;
+    }
 
-    private Map<String, Integer> get_Tokens_Freq(String[] tokens) {
-        Map<String, Integer> freqMap = new HashMap<>();
+    private static void toIds(String[] tokens, Object2IntOpenHashMap<String> tokenIds, LongArrayList ids) {
+        ids.clear();
         for (String token : tokens) {
-            freqMap.put(token, freqMap.getOrDefault(token, 0) + 1);
+            int id = tokenIds.getInt(token);
+            if (id < 0) {
+                id = tokenIds.size();
+                tokenIds.put(token, id);
+            }
+            ids.add(id);
+        }
+    }
+
+    private static class Buffers {
+
+        private static final int MAX_RETAINED_IDS = 1024;
+
+        private final LongArrayList tokens1 = new LongArrayList();
+        private final LongArrayList tokens2 = new LongArrayList();
+        private final Object2IntOpenHashMap<String> tokenIds = new Object2IntOpenHashMap<>();
+
+        private Buffers() {
+            this.tokenIds.defaultReturnValue(-1);
         }
-        return freqMap;
     }
 }
 ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -103,4 +275,4 @@ public class Jaccard implements SimilarityMeasure {
 // calculated differently depending on the token semantics: set semantics remove duplicates while bag         //
 // semantics consider them during the calculation. The solution should be able to calculate the Jaccard       //
 // similarity either of the two semantics by respecting the inner bagSemantics flag.                          //
-////////////////////////////////////////////////////////////////////////////////////////////////////////////////
\ No newline at end of file
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////
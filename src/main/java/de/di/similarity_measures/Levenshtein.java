@@ -1,5 +1,8 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.Batches;
+import de.di.similarity_measures.helper.BitVectorEditDistance;
+import de.di.structures.ByteColumn;
 import lombok.AllArgsConstructor;
 
 import java.util.Arrays;
@@ -18,69 +21,14 @@ public class Levenshtein implements SimilarityMeasure {
     /**
      * Calculates the Levenshtein similarity of the two input strings.
      * The Levenshtein similarity is defined as "1 - normalized Levenshtein distance".
+     * The distance is calculated with the bit-parallel algorithm of Myers (and Hyyrö's transposition extension), which
+     * processes up to 64 characters of the shorter string per word operation instead of filling the matrix cell by cell.
      * @param string1 The first string argument for the similarity calculation.
      * @param string2 The second string argument for the similarity calculation.
      * @return The (Damerau) Levenshtein similarity of the two arguments.
      */
     @Override
     public double calculate(final String string1, final String string2) {
-        double levenshteinSimilarity;
-        int levenshteinDistance;
-
-        int[] upperupperLine = new int[string1.length() + 1];   // line for Damerau lookups
-        int[] upperLine = new int[string1.length() + 1];        // line for regular Levenshtein lookups
-        int[] lowerLine = new int[string1.length() + 1];        // line to be filled next by the algorithm
-
-        if (!withDamerau) {
-            for (int i = 0; i <= string1.length(); i++)
-                upperLine[i] = i; //initialize first row of table (number of edits needed to transform an empty string to string1)
-            for (int i = 1; i <= string2.length(); i++) {
-                lowerLine[0] = i; //initialize lowerLine for each row of table (number of edits needed to transform an empty string to string2)
-                for (int j = 1; j <= string1.length(); j++) {
-                    int cost = (string1.charAt(j - 1) == string2.charAt(i - 1)) ? 0 : 1; //if the characters at given position match --> cost=0, else--> cost=1
-                    lowerLine[j] = Math.min(upperLine[j - 1] + cost, Math.min(upperLine[j] + 1, lowerLine[j - 1] + 1));
-                    //lowerLine value is the minimum of 3 operations (insertion, deletion, substitution)
-                }
-                int[] c = upperLine;
-                upperLine = lowerLine;
-                lowerLine = c;
-                // Swap the arrays to use in the next iteration to avoid copying them
-            }
-        }
-        else {
-            for (int i = 0; i <= string1.length(); i++) {
-                upperupperLine[i] = i;
-                upperLine[i] = i;
-            }
-            for (int i = 0; i <= string1.length(); i++)
-                upperLine[i] = i;
-            for (int i = 1; i <= string2.length(); i++) {
-                lowerLine[0] = i;
-                for (int j = 1; j <= string1.length(); j++) {
-                    int cost = (string1.charAt(j - 1) == string2.charAt(i - 1)) ? 0 : 1;
-                    lowerLine[j] = Math.min(upperLine[j - 1] + cost, Math.min(upperLine[j] + 1, lowerLine[j - 1] + 1));
-                    if (i > 1 && j > 1 && string1.charAt(j - 1) == string2.charAt(i - 2) && string1.charAt(j - 2) == string2.charAt(i - 1)) {
-                        //Damerau: check for the possibility of transposition
-                        lowerLine[j] = Math.min(lowerLine[j], upperupperLine[j - 2] + cost);
-                        //check for the lowest cost considering the cost found before and the transposition
-                    }
-                }
-                int[] c = upperupperLine;
-                upperupperLine = upperLine;
-                upperLine = lowerLine;
-                lowerLine = c;
-            }
-        }
-        levenshteinDistance = upperLine[string1.length()]; //the value found in the last column of the last row
-
-        if (string1.isEmpty() || string2.isEmpty()) {
-            levenshteinSimilarity = 0;
-        } else {
-            levenshteinSimilarity = 1.0 - (double) levenshteinDistance / Math.max(string1.length(), string2.length());
-        }
-
-        return levenshteinSimilarity;
-    }
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         //                                      DATA INTEGRATION ASSIGNMENT                                           //
         // Use the three provided lines to successively calculate the Levenshtein matrix with the dynamic programming //
@@ -89,6 +37,142 @@ public class Levenshtein implements SimilarityMeasure {
         // to the String tuple function and adjust it a bit to work on the arrays - the algorithm is the same.        //
         //                                                                                                            //
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+        if (string1.isEmpty() || string2.isEmpty())
+            return 0;
+
+        int levenshteinDistance = BitVectorEditDistance.get().distance(string1, string2, this.withDamerau);
+        return 1.0 - (double) levenshteinDistance / Math.max(string1.length(), string2.length());
+    }
+
+    /**
+     * Calculates the Levenshtein similarity of two values of the provided column. For single-byte columns, the distance is
+     * calculated directly on the encoded bytes, because every byte is one character; equal codes need no calculation at
+     * all. The result is the same as for the decoded values.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @return The (Damerau) Levenshtein similarity of the two values.
+     */
+    @Override
+    public double calculate(final ByteColumn column, final int code1, final int code2) {
+        if (!column.isSingleByte())
+            return SimilarityMeasure.super.calculate(column, code1, code2);
+
+        int length1 = column.getValueLength(code1);
+        int length2 = column.getValueLength(code2);
+        if (length1 == 0 || length2 == 0)
+            return 0;
+        if (code1 == code2)
+            return 1;
+
+        int distance = BitVectorEditDistance.get().distance(column.getValueBytes(), column.getValueOffset(code1), length1,
+                column.getValueOffset(code2), length2, this.withDamerau);
+        return 1.0 - (double) distance / Math.max(length1, length2);
+    }
+
+    /**
+     * Calculates the Levenshtein similarity of the two input strings if it is at least minSimilarity; otherwise, 0 is
+     * returned. The bound is turned into a maximum distance k, so pairs whose lengths differ by more than k are
+     * rejected without any calculation and all other pairs stop as soon as the distance must exceed k.
+     * @param string1 The first string argument for the similarity calculation.
+     * @param string2 The second string argument for the similarity calculation.
+     * @param minSimilarity The minimum similarity of interest.
+     * @return The (Damerau) Levenshtein similarity of the two arguments or 0 if it is below minSimilarity.
+     */
+    @Override
+    public double calculate(final String string1, final String string2, final double minSimilarity) {
+        if (string1.isEmpty() || string2.isEmpty())
+            return 0;
+
+        int maxLength = Math.max(string1.length(), string2.length());
+        int maxDistance = maxDistance(maxLength, minSimilarity);
+        int levenshteinDistance = BitVectorEditDistance.get().distance(string1, string2, this.withDamerau, maxDistance);
+        return (levenshteinDistance > maxDistance) ? 0 : 1.0 - (double) levenshteinDistance / maxLength;
+    }
+
+    /**
+     * Calculates the Levenshtein similarity of two values of the provided column like
+     * calculate(String, String, double).
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @param minSimilarity The minimum similarity of interest.
+     * @return The (Damerau) Levenshtein similarity of the two values or 0 if it is below minSimilarity.
+     */
+    @Override
+    public double calculate(final ByteColumn column, final int code1, final int code2, final double minSimilarity) {
+        if (!column.isSingleByte())
+            return this.calculate(column.getValue(code1), column.getValue(code2), minSimilarity);
+
+        int length1 = column.getValueLength(code1);
+        int length2 = column.getValueLength(code2);
+        if (length1 == 0 || length2 == 0)
+            return 0;
+        if (code1 == code2)
+            return 1;
+
+        int maxLength = Math.max(length1, length2);
+        int maxDistance = maxDistance(maxLength, minSimilarity);
+        int distance = BitVectorEditDistance.get().distance(column.getValueBytes(), column.getValueOffset(code1), length1,
+                column.getValueOffset(code2), length2, this.withDamerau, maxDistance);
+        return (distance > maxDistance) ? 0 : 1.0 - (double) distance / maxLength;
+    }
+
+    /**
+     * Calculates the Levenshtein similarities of one query to many candidates. Every chunk of candidates sets the match
+     * masks of the query only once for all candidates that are at least as long as the query.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param similarities The array that receives the (Damerau) Levenshtein similarity of the query to every candidate.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double[] similarities) {
+        this.calculate(query, candidates, 0, similarities);
+    }
+
+    /**
+     * Calculates the Levenshtein similarities of one query to many candidates like calculate(String, String, double),
+     * i.e., similarities below minSimilarity are reported as 0. Every chunk of candidates sets the match masks of the
+     * query only once for all candidates that are at least as long as the query.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param minSimilarity The minimum similarity of interest.
+     * @param similarities The array that receives the (Damerau) Levenshtein similarity of the query to every candidate
+     *                     or 0 if it is below minSimilarity.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double minSimilarity, final double[] similarities) {
+        if (query.isEmpty()) {
+            Arrays.fill(similarities, 0, candidates.length, 0);
+            return;
+        }
+
+        Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+            int[] maxDistances = new int[to - from];
+            int[] distances = new int[to - from];
+            for (int i = from; i < to; i++)
+                maxDistances[i - from] = maxDistance(Math.max(query.length(), candidates[i].length()), minSimilarity);
+            BitVectorEditDistance.get().distances(query, candidates, from, to, this.withDamerau, maxDistances, distances);
+
+            for (int i = from; i < to; i++) {
+                int maxLength = Math.max(query.length(), candidates[i].length());
+                boolean tooDistant = distances[i - from] > maxDistances[i - from];
+                similarities[i] = (candidates[i].isEmpty() || tooDistant) ? 0 : 1.0 - (double) distances[i - from] / maxLength;
+            }
+        });
+    }
+
+    /**
+     * Returns the largest distance whose similarity can still be at least minSimilarity. The small tolerance keeps
+     * distances whose similarity equals minSimilarity but is not exactly representable.
+     */
+    private static int maxDistance(int maxLength, double minSimilarity) {
+        if (minSimilarity <= 0)
+            return maxLength;
+        return (int) Math.max(-1, Math.floor((1 - minSimilarity) * maxLength + 1e-9));
+    }
+
     /**
      * Calculates the Levenshtein similarity of the two input string lists.
      * The Levenshtein similarity is defined as "1 - normalized Levenshtein distance".
@@ -1,7 +1,12 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.BBitMinHash;
+import de.di.similarity_measures.helper.Batches;
+import de.di.similarity_measures.helper.ColumnCache;
 import de.di.similarity_measures.helper.MinHash;
+import de.di.similarity_measures.helper.MinHashScheme;
 import de.di.similarity_measures.helper.Tokenizer;
+import de.di.structures.EncodedColumn;
 
 import java.util.*;
 
@@ -16,6 +21,15 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
     // The MinHash functions that are used to calculate the LSH signatures.
     private final List<MinHash> minHashFunctions;
 
+    // The estimator on the signatures of a MinHashScheme, if the LSH signatures should be calculated by the scheme
+    // instead of the positional MinHash functions.
+    private final MinHashJaccard schemeEstimator;
+
+    // The cached positional signatures of the values of every column that has been compared by codes, or null if the
+    // signatures are calculated by a MinHashScheme. The positional MinHash functions compare token strings, so the
+    // values are tokenized as strings and the cache keeps no token dictionaries.
+    private final ColumnCache<String[]> signatures;
+
     public LocalitySensitiveHashing(final Tokenizer tokenizer, final boolean bagSemantics, final int numHashFunctions) {
         assert (tokenizer.getTokenSize() >= numHashFunctions);
 
@@ -24,6 +38,42 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
         this.minHashFunctions = new ArrayList<>(numHashFunctions);
         for (int i = 0; i < numHashFunctions; i++)
             this.minHashFunctions.add(new MinHash(i));
+        this.schemeEstimator = null;
+        this.signatures = new ColumnCache<>(null, (column, tokenDictionary, code) -> {
+            String value = column.getValue(code);
+            return this.signatureOf(this.tokenizer.tokenize((value == null) ? "" : value));
+        });
+    }
+
+    /**
+     * Creates an LSH measure whose signatures are calculated by the provided MinHashScheme, e.g., a
+     * OnePermutationMinHash that fills all signature slots in a single pass over the tokens. The number of hash
+     * functions of the scheme is not bound to the token size.
+     * @param tokenizer The tokenizer that is used to transform string inputs into token lists.
+     * @param bagSemantics Whether the approximated Jaccard similarity uses bag or set semantics.
+     * @param minHash The scheme that calculates the signatures.
+     */
+    public LocalitySensitiveHashing(final Tokenizer tokenizer, final boolean bagSemantics, final MinHashScheme minHash) {
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+        this.minHashFunctions = Collections.emptyList();
+        this.schemeEstimator = new MinHashJaccard(tokenizer, bagSemantics, minHash);
+        this.signatures = null;
+    }
+
+    /**
+     * Creates an LSH measure whose signatures are calculated by a MinHashScheme and packed to b bits per slot, which
+     * shrinks cached signatures by a factor of 32 / b and compares them with popcounts.
+     * @param tokenizer The tokenizer that is used to transform string inputs into token lists.
+     * @param bagSemantics Whether the approximated Jaccard similarity uses bag or set semantics.
+     * @param bBitMinHash The scheme and the number of bits per slot of the packed signatures.
+     */
+    public LocalitySensitiveHashing(final Tokenizer tokenizer, final boolean bagSemantics, final BBitMinHash bBitMinHash) {
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+        this.minHashFunctions = Collections.emptyList();
+        this.schemeEstimator = new MinHashJaccard(tokenizer, bagSemantics, bBitMinHash);
+        this.signatures = null;
     }
 
     /**
@@ -38,6 +88,8 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
      */
     @Override
     public double calculate(final String string1, final String string2) {
+        if (this.schemeEstimator != null)
+            return this.schemeEstimator.calculate(string1, string2);
 
         String[] strings1 = this.tokenizer.tokenize(string1);
         String[] strings2 = this.tokenizer.tokenize(string2);
@@ -56,25 +108,93 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
      */
     @Override
     public double calculate(String[] strings1, String[] strings2) {
-        double lshJaccard;
-        String[] signature1 = new String[this.minHashFunctions.size()];
-        String[] signature2 = new String[this.minHashFunctions.size()];
-        int numHashFunctions = minHashFunctions.size();
-
+        if (this.schemeEstimator != null)
+            return this.schemeEstimator.calculate(strings1, strings2);
         if (strings1.length == 1 && strings2.length == 1) {
             strings1 = tokenizer.tokenize(strings1[0]);
             strings2 = tokenizer.tokenize(strings2[0]);
         }
+        return this.calculateOnSignatures(this.signatureOf(strings1), this.signatureOf(strings2));
+    }
 
-        // Generate signatures for strings1
-        for (int i = 0; i < numHashFunctions; i++) {
-            signature1[i] = minHashFunctions.get(i).hash(strings1);
+    /**
+     * Calculates the LSH similarities of one query to many candidates; the query is tokenized and signed only once.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param similarities The array that receives the LSH similarity of the query to every candidate.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double[] similarities) {
+        if (this.schemeEstimator != null) {
+            this.schemeEstimator.calculate(query, candidates, similarities);
+            return;
         }
 
-        // Generate signatures for strings2
-        for (int i = 0; i < numHashFunctions; i++) {
-            signature2[i] = minHashFunctions.get(i).hash(strings2);
-        }
+        String[] queryTokens = this.tokenizer.tokenize(query);
+        String[] querySignature = this.signatureOf(queryTokens);
+        Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                String[] candidateTokens = this.tokenizer.tokenize(candidates[i]);
+                // Single tokens are tokenized again by calculate(String[], String[]), which the shortcut must not skip
+                similarities[i] = (queryTokens.length == 1 && candidateTokens.length == 1) ? this.calculate(queryTokens, candidateTokens)
+                        : this.calculateOnSignatures(querySignature, this.signatureOf(candidateTokens));
+            }
+        });
+    }
+
+    /**
+     * Calculates the LSH similarities of one query to many candidates on their signatures; the bound is ignored.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param minSimilarity The minimum similarity of interest, which is ignored.
+     * @param similarities The array that receives the LSH similarity of the query to every candidate.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double minSimilarity, final double[] similarities) {
+        this.calculate(query, candidates, similarities);
+    }
+
+    /**
+     * Calculates the LSH similarity of two values of the provided column. The signature of every value is calculated
+     * only once from the value's cached tokens and reused for all further comparisons of the value.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @return The LSH similarity (= Jaccard approximation) of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2) {
+        if (this.schemeEstimator != null)
+            return this.schemeEstimator.calculate(column, code1, code2);
+        return this.calculateOnSignatures(this.signatures.get(column, code1), this.signatures.get(column, code2));
+    }
+
+    /**
+     * Calculates the LSH similarity of two values of the provided column on their cached signatures; the bound is
+     * ignored.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @param minSimilarity The minimum similarity of interest, which is ignored.
+     * @return The LSH similarity (= Jaccard approximation) of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2, final double minSimilarity) {
+        return this.calculate(column, code1, code2);
+    }
+
+    private String[] signatureOf(String[] tokens) {
+        String[] signature = new String[this.minHashFunctions.size()];
+        for (int i = 0; i < signature.length; i++)
+            signature[i] = this.minHashFunctions.get(i).hash(tokens);
+        return signature;
+    }
+
+    /**
+     * Approximates the Jaccard similarity of two strings by the Jaccard similarity of their signatures.
+     */
+    private double calculateOnSignatures(String[] signature1, String[] signature2) {
+        double lshJaccard;
 
         if (bagSemantics) {
             Map<String, Integer> sig1 = get_Tokens_Freq(signature1);
@@ -130,8 +250,3 @@ public class LocalitySensitiveHashing implements SimilarityMeasure {
         return freqMap;
     }
 }
-/////////////////////// /////////////////////////////////////////////////////////////////////////////////////////
-//                                      DATA INTEGRATION ASSIGNMENT                                           //
-// Calculate the two signatures by using the internal MinHash functions. Then, use the signatures to          //
-// approximate the Jaccard similarity.                                                                        //
-////////////////////////////////////////////////////////////////////////////////////////////////////////////////
\ No newline at end of file
@@ -0,0 +1,232 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.BBitMinHash;
+import de.di.similarity_measures.helper.Batches;
+import de.di.similarity_measures.helper.ColumnCache;
+import de.di.similarity_measures.helper.MinHashScheme;
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.helper.UniversalMinHash;
+import de.di.structures.EncodedColumn;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * A MinHashJaccard approximates the Jaccard similarity of two strings with MinHash signatures of their tokens: the
+ * fraction of equal signature slots is an unbiased estimate of the Jaccard similarity, whose error shrinks with the
+ * number of hash functions. In contrast to LocalitySensitiveHashing, the number of hash functions is not bound to the
+ * token size and signatures are int arrays, so values of a column are signed once and then compared in O(k). With a
+ * BBitMinHash, the signatures are packed to b bits per slot and compared with popcounts over k * b / 64 words.
+ */
+public class MinHashJaccard implements SimilarityMeasure {
+
+    // The reusable token code buffer of every thread.
+    private static final ThreadLocal<LongArrayList> TOKEN_CODES = ThreadLocal.withInitial(LongArrayList::new);
+
+    // The signature of values without any token, which have a similarity of 0 to all values.
+    private static final int[] EMPTY_SIGNATURE = new int[0];
+    private static final long[] EMPTY_PACKED_SIGNATURE = new long[0];
+
+    // The tokenizer that is used to transform string inputs into token lists.
+    private final Tokenizer tokenizer;
+
+    // A flag indicating whether the estimation should use set or bag semantics, like the Jaccard measure.
+    private final boolean bagSemantics;
+
+    // The scheme that calculates the signatures.
+    private final MinHashScheme minHash;
+
+    // The packing of the signatures to b bits per slot, or null if the full signatures should be compared.
+    private final BBitMinHash bBitMinHash;
+
+    // The cached signatures of the values of every column that has been compared by codes; only the cache that matches
+    // the signature type of this measure is created.
+    private final ColumnCache<int[]> signatures;
+    private final ColumnCache<long[]> packedSignatures;
+
+    public MinHashJaccard(final Tokenizer tokenizer, final boolean bagSemantics, final int numHashFunctions, final long seed) {
+        this(tokenizer, bagSemantics, new UniversalMinHash(numHashFunctions, seed));
+    }
+
+    public MinHashJaccard(final Tokenizer tokenizer, final boolean bagSemantics, final MinHashScheme minHash) {
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+        this.minHash = minHash;
+        this.bBitMinHash = null;
+        this.signatures = new ColumnCache<>(tokenizer, (column, tokenDictionary, code) ->
+                this.signatureOf(LongArrayList.wrap(tokenDictionary.getTokenCodes(code))));
+        this.packedSignatures = null;
+    }
+
+    public MinHashJaccard(final Tokenizer tokenizer, final boolean bagSemantics, final BBitMinHash bBitMinHash) {
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+        this.minHash = null;
+        this.bBitMinHash = bBitMinHash;
+        this.signatures = null;
+        this.packedSignatures = new ColumnCache<>(tokenizer, (column, tokenDictionary, code) ->
+                this.packedSignatureOf(LongArrayList.wrap(tokenDictionary.getTokenCodes(code))));
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the two input strings with the signatures of their tokens.
+     * @param string1 The first string argument for the similarity calculation.
+     * @param string2 The second string argument for the similarity calculation.
+     * @return The estimated (multiset) Jaccard similarity of the two arguments.
+     */
+    @Override
+    public double calculate(final String string1, final String string2) {
+        LongArrayList tokenCodes = TOKEN_CODES.get();
+        if (this.bBitMinHash != null) {
+            long[] packedSignature1 = this.packedSignatureOf(this.tokenizer.tokenize((string1 == null) ? "" : string1, tokenCodes));
+            long[] packedSignature2 = this.packedSignatureOf(this.tokenizer.tokenize((string2 == null) ? "" : string2, tokenCodes));
+            return this.calculateOnPackedSignatures(packedSignature1, packedSignature2);
+        }
+        int[] signature1 = this.signatureOf(this.tokenizer.tokenize((string1 == null) ? "" : string1, tokenCodes));
+        int[] signature2 = this.signatureOf(this.tokenizer.tokenize((string2 == null) ? "" : string2, tokenCodes));
+        return this.calculateOnSignatures(signature1, signature2);
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the two token lists with their signatures.
+     * @param strings1 The first string list argument for the similarity calculation.
+     * @param strings2 The second string list argument for the similarity calculation.
+     * @return The estimated (multiset) Jaccard similarity of the two arguments.
+     */
+    @Override
+    public double calculate(final String[] strings1, final String[] strings2) {
+        if (this.bBitMinHash != null)
+            return this.calculateOnPackedSignatures(this.packedSignatureOf(strings1), this.packedSignatureOf(strings2));
+        return this.calculateOnSignatures(this.signatureOf(strings1), this.signatureOf(strings2));
+    }
+
+    /**
+     * Estimates the Jaccard similarities of one query to many candidates; the query is signed only once.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param similarities The array that receives the estimated (multiset) Jaccard similarity of the query to every
+     *                     candidate.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double[] similarities) {
+        LongArrayList tokenCodes = this.tokenizer.tokenize((query == null) ? "" : query, new LongArrayList());
+        if (this.bBitMinHash != null) {
+            long[] querySignature = this.packedSignatureOf(tokenCodes);
+            Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+                LongArrayList candidateCodes = TOKEN_CODES.get();
+                for (int i = from; i < to; i++) {
+                    long[] candidateSignature = this.packedSignatureOf(this.tokenizer.tokenize((candidates[i] == null) ? "" : candidates[i], candidateCodes));
+                    similarities[i] = this.calculateOnPackedSignatures(querySignature, candidateSignature);
+                }
+            });
+            return;
+        }
+        int[] querySignature = this.signatureOf(tokenCodes);
+        Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+            LongArrayList candidateCodes = TOKEN_CODES.get();
+            for (int i = from; i < to; i++) {
+                int[] candidateSignature = this.signatureOf(this.tokenizer.tokenize((candidates[i] == null) ? "" : candidates[i], candidateCodes));
+                similarities[i] = this.calculateOnSignatures(querySignature, candidateSignature);
+            }
+        });
+    }
+
+    /**
+     * Estimates the Jaccard similarities of one query to many candidates on their signatures; the bound is ignored.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param minSimilarity The minimum similarity of interest, which is ignored.
+     * @param similarities The array that receives the estimated (multiset) Jaccard similarity of the query to every
+     *                     candidate.
+     */
+    @Override
+    public void calculate(final String query, final String[] candidates, final double minSimilarity, final double[] similarities) {
+        this.calculate(query, candidates, similarities);
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two values of the provided column. The signature of every value is calculated
+     * only once from the value's cached tokens and reused for all further comparisons of the value.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @return The estimated (multiset) Jaccard similarity of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2) {
+        if (this.bBitMinHash != null)
+            return this.calculateOnPackedSignatures(this.packedSignatures.get(column, code1), this.packedSignatures.get(column, code2));
+        return this.calculateOnSignatures(this.signatures.get(column, code1), this.signatures.get(column, code2));
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two values of the provided column on their cached signatures; the bound is
+     * ignored.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @param minSimilarity The minimum similarity of interest, which is ignored.
+     * @return The estimated (multiset) Jaccard similarity of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2, final double minSimilarity) {
+        return this.calculate(column, code1, code2);
+    }
+
+    /**
+     * Calculates the signature of the provided tokens.
+     * @param tokens The tokens to sign.
+     * @return The signature of the tokens.
+     */
+    public int[] signatureOf(final String[] tokens) {
+        return this.signatureOf(codesOf(tokens));
+    }
+
+    /**
+     * Calculates the packed signature of the provided tokens, if this measure packs its signatures to b bits per slot.
+     * @param tokens The tokens to sign.
+     * @return The packed signature of the tokens.
+     */
+    public long[] packedSignatureOf(final String[] tokens) {
+        return this.packedSignatureOf(codesOf(tokens));
+    }
+
+    private static LongArrayList codesOf(final String[] tokens) {
+        LongArrayList tokenCodes = TOKEN_CODES.get();
+        tokenCodes.clear();
+        for (String token : tokens)
+            tokenCodes.add(Tokenizer.codeOf((token == null) ? "" : token));
+        return tokenCodes;
+    }
+
+    private int[] signatureOf(LongArrayList tokenCodes) {
+        if (tokenCodes.isEmpty())
+            return EMPTY_SIGNATURE;
+        return this.minHash.signature(tokenCodes, this.bagSemantics);
+    }
+
+    private long[] packedSignatureOf(LongArrayList tokenCodes) {
+        if (tokenCodes.isEmpty())
+            return EMPTY_PACKED_SIGNATURE;
+        return this.bBitMinHash.signature(tokenCodes, this.bagSemantics);
+    }
+
+    /**
+     * Estimates the Jaccard similarity from the two signatures. With bag semantics, the signatures estimate
+     * sum(min) / sum(max) of the token counts, which is turned into the Jaccard measure's sum(min) / (|A| + |B|).
+     */
+    private double calculateOnSignatures(int[] signature1, int[] signature2) {
+        if (signature1 == EMPTY_SIGNATURE || signature2 == EMPTY_SIGNATURE)
+            return 0;
+        double estimate = MinHashScheme.estimate(signature1, signature2);
+        return this.bagSemantics ? estimate / (1 + estimate) : estimate;
+    }
+
+    /**
+     * Estimates the Jaccard similarity from the two packed signatures like calculateOnSignatures().
+     */
+    private double calculateOnPackedSignatures(long[] packedSignature1, long[] packedSignature2) {
+        if (packedSignature1 == EMPTY_PACKED_SIGNATURE || packedSignature2 == EMPTY_PACKED_SIGNATURE)
+            return 0;
+        double estimate = this.bBitMinHash.estimate(packedSignature1, packedSignature2);
+        return this.bagSemantics ? estimate / (1 + estimate) : estimate;
+    }
+}
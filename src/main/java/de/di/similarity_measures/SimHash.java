@@ -0,0 +1,172 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.ColumnCache;
+import de.di.similarity_measures.helper.MinHashScheme;
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.structures.EncodedColumn;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A SimHash compares two strings by 64-bit fingerprints of their tokens: every token votes with its hash for or
+ * against each of the 64 bits, and a bit of the fingerprint is set if the votes for it outweigh the votes against it.
+ * Similar token sets agree in most votes, so the similarity is 1 - h / 64 for the Hamming distance h of the two
+ * fingerprints, which is a single Long.bitCount() regardless of the lengths of the strings. This makes SimHash
+ * suitable for long text values, whose token sets are expensive to compare exactly; see SimHashIndex for finding all
+ * fingerprints within a Hamming distance.
+ */
+public class SimHash implements SimilarityMeasure {
+
+    // The reusable token code buffer of every thread.
+    private static final ThreadLocal<LongArrayList> TOKEN_CODES = ThreadLocal.withInitial(LongArrayList::new);
+
+    // The tokenizer that is used to transform string inputs into token lists.
+    @Getter
+    private final Tokenizer tokenizer;
+
+    // A flag indicating whether repeated tokens should vote once (set semantics) or once per occurrence (bag semantics).
+    private final boolean bagSemantics;
+
+    // The cached fingerprints of the values of every column that has been compared by codes; values without any token
+    // have no fingerprint (null).
+    private final ColumnCache<Long> fingerprints;
+
+    public SimHash(final Tokenizer tokenizer, final boolean bagSemantics) {
+        this.tokenizer = tokenizer;
+        this.bagSemantics = bagSemantics;
+        this.fingerprints = new ColumnCache<>(tokenizer, (column, tokenDictionary, code) -> {
+            long[] tokenCodes = tokenDictionary.getTokenCodes(code);
+            return (tokenCodes.length == 0) ? null : this.fingerprintOf(LongArrayList.wrap(tokenCodes));
+        });
+    }
+
+    /**
+     * Calculates the SimHash similarity of the two input strings.
+     * @param string1 The first string argument for the similarity calculation.
+     * @param string2 The second string argument for the similarity calculation.
+     * @return The SimHash similarity of the two arguments, which is 0 if one of them has no tokens.
+     */
+    @Override
+    public double calculate(final String string1, final String string2) {
+        LongArrayList tokenCodes = TOKEN_CODES.get();
+        this.tokenizer.tokenize((string1 == null) ? "" : string1, tokenCodes);
+        if (tokenCodes.isEmpty())
+            return 0;
+        long fingerprint1 = this.fingerprintOf(tokenCodes);
+        this.tokenizer.tokenize((string2 == null) ? "" : string2, tokenCodes);
+        if (tokenCodes.isEmpty())
+            return 0;
+        return similarityOf(fingerprint1, this.fingerprintOf(tokenCodes));
+    }
+
+    /**
+     * Calculates the SimHash similarity of the two token lists.
+     * @param strings1 The first string list argument for the similarity calculation.
+     * @param strings2 The second string list argument for the similarity calculation.
+     * @return The SimHash similarity of the two arguments, which is 0 if one of them is empty.
+     */
+    @Override
+    public double calculate(final String[] strings1, final String[] strings2) {
+        if (strings1.length == 0 || strings2.length == 0)
+            return 0;
+        return similarityOf(this.fingerprintOf(strings1), this.fingerprintOf(strings2));
+    }
+
+    /**
+     * Calculates the SimHash similarity of two values of the provided column. The fingerprint of every value is
+     * calculated only once from the value's cached tokens and reused for all further comparisons of the value.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @return The SimHash similarity of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2) {
+        Long fingerprint1 = this.fingerprints.get(column, code1);
+        Long fingerprint2 = this.fingerprints.get(column, code2);
+        if (fingerprint1 == null || fingerprint2 == null)
+            return 0;
+        return similarityOf(fingerprint1, fingerprint2);
+    }
+
+    /**
+     * Calculates the SimHash similarity of two values of the provided column on their cached fingerprints; the bound
+     * is ignored.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @param minSimilarity The minimum similarity of interest, which is ignored.
+     * @return The SimHash similarity of the two values.
+     */
+    @Override
+    public double calculate(final EncodedColumn column, final int code1, final int code2, final double minSimilarity) {
+        return this.calculate(column, code1, code2);
+    }
+
+    /**
+     * Calculates the fingerprint of the provided tokens.
+     * @param tokens The tokens to fingerprint.
+     * @return The fingerprint of the tokens.
+     */
+    public long fingerprintOf(final String[] tokens) {
+        LongArrayList tokenCodes = TOKEN_CODES.get();
+        tokenCodes.clear();
+        for (String token : tokens)
+            tokenCodes.add(Tokenizer.codeOf((token == null) ? "" : token));
+        return this.fingerprintOf(tokenCodes);
+    }
+
+    /**
+     * Calculates the fingerprint of the provided token codes, e.g., the codes of Tokenizer.tokenize(String,
+     * LongArrayList). The buffer is sorted to find the repeated tokens.
+     * @param tokenCodes The codes of the tokens, which are reordered by this call.
+     * @return The fingerprint of the tokens.
+     */
+    public long fingerprintOf(final LongArrayList tokenCodes) {
+        long[] codes = tokenCodes.elements();
+        int length = tokenCodes.size();
+        Arrays.sort(codes, 0, length);
+
+        int[] votes = new int[Long.SIZE];
+        for (int i = 0; i < length; ) {
+            long code = codes[i];
+            int count = 0;
+            while (i < length && codes[i] == code) {
+                count++;
+                i++;
+            }
+            int weight = this.bagSemantics ? count : 1;
+            long hash = MinHashScheme.mix(code + 0x9E3779B97F4A7C15L);
+            for (int bit = 0; bit < Long.SIZE; bit++)
+                votes[bit] += ((hash >>> bit) & 1L) == 0 ? -weight : weight;
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++)
+            if (votes[bit] > 0)
+                fingerprint |= 1L << bit;
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of bits in which the two fingerprints differ.
+     * @param fingerprint1 The first fingerprint.
+     * @param fingerprint2 The second fingerprint.
+     * @return The Hamming distance of the two fingerprints.
+     */
+    public static int hammingDistance(long fingerprint1, long fingerprint2) {
+        return Long.bitCount(fingerprint1 ^ fingerprint2);
+    }
+
+    /**
+     * Returns the similarity 1 - h / 64 of two fingerprints with Hamming distance h.
+     * @param fingerprint1 The first fingerprint.
+     * @param fingerprint2 The second fingerprint.
+     * @return The similarity of the two fingerprints.
+     */
+    public static double similarityOf(long fingerprint1, long fingerprint2) {
+        return 1 - (double) hammingDistance(fingerprint1, fingerprint2) / Long.SIZE;
+    }
+}
@@ -1,8 +1,168 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.Batches;
+import de.di.similarity_measures.structures.SparseSimilarityMatrix;
+import de.di.structures.ByteColumn;
+import de.di.structures.EncodedColumn;
+
 public interface SimilarityMeasure {
 
     double calculate(final String string1, final String string2);
 
     double calculate(final String[] strings1, final String[] strings2);
+
+    /**
+     * Calculates the similarity of two values of the provided column, which are given by their codes. By default, both
+     * values are decoded; measures that can work on the encoded bytes of single-byte columns override this.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @return The similarity of the two values.
+     */
+    default double calculate(final ByteColumn column, final int code1, final int code2) {
+        return this.calculate(column.getValue(code1), column.getValue(code2));
+    }
+
+    /**
+     * Calculates the similarity of the two input strings for callers that only need similarities of at least
+     * minSimilarity, e.g., to decide whether a record pair can still be a duplicate. If the similarity is at least
+     * minSimilarity, it is returned exactly; otherwise, any value below minSimilarity may be returned, so measures can
+     * stop as soon as the bound cannot be met. By default, the similarity is calculated exactly.
+     * @param string1 The first string argument for the similarity calculation.
+     * @param string2 The second string argument for the similarity calculation.
+     * @param minSimilarity The minimum similarity of interest.
+     * @return The similarity of the two arguments or some value below minSimilarity.
+     */
+    default double calculate(final String string1, final String string2, final double minSimilarity) {
+        return this.calculate(string1, string2);
+    }
+
+    /**
+     * Calculates the similarity of two values of the provided column like calculate(String, String, double).
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @param minSimilarity The minimum similarity of interest.
+     * @return The similarity of the two values or some value below minSimilarity.
+     */
+    default double calculate(final ByteColumn column, final int code1, final int code2, final double minSimilarity) {
+        return this.calculate(column, code1, code2);
+    }
+
+    /**
+     * Calculates the similarity of two values of the provided column, which are given by their codes. ByteColumns are
+     * passed on to calculate(ByteColumn, int, int) and all other columns are decoded; measures that can reuse work per
+     * value code, e.g., the tokenization of every value, override this.
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @return The similarity of the two values.
+     */
+    default double calculate(final EncodedColumn column, final int code1, final int code2) {
+        if (column instanceof ByteColumn)
+            return this.calculate((ByteColumn) column, code1, code2);
+        return this.calculate(column.getValue(code1), column.getValue(code2));
+    }
+
+    /**
+     * Calculates the similarity of two values of the provided column like calculate(String, String, double).
+     * @param column The column that holds both values.
+     * @param code1 The code of the first value.
+     * @param code2 The code of the second value.
+     * @param minSimilarity The minimum similarity of interest.
+     * @return The similarity of the two values or some value below minSimilarity.
+     */
+    default double calculate(final EncodedColumn column, final int code1, final int code2, final double minSimilarity) {
+        if (column instanceof ByteColumn)
+            return this.calculate((ByteColumn) column, code1, code2, minSimilarity);
+        return this.calculate(column.getValue(code1), column.getValue(code2), minSimilarity);
+    }
+
+    /**
+     * Calculates the similarities of one query to many candidates. Large batches are split into chunks that are
+     * compared in parallel, so the scalar calculations must be thread-safe; measures that can reuse the preprocessing
+     * of the query, e.g., its tokenization, for all candidates override this.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param similarities The array that receives the similarity of the query to every candidate.
+     */
+    default void calculate(final String query, final String[] candidates, final double[] similarities) {
+        Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+            for (int i = from; i < to; i++)
+                similarities[i] = this.calculate(query, candidates[i]);
+        });
+    }
+
+    /**
+     * Calculates the similarities of one query to many candidates like calculate(String, String, double): every
+     * similarity of at least minSimilarity is exact and all others may be any value below minSimilarity.
+     * @param query The query string.
+     * @param candidates The candidate strings.
+     * @param minSimilarity The minimum similarity of interest.
+     * @param similarities The array that receives the similarity of the query to every candidate.
+     */
+    default void calculate(final String query, final String[] candidates, final double minSimilarity, final double[] similarities) {
+        Batches.forEachChunk(candidates.length, 1, (from, to) -> {
+            for (int i = from; i < to; i++)
+                similarities[i] = this.calculate(query, candidates[i], minSimilarity);
+        });
+    }
+
+    /**
+     * Calculates the similarities of all pairs of queries and candidates with one one-vs-many comparison per query.
+     * Large batches compare their queries in parallel.
+     * @param queries The query strings, i.e., the rows of the matrix.
+     * @param candidates The candidate strings, i.e., the columns of the matrix.
+     * @return The matrix of the similarities of every query to every candidate.
+     */
+    default double[][] calculateAll(final String[] queries, final String[] candidates) {
+        double[][] matrix = new double[queries.length][candidates.length];
+        Batches.forEachChunk(queries.length, candidates.length, (from, to) -> {
+            for (int i = from; i < to; i++)
+                this.calculate(queries[i], candidates, matrix[i]);
+        });
+        return matrix;
+    }
+
+    /**
+     * Calculates the similarities of all pairs of queries and candidates that are at least minSimilarity with one
+     * bounded one-vs-many comparison per query, so measures can skip pairs below the bound early.
+     * @param queries The query strings, i.e., the rows of the matrix.
+     * @param candidates The candidate strings, i.e., the columns of the matrix.
+     * @param minSimilarity The minimum similarity of the stored pairs.
+     * @return The sparse matrix of all similarities of at least minSimilarity.
+     */
+    default SparseSimilarityMatrix calculateAll(final String[] queries, final String[] candidates, final double minSimilarity) {
+        int[][] rowColumns = new int[queries.length][];
+        double[][] rowSimilarities = new double[queries.length][];
+        Batches.forEachChunk(queries.length, candidates.length, (from, to) -> {
+            double[] similarities = new double[candidates.length];
+            for (int i = from; i < to; i++) {
+                this.calculate(queries[i], candidates, minSimilarity, similarities);
+                int size = 0;
+                for (double similarity : similarities)
+                    if (similarity >= minSimilarity)
+                        size++;
+                rowColumns[i] = new int[size];
+                rowSimilarities[i] = new double[size];
+                for (int j = 0, index = 0; j < candidates.length; j++) {
+                    if (similarities[j] >= minSimilarity) {
+                        rowColumns[i][index] = j;
+                        rowSimilarities[i][index++] = similarities[j];
+                    }
+                }
+            }
+        });
+
+        int[] rowOffsets = new int[queries.length + 1];
+        for (int i = 0; i < queries.length; i++)
+            rowOffsets[i + 1] = rowOffsets[i] + rowColumns[i].length;
+        int[] columns = new int[rowOffsets[queries.length]];
+        double[] similarities = new double[columns.length];
+        for (int i = 0; i < queries.length; i++) {
+            System.arraycopy(rowColumns[i], 0, columns, rowOffsets[i], rowColumns[i].length);
+            System.arraycopy(rowSimilarities[i], 0, similarities, rowOffsets[i], rowSimilarities[i].length);
+        }
+        return new SparseSimilarityMatrix(queries.length, candidates.length, rowOffsets, columns, similarities);
+    }
 }
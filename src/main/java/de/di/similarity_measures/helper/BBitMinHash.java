@@ -0,0 +1,101 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
+
+/**
+ * A BBitMinHash compresses the signatures of a MinHashScheme by keeping only the lowest b bits of every slot and
+ * packing 64 / b slots into every long, so a signature of k slots takes k * b / 64 words instead of k ints. Two packed
+ * signatures are compared word by word: the XOR of two words is folded such that the lowest bit of every slot tells
+ * whether the slot differs, and a popcount counts the differing slots of the word. Because two different minima still
+ * agree in their lowest b bits with probability 2^-b, the fraction of equal slots P overestimates the Jaccard
+ * similarity J as P = J + (1 - J) * 2^-b; estimate() inverts this bias.
+ */
+public class BBitMinHash {
+
+    // The largest supported number of bits per slot.
+    public static final int MAX_NUM_BITS = 16;
+
+    // The scheme that calculates the full signatures.
+    private final MinHashScheme minHash;
+
+    // The number of bits that are kept of every slot.
+    @Getter
+    private final int numBits;
+
+    // The number of slots in every word and the number of words of every packed signature.
+    private final int slotsPerWord;
+    private final int numWords;
+
+    // The mask of the lowest b bits and the mask with the lowest bit of every slot in a word.
+    private final long slotMask;
+    private final long slotStartMask;
+
+    public BBitMinHash(MinHashScheme minHash, int numBits) {
+        if (numBits < 1 || numBits > MAX_NUM_BITS)
+            throw new IllegalArgumentException("The number of bits must be between 1 and " + MAX_NUM_BITS + ", but is " + numBits);
+
+        this.minHash = minHash;
+        this.numBits = numBits;
+        this.slotsPerWord = Long.SIZE / numBits;
+        this.numWords = (minHash.getNumHashFunctions() + this.slotsPerWord - 1) / this.slotsPerWord;
+        this.slotMask = (1L << numBits) - 1;
+        long startMask = 0;
+        for (int slot = 0; slot < this.slotsPerWord; slot++)
+            startMask |= 1L << (slot * numBits);
+        this.slotStartMask = startMask;
+    }
+
+    /**
+     * Returns the number of slots of every signature.
+     * @return The number of slots of every signature.
+     */
+    public int getNumHashFunctions() {
+        return this.minHash.getNumHashFunctions();
+    }
+
+    /**
+     * Calculates the packed signature of the provided token codes; see MinHashScheme.signature(LongArrayList, boolean).
+     * @param tokenCodes The codes of the tokens, which are overwritten by this call.
+     * @param bagSemantics Whether repeated tokens should be hashed as distinct tokens.
+     * @return The packed signature of the tokens.
+     */
+    public long[] signature(LongArrayList tokenCodes, boolean bagSemantics) {
+        return this.pack(this.minHash.signature(tokenCodes, bagSemantics));
+    }
+
+    /**
+     * Packs the lowest b bits of every slot of the provided full signature.
+     * @param signature A signature of the underlying scheme.
+     * @return The packed signature; unused slots of the last word are 0.
+     */
+    public long[] pack(int[] signature) {
+        long[] packedSignature = new long[this.numWords];
+        for (int slot = 0; slot < signature.length; slot++)
+            packedSignature[slot / this.slotsPerWord] |= (signature[slot] & this.slotMask) << ((slot % this.slotsPerWord) * this.numBits);
+        return packedSignature;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two token sets by the bias-corrected fraction of equal slots of their packed
+     * signatures.
+     * @param packedSignature1 The packed signature of the first token set.
+     * @param packedSignature2 The packed signature of the second token set.
+     * @return The estimated Jaccard similarity of the two token sets, which is at least 0.
+     */
+    public double estimate(long[] packedSignature1, long[] packedSignature2) {
+        int numDifferentSlots = 0;
+        for (int word = 0; word < packedSignature1.length; word++) {
+            long difference = packedSignature1[word] ^ packedSignature2[word];
+            long folded = difference;
+            for (int bit = 1; bit < this.numBits; bit++)
+                folded |= difference >>> bit;
+            numDifferentSlots += Long.bitCount(folded & this.slotStartMask);
+        }
+
+        int numSlots = this.minHash.getNumHashFunctions();
+        double fractionOfEqualSlots = (double) (numSlots - numDifferentSlots) / numSlots;
+        double collisionProbability = 1.0 / (1 << this.numBits);
+        return Math.max(0, (fractionOfEqualSlots - collisionProbability) / (1 - collisionProbability));
+    }
+}
@@ -0,0 +1,51 @@
+package de.di.similarity_measures.helper;
+
+import java.util.stream.IntStream;
+
+/**
+ * Batches splits the items of a batch comparison, e.g., the candidates of a one-vs-many comparison or the queries of a
+ * many-vs-many comparison, into chunks that are processed in parallel on the common ForkJoinPool. Small batches are
+ * processed as one chunk on the calling thread, because their comparisons are cheaper than the parallelization.
+ * Every chunk is processed by one thread, so it can reuse the thread-local buffers of the measures for all its items.
+ */
+public class Batches {
+
+    // The minimum number of comparisons of every chunk.
+    public static final int MIN_COMPARISONS_PER_CHUNK = 1024;
+
+    // The maximum number of chunks per core, which balances chunks of unequal cost.
+    private static final int MAX_CHUNKS_PER_CORE = 4;
+
+    /**
+     * Processes a range of items.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+
+        /**
+         * Processes the items of the provided range.
+         * @param from The index of the first item.
+         * @param to The index after the last item.
+         */
+        void accept(int from, int to);
+    }
+
+    /**
+     * Splits the provided number of items into chunks and passes every chunk to the consumer, in parallel if there
+     * are enough comparisons for more than one chunk.
+     * @param numItems The number of items.
+     * @param comparisonsPerItem The number of comparisons of every item.
+     * @param consumer The consumer of the chunks, which must be thread-safe.
+     */
+    public static void forEachChunk(int numItems, int comparisonsPerItem, ChunkConsumer consumer) {
+        int itemsPerChunk = Math.max(1, MIN_COMPARISONS_PER_CHUNK / Math.max(1, comparisonsPerItem));
+        int maxNumChunks = MAX_CHUNKS_PER_CORE * Runtime.getRuntime().availableProcessors();
+        int numChunks = Math.min(numItems / itemsPerChunk, maxNumChunks);
+        if (numChunks <= 1) {
+            consumer.accept(0, numItems);
+            return;
+        }
+        IntStream.range(0, numChunks).parallel().forEach(chunk ->
+                consumer.accept((int) ((long) numItems * chunk / numChunks), (int) ((long) numItems * (chunk + 1) / numChunks)));
+    }
+}
@@ -0,0 +1,409 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
+/**
+ * A BitVectorEditDistance calculates (Damerau) Levenshtein distances with the bit-parallel algorithm of Myers: one
+ * column of the DP matrix is encoded as vertical delta bit-vectors, so a pattern of up to 64 characters is processed
+ * with a constant number of word operations per text character. Longer patterns are split into blocks of 64 characters
+ * whose carries are passed on from block to block. With the Damerau flag, Hyyrö's extension adds the transpositions of
+ * adjacent characters, which yields the same restricted (optimal string alignment) distance as the three-line DP.
+ * Bounded distances, i.e., distances that are only needed if they do not exceed some maximum k, stop as soon as the
+ * maximum cannot be met anymore; if a band of 2k+1 diagonals (Ukkonen) is cheaper than the bit-vectors, only this band
+ * of the DP matrix is calculated.
+ * Instances hold reusable buffers and are therefore not thread-safe; get() returns the instance of the current thread.
+ */
+public class BitVectorEditDistance {
+
+    private static final ThreadLocal<BitVectorEditDistance> INSTANCES = ThreadLocal.withInitial(BitVectorEditDistance::new);
+
+    // The number of DP cells that are at most as expensive as one block of the bit-vector algorithm.
+    private static final int BAND_CELLS_PER_BLOCK = 4;
+
+    // The number of symbols whose match masks are stored in an array; all other symbols use the hash map.
+    private static final int NUM_LOW_SYMBOLS = 256;
+
+    // The symbols of the pattern, i.e., the shorter value, and of the text, i.e., the longer value.
+    private int[] pattern = new int[64];
+    private int[] text = new int[64];
+
+    // The match masks of every symbol by symbol * numBlocks + block; every mask has the bits of the pattern positions
+    // that hold the symbol.
+    private long[] lowMasks = new long[NUM_LOW_SYMBOLS];
+    private final Long2LongOpenHashMap highMasks = new Long2LongOpenHashMap();
+
+    // The three lines of the banded DP.
+    private int[] upperupperLine = new int[65];
+    private int[] upperLine = new int[65];
+    private int[] lowerLine = new int[65];
+
+    // The vertical delta vectors, the diagonal zero vector and the previous match masks of every block.
+    private long[] positiveVertical = new long[1];
+    private long[] negativeVertical = new long[1];
+    private long[] diagonalZero = new long[1];
+    private long[] previousMasks = new long[1];
+
+    /**
+     * Returns the instance of the current thread.
+     * @return The instance of the current thread.
+     */
+    public static BitVectorEditDistance get() {
+        return INSTANCES.get();
+    }
+
+    /**
+     * Calculates the edit distance of the two strings.
+     * @param string1 The first string.
+     * @param string2 The second string.
+     * @param withDamerau Whether transpositions of adjacent characters count as one edit.
+     * @return The (Damerau) Levenshtein distance of the two strings.
+     */
+    public int distance(final String string1, final String string2, final boolean withDamerau) {
+        return this.distance(string1, string2, withDamerau, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculates the edit distance of the two strings if it does not exceed the provided maximum.
+     * @param string1 The first string.
+     * @param string2 The second string.
+     * @param withDamerau Whether transpositions of adjacent characters count as one edit.
+     * @param maxDistance The maximum distance of interest.
+     * @return The (Damerau) Levenshtein distance of the two strings or, if it exceeds maxDistance, maxDistance + 1.
+     */
+    public int distance(final String string1, final String string2, final boolean withDamerau, final int maxDistance) {
+        String shorter = (string1.length() <= string2.length()) ? string1 : string2;
+        String longer = (shorter == string1) ? string2 : string1;
+        if (longer.length() - shorter.length() > maxDistance)
+            return maxDistance + 1;
+        if (shorter.isEmpty())
+            return longer.length();
+
+        this.ensureCapacity(shorter.length(), longer.length());
+        for (int i = 0; i < shorter.length(); i++)
+            this.pattern[i] = shorter.charAt(i);
+        for (int i = 0; i < longer.length(); i++)
+            this.text[i] = longer.charAt(i);
+        return this.distance(shorter.length(), longer.length(), withDamerau, maxDistance);
+    }
+
+    /**
+     * Calculates the edit distance of two byte sequences of the provided array, e.g., of two values of a single-byte
+     * column, in which every byte is one character.
+     * @param bytes The array that holds both sequences.
+     * @param offset1 The offset of the first sequence.
+     * @param length1 The length of the first sequence.
+     * @param offset2 The offset of the second sequence.
+     * @param length2 The length of the second sequence.
+     * @param withDamerau Whether transpositions of adjacent bytes count as one edit.
+     * @return The (Damerau) Levenshtein distance of the two sequences.
+     */
+    public int distance(final byte[] bytes, final int offset1, final int length1, final int offset2, final int length2, final boolean withDamerau) {
+        return this.distance(bytes, offset1, length1, offset2, length2, withDamerau, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculates the edit distance of two byte sequences of the provided array if it does not exceed the provided
+     * maximum.
+     * @param bytes The array that holds both sequences.
+     * @param offset1 The offset of the first sequence.
+     * @param length1 The length of the first sequence.
+     * @param offset2 The offset of the second sequence.
+     * @param length2 The length of the second sequence.
+     * @param withDamerau Whether transpositions of adjacent bytes count as one edit.
+     * @param maxDistance The maximum distance of interest.
+     * @return The (Damerau) Levenshtein distance of the two sequences or, if it exceeds maxDistance, maxDistance + 1.
+     */
+    public int distance(final byte[] bytes, final int offset1, final int length1, final int offset2, final int length2,
+                        final boolean withDamerau, final int maxDistance) {
+        boolean firstIsShorter = length1 <= length2;
+        int patternOffset = firstIsShorter ? offset1 : offset2;
+        int patternLength = firstIsShorter ? length1 : length2;
+        int textOffset = firstIsShorter ? offset2 : offset1;
+        int textLength = firstIsShorter ? length2 : length1;
+        if (textLength - patternLength > maxDistance)
+            return maxDistance + 1;
+        if (patternLength == 0)
+            return textLength;
+
+        this.ensureCapacity(patternLength, textLength);
+        for (int i = 0; i < patternLength; i++)
+            this.pattern[i] = bytes[patternOffset + i] & 0xFF;
+        for (int i = 0; i < textLength; i++)
+            this.text[i] = bytes[textOffset + i] & 0xFF;
+        return this.distance(patternLength, textLength, withDamerau, maxDistance);
+    }
+
+    /**
+     * Calculates the edit distances of one query to a range of texts, e.g., to the candidates of a batch comparison.
+     * The query is the pattern of all texts that are at least as long as the query, so its match masks are set only
+     * once for all of them; shorter texts are the patterns of their own calculations.
+     * @param query The query string.
+     * @param texts The texts whose distances to the query are calculated.
+     * @param from The index of the first text of the range.
+     * @param to The index after the last text of the range.
+     * @param withDamerau Whether transpositions of adjacent characters count as one edit.
+     * @param maxDistances The maximum distance of interest for every text of the range, starting with index 0, or null
+     *                     if all distances should be calculated exactly.
+     * @param distances The array that receives the distance of every text of the range, starting with index 0; every
+     *                  distance that exceeds its maximum is reported as the maximum + 1.
+     */
+    public void distances(final String query, final String[] texts, final int from, final int to, final boolean withDamerau,
+                          final int[] maxDistances, final int[] distances) {
+        int patternLength = query.length();
+        int maxTextLength = patternLength;
+        for (int i = from; i < to; i++)
+            maxTextLength = Math.max(maxTextLength, texts[i].length());
+        this.ensureCapacity(patternLength, maxTextLength);
+        for (int i = 0; i < patternLength; i++)
+            this.pattern[i] = query.charAt(i);
+
+        int numBlocks = numBlocks(patternLength);
+        this.setMasks(patternLength, numBlocks);
+        for (int i = from; i < to; i++) {
+            String text = texts[i];
+            int textLength = text.length();
+            if (textLength < patternLength)
+                continue;
+            int maxDistance = (maxDistances == null) ? Integer.MAX_VALUE : maxDistances[i - from];
+            if (textLength - patternLength > maxDistance) {
+                distances[i - from] = maxDistance + 1;
+            }
+            else if (patternLength == 0) {
+                distances[i - from] = textLength;
+            }
+            else {
+                for (int j = 0; j < textLength; j++)
+                    this.text[j] = text.charAt(j);
+                distances[i - from] = this.maskedDistance(patternLength, textLength, numBlocks, withDamerau, maxDistance);
+            }
+        }
+        this.clearMasks(patternLength, numBlocks);
+
+        for (int i = from; i < to; i++)
+            if (texts[i].length() < patternLength)
+                distances[i - from] = this.distance(query, texts[i], withDamerau, (maxDistances == null) ? Integer.MAX_VALUE : maxDistances[i - from]);
+    }
+
+    private void ensureCapacity(int patternLength, int textLength) {
+        if (this.pattern.length < patternLength)
+            this.pattern = new int[Math.max(patternLength, 2 * this.pattern.length)];
+        if (this.text.length < textLength)
+            this.text = new int[Math.max(textLength, 2 * this.text.length)];
+
+        int numBlocks = numBlocks(patternLength);
+        if (this.lowMasks.length < NUM_LOW_SYMBOLS * numBlocks)
+            this.lowMasks = new long[NUM_LOW_SYMBOLS * numBlocks];
+        if (this.positiveVertical.length < numBlocks) {
+            this.positiveVertical = new long[numBlocks];
+            this.negativeVertical = new long[numBlocks];
+            this.diagonalZero = new long[numBlocks];
+            this.previousMasks = new long[numBlocks];
+        }
+        if (this.upperLine.length <= patternLength) {
+            this.upperupperLine = new int[patternLength + 1];
+            this.upperLine = new int[patternLength + 1];
+            this.lowerLine = new int[patternLength + 1];
+        }
+    }
+
+    private static int numBlocks(int patternLength) {
+        return (patternLength + 63) >>> 6;
+    }
+
+    private int distance(int patternLength, int textLength, boolean withDamerau, int maxDistance) {
+        int numBlocks = numBlocks(patternLength);
+        if (usesBand(patternLength, numBlocks, maxDistance))
+            return this.bandedDistance(patternLength, textLength, withDamerau, maxDistance);
+
+        this.setMasks(patternLength, numBlocks);
+        int distance = this.maskedDistance(patternLength, textLength, numBlocks, withDamerau, maxDistance);
+        this.clearMasks(patternLength, numBlocks);
+        return distance;
+    }
+
+    private static boolean usesBand(int patternLength, int numBlocks, int maxDistance) {
+        return maxDistance < patternLength && 2L * maxDistance + 1 <= (long) BAND_CELLS_PER_BLOCK * numBlocks;
+    }
+
+    /**
+     * Calculates the distance of the pattern and the text with the bit-vectors or, if it is cheaper, the band; the
+     * match masks of the pattern must have been set.
+     */
+    private int maskedDistance(int patternLength, int textLength, int numBlocks, boolean withDamerau, int maxDistance) {
+        if (usesBand(patternLength, numBlocks, maxDistance))
+            return this.bandedDistance(patternLength, textLength, withDamerau, maxDistance);
+        return (numBlocks == 1) ? this.singleBlockDistance(patternLength, textLength, withDamerau, maxDistance)
+                : this.multiBlockDistance(patternLength, textLength, numBlocks, withDamerau, maxDistance);
+    }
+
+    private void setMasks(int patternLength, int numBlocks) {
+        for (int i = 0; i < patternLength; i++) {
+            int symbol = this.pattern[i];
+            int block = i >>> 6;
+            long bit = 1L << (i & 63);
+            if (symbol < NUM_LOW_SYMBOLS)
+                this.lowMasks[symbol * numBlocks + block] |= bit;
+            else
+                this.highMasks.addTo((long) symbol * numBlocks + block, bit);
+        }
+    }
+
+    /**
+     * Clears the match masks of the pattern; only the masks of the pattern's symbols have been set, so only these need
+     * to be cleared for the next pattern.
+     */
+    private void clearMasks(int patternLength, int numBlocks) {
+        for (int i = 0; i < patternLength; i++)
+            if (this.pattern[i] < NUM_LOW_SYMBOLS)
+                this.lowMasks[this.pattern[i] * numBlocks + (i >>> 6)] = 0;
+        this.highMasks.clear();
+    }
+
+    private long mask(int symbol, int numBlocks, int block) {
+        if (symbol < NUM_LOW_SYMBOLS)
+            return this.lowMasks[symbol * numBlocks + block];
+        return this.highMasks.get((long) symbol * numBlocks + block);
+    }
+
+    /**
+     * Calculates the cells of the DP matrix whose distance to the main diagonal is at most maxDistance, because all other
+     * cells exceed maxDistance anyway. Cells outside the band are treated as maxDistance + 1, and the calculation stops
+     * as soon as all cells of a line exceed maxDistance, because the values of later lines cannot be smaller.
+     */
+    private int bandedDistance(int patternLength, int textLength, boolean withDamerau, int maxDistance) {
+        int outside = maxDistance + 1;
+        int[] upperupperLine = this.upperupperLine;
+        int[] upperLine = this.upperLine;
+        int[] lowerLine = this.lowerLine;
+        for (int j = 0; j <= patternLength; j++) {
+            upperLine[j] = Math.min(j, outside);
+            upperupperLine[j] = upperLine[j];
+        }
+
+        for (int i = 1; i <= textLength; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(patternLength, i + maxDistance);
+            lowerLine[from - 1] = (from == 1) ? Math.min(i, outside) : outside;
+            int lineMin = lowerLine[from - 1];
+            int symbol2 = this.text[i - 1];
+            for (int j = from; j <= to; j++) {
+                int symbol1 = this.pattern[j - 1];
+                int cost = (symbol1 == symbol2) ? 0 : 1;
+                int value = Math.min(upperLine[j - 1] + cost, Math.min(upperLine[j] + 1, lowerLine[j - 1] + 1));
+                if (withDamerau && i > 1 && j > 1 && symbol1 == this.text[i - 2] && this.pattern[j - 2] == symbol2)
+                    value = Math.min(value, upperupperLine[j - 2] + cost);
+                value = Math.min(value, outside);
+                lowerLine[j] = value;
+                lineMin = Math.min(lineMin, value);
+            }
+            // The next line reads the cell right of the band, which must count as outside
+            if (to < patternLength)
+                lowerLine[to + 1] = outside;
+            if (lineMin > maxDistance)
+                return outside;
+
+            int[] temp = upperupperLine;
+            upperupperLine = upperLine;
+            upperLine = lowerLine;
+            lowerLine = temp;
+        }
+        return upperLine[patternLength];
+    }
+
+    private int singleBlockDistance(int patternLength, int textLength, boolean withDamerau, int maxDistance) {
+        long lastBit = 1L << (patternLength - 1);
+        long positiveVertical = -1L;
+        long negativeVertical = 0;
+        long diagonalZero = 0;
+        long previousMask = 0;
+        int distance = patternLength;
+
+        for (int j = 0; j < textLength; j++) {
+            long mask = this.mask(this.text[j], 1, 0);
+            long transpositions = withDamerau ? (((~diagonalZero) & mask) << 1) & previousMask : 0;
+            diagonalZero = (((mask & positiveVertical) + positiveVertical) ^ positiveVertical) | mask | negativeVertical | transpositions;
+            long positiveHorizontal = negativeVertical | ~(diagonalZero | positiveVertical);
+            long negativeHorizontal = diagonalZero & positiveVertical;
+
+            if ((positiveHorizontal & lastBit) != 0)
+                distance++;
+            else if ((negativeHorizontal & lastBit) != 0)
+                distance--;
+            // Every remaining text character can lower the distance by at most one
+            if (distance - (textLength - j - 1) > maxDistance)
+                return maxDistance + 1;
+
+            // The first row of the matrix grows by one per text character, hence the incoming positive delta
+            positiveHorizontal = (positiveHorizontal << 1) | 1;
+            negativeHorizontal = negativeHorizontal << 1;
+            positiveVertical = negativeHorizontal | ~(diagonalZero | positiveHorizontal);
+            negativeVertical = positiveHorizontal & diagonalZero;
+            previousMask = mask;
+        }
+        return distance;
+    }
+
+    private int multiBlockDistance(int patternLength, int textLength, int numBlocks, boolean withDamerau, int maxDistance) {
+        int lastBlock = numBlocks - 1;
+        long lastBit = 1L << ((patternLength - 1) & 63);
+        for (int block = 0; block < numBlocks; block++) {
+            this.positiveVertical[block] = -1L;
+            this.negativeVertical[block] = 0;
+            this.diagonalZero[block] = 0;
+            this.previousMasks[block] = 0;
+        }
+        int distance = patternLength;
+
+        for (int j = 0; j < textLength; j++) {
+            int symbol = this.text[j];
+            long additionCarry = 0;
+            long positiveCarry = 1;
+            long negativeCarry = 0;
+            long transpositionCarry = 0;
+
+            for (int block = 0; block < numBlocks; block++) {
+                long mask = this.mask(symbol, numBlocks, block);
+                long positiveVertical = this.positiveVertical[block];
+                long negativeVertical = this.negativeVertical[block];
+
+                long transpositions = 0;
+                if (withDamerau) {
+                    long matchesAfterMismatch = (~this.diagonalZero[block]) & mask;
+                    transpositions = ((matchesAfterMismatch << 1) | transpositionCarry) & this.previousMasks[block];
+                    transpositionCarry = matchesAfterMismatch >>> 63;
+                }
+
+                // The addition spans all blocks, so its carry is passed on to the next block
+                long addend = mask & positiveVertical;
+                long partialSum = addend + positiveVertical;
+                long sum = partialSum + additionCarry;
+                long carry = (Long.compareUnsigned(partialSum, addend) < 0 || (additionCarry != 0 && sum == 0)) ? 1 : 0;
+                additionCarry = carry;
+
+                long diagonalZero = (sum ^ positiveVertical) | mask | negativeVertical | transpositions;
+                long positiveHorizontal = negativeVertical | ~(diagonalZero | positiveVertical);
+                long negativeHorizontal = diagonalZero & positiveVertical;
+
+                if (block == lastBlock) {
+                    if ((positiveHorizontal & lastBit) != 0)
+                        distance++;
+                    else if ((negativeHorizontal & lastBit) != 0)
+                        distance--;
+                }
+
+                long shiftedPositive = (positiveHorizontal << 1) | positiveCarry;
+                long shiftedNegative = (negativeHorizontal << 1) | negativeCarry;
+                positiveCarry = positiveHorizontal >>> 63;
+                negativeCarry = negativeHorizontal >>> 63;
+
+                this.positiveVertical[block] = shiftedNegative | ~(diagonalZero | shiftedPositive);
+                this.negativeVertical[block] = shiftedPositive & diagonalZero;
+                this.diagonalZero[block] = diagonalZero;
+                this.previousMasks[block] = mask;
+            }
+            if (distance - (textLength - j - 1) > maxDistance)
+                return maxDistance + 1;
+        }
+        return distance;
+    }
+}
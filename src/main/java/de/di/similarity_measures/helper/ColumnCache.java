@@ -0,0 +1,99 @@
+package de.di.similarity_measures.helper;
+
+import de.di.structures.EncodedColumn;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A ColumnCache keeps one derived value, e.g., a signature or a fingerprint, for every value of the columns that a
+ * measure compares by codes. Every column gets its own TokenDictionary, unless the cache has no tokenizer, and the
+ * derived value of a code is calculated on the first request and returned from the cache afterwards; values that are
+ * appended to a column later are covered as well. The cache does not keep its columns alive. All methods are
+ * thread-safe.
+ * @param <V> The type of the derived values; null is a valid derived value.
+ */
+public class ColumnCache<V> {
+
+    /**
+     * Derives the cached value of one column value.
+     * @param <V> The type of the derived values.
+     */
+    @FunctionalInterface
+    public interface Calculator<V> {
+
+        /**
+         * Calculates the derived value of the column value with the provided code.
+         * @param column The column that holds the value.
+         * @param tokenDictionary The token dictionary of the column or null if the cache has no tokenizer.
+         * @param code The code of the value.
+         * @return The derived value.
+         */
+        V calculate(EncodedColumn column, TokenDictionary tokenDictionary, int code);
+    }
+
+    // The marker of codes whose derived values have not been calculated yet.
+    private static final Object NO_VALUE = new Object();
+
+    // The tokenizer of the token dictionaries or null if the calculation works on the values themselves.
+    private final Tokenizer tokenizer;
+
+    // The calculation of the derived values.
+    private final Calculator<V> calculator;
+
+    // The token dictionary and the derived values of every column that has been requested. The columns are weak keys,
+    // so the entries of columns that are no longer used, e.g., the columns that Relation.appendRecords() replaced, are
+    // dropped with them; columns do not override equals(), so the keys are still compared by identity.
+    private final Map<EncodedColumn, Entry> entries = new WeakHashMap<>();
+
+    public ColumnCache(Tokenizer tokenizer, Calculator<V> calculator) {
+        this.tokenizer = tokenizer;
+        this.calculator = calculator;
+    }
+
+    /**
+     * Returns the token dictionary of the provided column, which is created on the first request.
+     * @param column The column whose token dictionary is requested.
+     * @return The token dictionary of the column or null if the cache has no tokenizer.
+     */
+    public TokenDictionary tokenDictionaryOf(EncodedColumn column) {
+        return this.entryOf(column).tokenDictionary;
+    }
+
+    /**
+     * Returns the derived value of the column value with the provided code, which is calculated on the first request.
+     * @param column The column that holds the value.
+     * @param code The code of the value.
+     * @return The derived value.
+     */
+    public V get(EncodedColumn column, int code) {
+        return this.entryOf(column).get(column, code);
+    }
+
+    private synchronized Entry entryOf(EncodedColumn column) {
+        return this.entries.computeIfAbsent(column, c -> new Entry((this.tokenizer == null) ? null : new TokenDictionary(c, this.tokenizer)));
+    }
+
+    private class Entry {
+
+        private final TokenDictionary tokenDictionary;
+        private Object[] values = new Object[0];
+
+        private Entry(TokenDictionary tokenDictionary) {
+            this.tokenDictionary = tokenDictionary;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized V get(EncodedColumn column, int code) {
+            if (code >= this.values.length) {
+                int length = this.values.length;
+                this.values = Arrays.copyOf(this.values, Math.max(code + 1, 2 * length));
+                Arrays.fill(this.values, length, this.values.length, NO_VALUE);
+            }
+            if (this.values[code] == NO_VALUE)
+                this.values[code] = calculator.calculate(column, this.tokenDictionary, code);
+            return (V) this.values[code];
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * An LSHIndex finds candidate pairs of similar values without comparing all pairs: the MinHash signature of every
+ * value is split into b bands of r rows and every band is hashed into a bucket, so two values become candidates if
+ * they share the bucket of at least one band. Two values with Jaccard similarity s are candidates with probability
+ * 1 - (1 - s^r)^b, which is an S-curve whose steep part lies around (1/b)^(1/r); forThreshold() chooses b and r for a
+ * given similarity threshold. Values are identified by their insertion order, starting with 0. The signatures are
+ * calculated by a MinHashScheme, e.g., a UniversalMinHash or a OnePermutationMinHash. An index is not thread-safe while
+ * values are added: add() and addAll() must not run concurrently with any other call, whereas queries may run
+ * concurrently with each other.
+ */
+public class LSHIndex {
+
+    // The number of integration steps that forThreshold() uses to weigh the false positive and negative probabilities.
+    private static final int NUM_INTEGRATION_STEPS = 100;
+
+    // The reusable token code buffer of every thread.
+    private static final ThreadLocal<LongArrayList> TOKEN_CODES = ThreadLocal.withInitial(LongArrayList::new);
+
+    // The tokenizer that splits values into the tokens that are signed.
+    private final Tokenizer tokenizer;
+
+    // The scheme that calculates the signatures with numBands * numRows slots.
+    private final MinHashScheme minHash;
+
+    @Getter
+    private final int numBands;
+    @Getter
+    private final int numRows;
+
+    // The ids of the values in every bucket by band and bucket key.
+    private final Long2ObjectOpenHashMap<IntArrayList>[] buckets;
+
+    // The number of values that have been added, which is the id of the next value.
+    @Getter
+    private int size = 0;
+
+    public LSHIndex(Tokenizer tokenizer, int numBands, int numRows, long seed) {
+        this(tokenizer, numBands, numRows, new UniversalMinHash(numBands * numRows, seed));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LSHIndex(Tokenizer tokenizer, int numBands, int numRows, MinHashScheme minHash) {
+        if (numBands <= 0 || numRows <= 0)
+            throw new IllegalArgumentException("The numbers of bands and rows must be positive, but are " + numBands + " and " + numRows);
+        if (minHash.getNumHashFunctions() != numBands * numRows)
+            throw new IllegalArgumentException("The scheme must have " + numBands * numRows + " hash functions, but has " + minHash.getNumHashFunctions());
+
+        this.tokenizer = tokenizer;
+        this.minHash = minHash;
+        this.numBands = numBands;
+        this.numRows = numRows;
+        this.buckets = new Long2ObjectOpenHashMap[numBands];
+        for (int band = 0; band < numBands; band++)
+            this.buckets[band] = new Long2ObjectOpenHashMap<>();
+    }
+
+    /**
+     * Creates an index whose bands and rows are chosen for the provided Jaccard threshold: among all b and r with
+     * b * r <= maxNumHashFunctions, it takes the pair that minimizes the probability mass of false positives, i.e.,
+     * candidates below the threshold, plus the one of false negatives, i.e., missed pairs above the threshold.
+     * @param tokenizer The tokenizer that splits values into tokens.
+     * @param threshold The Jaccard similarity from which on values should become candidates.
+     * @param maxNumHashFunctions The maximum signature size, i.e., the maximum b * r.
+     * @param seed The seed of the hash functions.
+     * @return An index for the provided threshold.
+     */
+    public static LSHIndex forThreshold(Tokenizer tokenizer, double threshold, int maxNumHashFunctions, long seed) {
+        int[] bandsAndRows = bandsAndRowsFor(threshold, maxNumHashFunctions);
+        return new LSHIndex(tokenizer, bandsAndRows[0], bandsAndRows[1], seed);
+    }
+
+    /**
+     * Chooses the numbers of bands and rows for the provided Jaccard threshold like forThreshold().
+     * @param threshold The Jaccard similarity from which on values should become candidates.
+     * @param maxNumHashFunctions The maximum signature size, i.e., the maximum b * r.
+     * @return The number of bands and the number of rows.
+     */
+    public static int[] bandsAndRowsFor(double threshold, int maxNumHashFunctions) {
+        int[] best = {1, 1};
+        double bestError = Double.MAX_VALUE;
+        for (int numBands = 1; numBands <= maxNumHashFunctions; numBands++) {
+            for (int numRows = 1; numBands * numRows <= maxNumHashFunctions; numRows++) {
+                double error = integrateCandidateProbability(numBands, numRows, 0, threshold)
+                        + (1 - threshold) - integrateCandidateProbability(numBands, numRows, threshold, 1);
+                if (error < bestError) {
+                    bestError = error;
+                    best = new int[]{numBands, numRows};
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double integrateCandidateProbability(int numBands, int numRows, double from, double to) {
+        double stepSize = (to - from) / NUM_INTEGRATION_STEPS;
+        double integral = 0;
+        for (int step = 0; step < NUM_INTEGRATION_STEPS; step++) {
+            double similarity = from + (step + 0.5) * stepSize;
+            integral += (1 - Math.pow(1 - Math.pow(similarity, numRows), numBands)) * stepSize;
+        }
+        return integral;
+    }
+
+    /**
+     * Adds the provided value to the index. Values without any token are counted, but never become candidates.
+     * @param value The value to add.
+     * @return The id of the value.
+     */
+    public int add(String value) {
+        int id = this.size++;
+        int[] signature = this.signatureOf(value);
+        if (signature == null)
+            return id;
+        for (int band = 0; band < this.numBands; band++)
+            this.buckets[band].computeIfAbsent(this.bucketKey(signature, band), key -> new IntArrayList(2)).add(id);
+        return id;
+    }
+
+    /**
+     * Adds all provided values to the index in their order.
+     * @param values The values to add.
+     * @return The id of the first value; the other values have the subsequent ids.
+     */
+    public int addAll(String[] values) {
+        int firstId = this.size;
+        for (String value : values)
+            this.add(value);
+        return firstId;
+    }
+
+    /**
+     * Returns the ids of all values that share the bucket of at least one band with the provided value.
+     * @param value The value whose candidates are requested.
+     * @return The ids of the candidates in ascending order.
+     */
+    public int[] query(String value) {
+        int[] signature = this.signatureOf(value);
+        if (signature == null)
+            return new int[0];
+
+        IntOpenHashSet candidates = new IntOpenHashSet();
+        for (int band = 0; band < this.numBands; band++) {
+            IntArrayList bucket = this.buckets[band].get(this.bucketKey(signature, band));
+            if (bucket != null)
+                candidates.addAll(bucket);
+        }
+        int[] ids = candidates.toIntArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Returns all pairs of values that share the bucket of at least one band. Every pair is packed into a long with the
+     * smaller id in the upper and the larger id in the lower 32 bits; see firstIdOf() and secondIdOf().
+     * @return The distinct candidate pairs in ascending order.
+     */
+    public long[] allCandidatePairs() {
+        LongOpenHashSet pairs = new LongOpenHashSet();
+        for (Long2ObjectOpenHashMap<IntArrayList> bandBuckets : this.buckets) {
+            for (IntArrayList bucket : bandBuckets.values()) {
+                for (int i = 0; i < bucket.size(); i++)
+                    for (int j = i + 1; j < bucket.size(); j++)
+                        pairs.add(pairOf(bucket.getInt(i), bucket.getInt(j)));
+            }
+        }
+        long[] sortedPairs = pairs.toLongArray();
+        Arrays.sort(sortedPairs);
+        return sortedPairs;
+    }
+
+    /**
+     * Returns the smaller id of a packed candidate pair.
+     * @param pair The packed candidate pair.
+     * @return The smaller id of the pair.
+     */
+    public static int firstIdOf(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    /**
+     * Returns the larger id of a packed candidate pair.
+     * @param pair The packed candidate pair.
+     * @return The larger id of the pair.
+     */
+    public static int secondIdOf(long pair) {
+        return (int) pair;
+    }
+
+    private static long pairOf(int id1, int id2) {
+        return ((long) Math.min(id1, id2) << 32) | Math.max(id1, id2);
+    }
+
+    private int[] signatureOf(String value) {
+        LongArrayList tokenCodes = this.tokenizer.tokenize((value == null) ? "" : value, TOKEN_CODES.get());
+        if (tokenCodes.isEmpty())
+            return null;
+        return this.minHash.signature(tokenCodes, false);
+    }
+
+    /**
+     * Hashes the rows of the provided band into one key; different row values may share a key, which only adds
+     * candidates.
+     */
+    private long bucketKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * this.numRows; row < (band + 1) * this.numRows; row++)
+            key = MinHashScheme.mix(key * 31 + signature[row]);
+        return key;
+    }
+}
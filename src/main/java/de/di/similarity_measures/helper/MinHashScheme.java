@@ -0,0 +1,85 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.Arrays;
+
+/**
+ * A MinHashScheme calculates MinHash signatures of token lists: int arrays whose fraction of equal slots estimates the
+ * Jaccard similarity of the two token sets. Implementations differ in how they fill the slots, e.g., with one hash
+ * function per slot (UniversalMinHash) or with one hash function whose values are distributed over the slots
+ * (OnePermutationMinHash). Schemes with equal parameters calculate equal signatures.
+ */
+public interface MinHashScheme {
+
+    /**
+     * Returns the number of slots of every signature.
+     * @return The number of slots of every signature.
+     */
+    int getNumHashFunctions();
+
+    /**
+     * Calculates the signature of the provided token hashes.
+     * @param tokenHashes The well-mixed hashes of the distinct tokens, which may be overwritten by this call.
+     * @param numTokens The number of token hashes, which is at least one.
+     * @return The signature of the tokens.
+     */
+    int[] signatureOfHashes(long[] tokenHashes, int numTokens);
+
+    /**
+     * Calculates the signature of the provided token codes, e.g., the codes of Tokenizer.tokenize(String, LongArrayList).
+     * With set semantics, repeated tokens are hashed once; with bag semantics, the i-th occurrence of a token is hashed
+     * as a token of its own, so the signatures estimate the multiset Jaccard similarity sum(min) / sum(max) of the
+     * token counts. The buffer is sorted to find the repeated tokens and then overwritten with the token hashes.
+     * @param tokenCodes The codes of the tokens, which are overwritten by this call.
+     * @param bagSemantics Whether repeated tokens should be hashed as distinct tokens.
+     * @return The signature of the tokens.
+     */
+    default int[] signature(LongArrayList tokenCodes, boolean bagSemantics) {
+        long[] codes = tokenCodes.elements();
+        int length = tokenCodes.size();
+        Arrays.sort(codes, 0, length);
+
+        int numTokens = 0;
+        int occurrence = 0;
+        long previousCode = 0;
+        for (int i = 0; i < length; i++) {
+            long code = codes[i];
+            occurrence = (i > 0 && code == previousCode) ? occurrence + 1 : 0;
+            previousCode = code;
+            if (occurrence > 0 && !bagSemantics)
+                continue;
+            codes[numTokens++] = mix(code + occurrence * 0x9E3779B97F4A7C15L);
+        }
+        return this.signatureOfHashes(codes, numTokens);
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two token sets by the fraction of equal slots of their signatures.
+     * @param signature1 The signature of the first token set.
+     * @param signature2 The signature of the second token set, which has as many slots as the first one.
+     * @return The estimated Jaccard similarity of the two token sets.
+     */
+    static double estimate(int[] signature1, int[] signature2) {
+        int numEqualSlots = 0;
+        for (int i = 0; i < signature1.length; i++)
+            if (signature1[i] == signature2[i])
+                numEqualSlots++;
+        return (double) numEqualSlots / signature1.length;
+    }
+
+    /**
+     * Spreads the bits of a code over the whole word (the finalizer of MurmurHash3), because packed token codes differ
+     * only in few bits.
+     * @param code The code to mix.
+     * @return The mixed code.
+     */
+    static long mix(long code) {
+        code ^= code >>> 33;
+        code *= 0xFF51AFD7ED558CCDL;
+        code ^= code >>> 33;
+        code *= 0xC4CEB9FE1A85EC53L;
+        code ^= code >>> 33;
+        return code;
+    }
+}
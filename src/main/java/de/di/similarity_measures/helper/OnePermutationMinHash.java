@@ -0,0 +1,73 @@
+package de.di.similarity_measures.helper;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A OnePermutationMinHash calculates MinHash signatures with a single hash function (one permutation hashing): the
+ * upper bits of a token's hash select one of k bins and the lower bits are the value that competes for the bin's
+ * minimum, so a signature of k slots costs one hash per token instead of k. Bins that receive no token are filled by
+ * optimal densification: an empty bin copies the value of the first non-empty bin in a pseudo-random probe sequence
+ * that depends only on the bin and the seed, so two token sets fill their empty bins from the same bins and equal
+ * slots still estimate the Jaccard similarity.
+ */
+public class OnePermutationMinHash implements MinHashScheme {
+
+    // The value of bins that received no token.
+    private static final int EMPTY = -1;
+
+    // The number of bins, i.e., the number of slots of every signature.
+    @Getter
+    private final int numHashFunctions;
+
+    // The salt that makes the hash function and the probe sequences depend on the seed.
+    private final long salt;
+
+    public OnePermutationMinHash(int numHashFunctions, long seed) {
+        if (numHashFunctions <= 0)
+            throw new IllegalArgumentException("The number of hash functions must be positive, but is " + numHashFunctions);
+
+        this.numHashFunctions = numHashFunctions;
+        this.salt = MinHashScheme.mix(seed ^ 0x5DEECE66DL);
+    }
+
+    /**
+     * Calculates the signature of the provided token hashes in a single pass over the tokens, followed by the
+     * densification of the empty bins.
+     * @param tokenHashes The well-mixed hashes of the distinct tokens.
+     * @param numTokens The number of token hashes.
+     * @return The signature of the tokens; all slots are -1 if there are no tokens.
+     */
+    @Override
+    public int[] signatureOfHashes(long[] tokenHashes, int numTokens) {
+        int[] bins = new int[this.numHashFunctions];
+        Arrays.fill(bins, EMPTY);
+        if (numTokens == 0)
+            return bins;
+
+        for (int i = 0; i < numTokens; i++) {
+            long hash = MinHashScheme.mix(tokenHashes[i] ^ this.salt);
+            int bin = this.binOf(hash >>> 32);
+            int value = (int) (hash & 0x3FFFFFFFL);
+            if (bins[bin] == EMPTY || value < bins[bin])
+                bins[bin] = value;
+        }
+
+        int[] signature = bins.clone();
+        for (int bin = 0; bin < signature.length; bin++) {
+            for (long attempt = 0; signature[bin] == EMPTY; attempt++) {
+                long probe = MinHashScheme.mix(this.salt + bin * 0x9E3779B97F4A7C15L + attempt * 0xC2B2AE3D27D4EB4FL);
+                signature[bin] = bins[this.binOf(probe >>> 32)];
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Maps 32 hash bits uniformly to a bin by multiplication instead of a modulo.
+     */
+    private int binOf(long bits) {
+        return (int) ((bits * this.numHashFunctions) >>> 32);
+    }
+}
@@ -0,0 +1,161 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A SimHashIndex finds all 64-bit fingerprints, e.g., the ones of SimHash, within a Hamming distance h of each other
+ * without comparing all pairs. The fingerprints are split into h + 1 blocks of bits, so two fingerprints that differ in
+ * at most h bits agree in at least one complete block. For every block, the index keeps a table of all fingerprints,
+ * rotated such that the block forms their leading bits, in sorted order; the fingerprints that agree with a query in
+ * that block are then a contiguous range of the table, which is found by binary search and verified by popcount.
+ * Fingerprints are identified by their insertion order, starting with 0.
+ */
+public class SimHashIndex {
+
+    // The maximum Hamming distance of the fingerprints that are reported.
+    @Getter
+    private final int maxDistance;
+
+    // The number of leading bits of every table's block and the rotation that moves the block to the leading bits.
+    private final int[] blockSizes;
+    private final int[] rotations;
+
+    // The fingerprints by their ids.
+    private final LongArrayList fingerprints = new LongArrayList();
+
+    // The rotated fingerprints of every table in ascending order and the ids of the fingerprints in the same order.
+    private long[][] tableKeys;
+    private int[][] tableIds;
+
+    // A flag indicating whether fingerprints have been added since the tables were sorted.
+    private boolean sorted = true;
+
+    public SimHashIndex(int maxDistance) {
+        if (maxDistance < 0 || maxDistance >= Long.SIZE)
+            throw new IllegalArgumentException("The maximum Hamming distance must be between 0 and " + (Long.SIZE - 1) + ", but is " + maxDistance);
+
+        this.maxDistance = maxDistance;
+        int numBlocks = maxDistance + 1;
+        this.blockSizes = new int[numBlocks];
+        this.rotations = new int[numBlocks];
+        int blockStart = 0;
+        for (int block = 0; block < numBlocks; block++) {
+            this.blockSizes[block] = Long.SIZE / numBlocks + ((block < Long.SIZE % numBlocks) ? 1 : 0);
+            this.rotations[block] = blockStart;
+            blockStart += this.blockSizes[block];
+        }
+        this.tableKeys = new long[numBlocks][0];
+        this.tableIds = new int[numBlocks][0];
+    }
+
+    /**
+     * Returns the number of fingerprints that have been added.
+     * @return The number of fingerprints.
+     */
+    public int size() {
+        return this.fingerprints.size();
+    }
+
+    /**
+     * Adds the provided fingerprint to the index; the tables are sorted again by the next query.
+     * @param fingerprint The fingerprint to add.
+     * @return The id of the fingerprint.
+     */
+    public int add(long fingerprint) {
+        this.fingerprints.add(fingerprint);
+        this.sorted = false;
+        return this.fingerprints.size() - 1;
+    }
+
+    /**
+     * Returns the ids of all fingerprints within the maximum Hamming distance of the provided fingerprint.
+     * @param fingerprint The fingerprint whose neighbours are requested.
+     * @return The ids of the neighbours in ascending order.
+     */
+    public int[] query(long fingerprint) {
+        this.sort();
+        IntOpenHashSet ids = new IntOpenHashSet();
+        for (int table = 0; table < this.tableKeys.length; table++) {
+            long[] keys = this.tableKeys[table];
+            long blockMask = -1L << (Long.SIZE - this.blockSizes[table]);
+            long block = Long.rotateLeft(fingerprint, this.rotations[table]) & blockMask;
+            for (int i = firstIndexOf(keys, block); i < keys.length && (keys[i] & blockMask) == block; i++) {
+                int id = this.tableIds[table][i];
+                if (Long.bitCount(this.fingerprints.getLong(id) ^ fingerprint) <= this.maxDistance)
+                    ids.add(id);
+            }
+        }
+        int[] sortedIds = ids.toIntArray();
+        Arrays.sort(sortedIds);
+        return sortedIds;
+    }
+
+    /**
+     * Returns all pairs of fingerprints within the maximum Hamming distance of each other. Every pair is packed into a
+     * long like the candidate pairs of an LSHIndex; see LSHIndex.firstIdOf() and LSHIndex.secondIdOf().
+     * @return The distinct pairs in ascending order.
+     */
+    public long[] allPairs() {
+        this.sort();
+        LongOpenHashSet pairs = new LongOpenHashSet();
+        for (int table = 0; table < this.tableKeys.length; table++) {
+            long[] keys = this.tableKeys[table];
+            int[] ids = this.tableIds[table];
+            long blockMask = -1L << (Long.SIZE - this.blockSizes[table]);
+            int end = 0;
+            for (int start = 0; start < keys.length; start = end) {
+                long block = keys[start] & blockMask;
+                end = start + 1;
+                while (end < keys.length && (keys[end] & blockMask) == block)
+                    end++;
+                for (int i = start; i < end; i++)
+                    for (int j = i + 1; j < end; j++)
+                        if (Long.bitCount(keys[i] ^ keys[j]) <= this.maxDistance)
+                            pairs.add(((long) Math.min(ids[i], ids[j]) << 32) | Math.max(ids[i], ids[j]));
+            }
+        }
+        long[] sortedPairs = pairs.toLongArray();
+        Arrays.sort(sortedPairs);
+        return sortedPairs;
+    }
+
+    private void sort() {
+        if (this.sorted)
+            return;
+        long[] allFingerprints = this.fingerprints.toLongArray();
+        for (int table = 0; table < this.tableKeys.length; table++) {
+            long[] keys = new long[allFingerprints.length];
+            for (int id = 0; id < keys.length; id++)
+                keys[id] = Long.rotateLeft(allFingerprints[id], this.rotations[table]);
+            int[] ids = new int[keys.length];
+            for (int id = 0; id < ids.length; id++)
+                ids[id] = id;
+            IntArrays.quickSort(ids, (id1, id2) -> Long.compare(keys[id1], keys[id2]));
+
+            long[] sortedKeys = new long[keys.length];
+            for (int i = 0; i < ids.length; i++)
+                sortedKeys[i] = keys[ids[i]];
+            this.tableKeys[table] = sortedKeys;
+            this.tableIds[table] = ids;
+        }
+        this.sorted = true;
+    }
+
+    /**
+     * Returns the index of the first key that is at least as large as the provided one.
+     */
+    private static int firstIndexOf(long[] keys, long key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0)
+            return -index - 1;
+        while (index > 0 && keys[index - 1] == key)
+            index--;
+        return index;
+    }
+}
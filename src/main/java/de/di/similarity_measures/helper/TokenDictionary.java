@@ -0,0 +1,115 @@
+package de.di.similarity_measures.helper;
+
+import de.di.structures.EncodedColumn;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * A TokenDictionary assigns dense int ids to the distinct tokens of the values of one column and caches the token ids
+ * of every value by the value's code. Every value is therefore tokenized only once, no matter how many comparisons it
+ * takes part in, and token-based measures can work on the cached id vectors instead of token strings. Values are
+ * tokenized into the primitive token codes of Tokenizer.tokenize(String, LongArrayList), and the dictionary keeps the
+ * code of every id, so measures that hash tokens never need the token strings. Tokens longer than
+ * Tokenizer.MAX_PACKED_TOKEN_SIZE are identified by their 64-bit rolling hash. The dictionary grows lazily: values are
+ * tokenized when their token ids are requested for the first time, so it also covers values that are appended to the
+ * column later. All methods are synchronized.
+ */
+public class TokenDictionary {
+
+    // The column whose values are tokenized; it is referenced weakly, so that caches that map columns to their
+    // dictionaries do not keep the columns alive through their values.
+    private final WeakReference<EncodedColumn> column;
+
+    // The tokenizer that splits the values into tokens.
+    @Getter
+    private final Tokenizer tokenizer;
+
+    // The id of every distinct token code and the token code of every id.
+    private final Long2IntOpenHashMap idsByTokenCode = new Long2IntOpenHashMap();
+    private final LongArrayList tokenCodes = new LongArrayList();
+
+    // The reusable buffer for the token codes of one value.
+    private final LongArrayList valueTokenCodes = new LongArrayList();
+
+    // The ascendingly sorted token ids of every value by the value's code; null for values that have not been
+    // tokenized yet. Tokens that occur several times in a value occur several times in its ids.
+    private int[][] tokenIdsByCode;
+
+    public TokenDictionary(EncodedColumn column, Tokenizer tokenizer) {
+        this.column = new WeakReference<>(column);
+        this.tokenizer = tokenizer;
+        this.idsByTokenCode.defaultReturnValue(-1);
+        this.tokenIdsByCode = new int[column.cardinality()][];
+    }
+
+    /**
+     * Returns the ascendingly sorted token ids of the value with the provided code, which is tokenized on the first
+     * request. The returned array must not be modified.
+     * @param code The code of the value.
+     * @return The sorted token ids of the value.
+     */
+    public synchronized int[] getTokenIds(int code) {
+        EncodedColumn column = this.column.get();
+        if (column == null)
+            throw new IllegalStateException("The column of the token dictionary has been garbage collected");
+        if (code >= this.tokenIdsByCode.length)
+            this.tokenIdsByCode = Arrays.copyOf(this.tokenIdsByCode, Math.max(code + 1, column.cardinality()));
+
+        int[] tokenIds = this.tokenIdsByCode[code];
+        if (tokenIds == null) {
+            String value = column.getValue(code);
+            this.tokenizer.tokenize((value == null) ? "" : value, this.valueTokenCodes);
+            tokenIds = new int[this.valueTokenCodes.size()];
+            for (int i = 0; i < tokenIds.length; i++)
+                tokenIds[i] = this.idOf(this.valueTokenCodes.getLong(i));
+            Arrays.sort(tokenIds);
+            this.tokenIdsByCode[code] = tokenIds;
+        }
+        return tokenIds;
+    }
+
+    /**
+     * Returns the token codes of the value with the provided code in the order of their ids, i.e., with repeated tokens
+     * next to each other.
+     * @param code The code of the value.
+     * @return A fresh array with the token codes of the value.
+     */
+    public synchronized long[] getTokenCodes(int code) {
+        int[] tokenIds = this.getTokenIds(code);
+        long[] codes = new long[tokenIds.length];
+        for (int i = 0; i < tokenIds.length; i++)
+            codes[i] = this.tokenCodes.getLong(tokenIds[i]);
+        return codes;
+    }
+
+    /**
+     * Returns the code of the token with the provided id, as Tokenizer.codeOf(String) calculates it for the token.
+     * @param id The id of the token.
+     * @return The code of the token with the provided id.
+     */
+    public synchronized long getTokenCode(int id) {
+        return this.tokenCodes.getLong(id);
+    }
+
+    /**
+     * Returns the number of distinct tokens of all values that have been tokenized so far.
+     * @return The number of token ids.
+     */
+    public synchronized int size() {
+        return this.tokenCodes.size();
+    }
+
+    private int idOf(long tokenCode) {
+        int id = this.idsByTokenCode.get(tokenCode);
+        if (id < 0) {
+            id = this.tokenCodes.size();
+            this.idsByTokenCode.put(tokenCode, id);
+            this.tokenCodes.add(tokenCode);
+        }
+        return id;
+    }
+}
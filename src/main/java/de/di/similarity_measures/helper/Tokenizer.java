@@ -1,5 +1,6 @@
 package de.di.similarity_measures.helper;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import lombok.Getter;
 
 @Getter
@@ -14,6 +15,12 @@ public class Tokenizer {
     // The choice of whether padding should be used for the tokenization
     private final boolean usePadding;
 
+    // The maximum token size whose characters can be packed into one long code, i.e., 16 bits per character.
+    public static final int MAX_PACKED_TOKEN_SIZE = 4;
+
+    // The multiplier of the rolling hash for tokens that are longer than MAX_PACKED_TOKEN_SIZE.
+    private static final long ROLLING_HASH_BASE = 0x100000001B3L;
+
     public Tokenizer(final int tokenSize, final boolean usePadding) {
         this.tokenSize = tokenSize;
         this.usePadding = usePadding;
@@ -41,4 +48,87 @@ public class Tokenizer {
             tokens[i] = s.substring(i, i + this.tokenSize);
         return tokens;
     }
+
+    /**
+     * Tokenizes the input string like tokenize(String), but emits every token as a long code into the provided buffer
+     * instead of creating a String per token. Tokens of up to MAX_PACKED_TOKEN_SIZE characters are packed with 16 bits
+     * per character, so equal codes mean equal tokens; longer tokens are encoded with a rolling polynomial hash, which is
+     * updated in constant time per token. The padding is read from paddingSymbol without building the padded string, so
+     * a buffer with enough capacity makes the tokenization allocation-free.
+     * @param string The string argument that should be tokenized.
+     * @param codes The buffer for the token codes, which is cleared first.
+     * @return The provided buffer, which holds the codes of all tokens in token order.
+     */
+    public LongArrayList tokenize(final String string, final LongArrayList codes) {
+        codes.clear();
+        int paddingLength = this.usePadding ? Math.max(0, this.tokenSize - 1) * paddingSymbol.length() : 0;
+        int length = paddingLength + string.length() + paddingLength;
+        if (length < this.tokenSize || this.tokenSize <= 0)
+            return codes;
+
+        if (this.hasExactCodes()) {
+            long mask = (this.tokenSize == MAX_PACKED_TOKEN_SIZE) ? -1L : (1L << (16 * this.tokenSize)) - 1;
+            long code = 0;
+            for (int i = 0; i < length; i++) {
+                code = ((code << 16) | charAt(string, paddingLength, i)) & mask;
+                if (i >= this.tokenSize - 1)
+                    codes.add(code);
+            }
+        }
+        else {
+            // The weight of the character that leaves the window, i.e., ROLLING_HASH_BASE ^ (tokenSize - 1)
+            long leavingWeight = 1;
+            for (int i = 1; i < this.tokenSize; i++)
+                leavingWeight *= ROLLING_HASH_BASE;
+            long code = 0;
+            for (int i = 0; i < length; i++) {
+                if (i >= this.tokenSize)
+                    code -= charAt(string, paddingLength, i - this.tokenSize) * leavingWeight;
+                code = code * ROLLING_HASH_BASE + charAt(string, paddingLength, i);
+                if (i >= this.tokenSize - 1)
+                    codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the code of the provided token, which equals the code that tokenize(String, LongArrayList) emits for the
+     * token if its length is the token size; tokens of other lengths are encoded in the same way.
+     * @param token The token to encode.
+     * @return The code of the token.
+     */
+    public static long codeOf(final String token) {
+        long code = 0;
+        if (token.length() <= MAX_PACKED_TOKEN_SIZE) {
+            for (int i = 0; i < token.length(); i++)
+                code = (code << 16) | token.charAt(i);
+        }
+        else {
+            for (int i = 0; i < token.length(); i++)
+                code = code * ROLLING_HASH_BASE + token.charAt(i);
+        }
+        return code;
+    }
+
+    /**
+     * Checks whether the codes of tokenize(String, LongArrayList) identify the tokens exactly, i.e., whether the tokens
+     * are packed instead of hashed.
+     * @return true if two tokens have the same code only if they are equal.
+     */
+    public boolean hasExactCodes() {
+        return this.tokenSize <= MAX_PACKED_TOKEN_SIZE;
+    }
+
+    /**
+     * Returns the character at the provided position of the padded string without building the padded string.
+     */
+    private static char charAt(String string, int paddingLength, int position) {
+        if (position < paddingLength)
+            return paddingSymbol.charAt(position % paddingSymbol.length());
+        position -= paddingLength;
+        if (position < string.length())
+            return string.charAt(position);
+        return paddingSymbol.charAt((position - string.length()) % paddingSymbol.length());
+    }
 }
@@ -0,0 +1,60 @@
+package de.di.similarity_measures.helper;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A UniversalMinHash calculates MinHash signatures with k independent hash functions of a seeded universal family:
+ * every function maps a token code x to (a * x + b) >>> 33 with a random odd multiplier a and a random increment b,
+ * so a signature of k slots costs k multiply-adds per token. Instances with the same seed and number of hash functions
+ * calculate the same signatures.
+ */
+public class UniversalMinHash implements MinHashScheme {
+
+    // The number of hash functions, i.e., the number of slots of every signature.
+    @Getter
+    private final int numHashFunctions;
+
+    // The random parameters of every hash function.
+    private final long[] multipliers;
+    private final long[] increments;
+
+    public UniversalMinHash(int numHashFunctions, long seed) {
+        if (numHashFunctions <= 0)
+            throw new IllegalArgumentException("The number of hash functions must be positive, but is " + numHashFunctions);
+
+        this.numHashFunctions = numHashFunctions;
+        this.multipliers = new long[numHashFunctions];
+        this.increments = new long[numHashFunctions];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < numHashFunctions; i++) {
+            this.multipliers[i] = random.nextLong() | 1L;
+            this.increments[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Calculates the signature of the provided token hashes by applying every hash function to every token.
+     * @param tokenHashes The well-mixed hashes of the distinct tokens.
+     * @param numTokens The number of token hashes.
+     * @return The signature of the tokens; all slots are Integer.MAX_VALUE if there are no tokens.
+     */
+    @Override
+    public int[] signatureOfHashes(long[] tokenHashes, int numTokens) {
+        int[] signature = new int[this.numHashFunctions];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int i = 0; i < numTokens; i++)
+            this.update(signature, tokenHashes[i]);
+        return signature;
+    }
+
+    private void update(int[] signature, long token) {
+        for (int i = 0; i < this.numHashFunctions; i++) {
+            int hash = (int) ((this.multipliers[i] * token + this.increments[i]) >>> 33);
+            if (hash < signature[i])
+                signature[i] = hash;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.di.similarity_measures.structures;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A SparseSimilarityMatrix holds only the similarities of a many-vs-many comparison that reach a threshold, row by row
+ * in compressed sparse row format: the entries of row i are the positions rowOffsets[i] to rowOffsets[i + 1] - 1 of
+ * columns and similarities, ordered by their column.
+ */
+@Getter
+@AllArgsConstructor
+public class SparseSimilarityMatrix {
+
+    private final int numRows;
+
+    private final int numColumns;
+
+    private final int[] rowOffsets;
+
+    private final int[] columns;
+
+    private final double[] similarities;
+
+    /**
+     * Returns the number of stored similarities.
+     * @return The number of stored similarities.
+     */
+    public int size() {
+        return this.columns.length;
+    }
+
+    /**
+     * Returns the similarity of the provided cell.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return The similarity of the cell or 0 if it is below the threshold.
+     */
+    public double get(int row, int column) {
+        int index = Arrays.binarySearch(this.columns, this.rowOffsets[row], this.rowOffsets[row + 1], column);
+        return (index < 0) ? 0 : this.similarities[index];
+    }
+
+    /**
+     * Converts the matrix into a dense matrix, in which all similarities below the threshold are 0.
+     * @return The dense matrix.
+     */
+    public double[][] toDense() {
+        double[][] matrix = new double[this.numRows][this.numColumns];
+        for (int row = 0; row < this.numRows; row++)
+            for (int index = this.rowOffsets[row]; index < this.rowOffsets[row + 1]; index++)
+                matrix[row][this.columns[index]] = this.similarities[index];
+        return matrix;
+    }
+}
@@ -0,0 +1,96 @@
+package de.di.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * An AppendableColumn is a dictionary-encoded column that can grow by appending values. Codes are assigned in the order
+ * of the values' first occurrence, like in a DictionaryColumn, so appending values never changes the codes of existing
+ * values: new distinct values receive the codes from the previous cardinality onwards. The arrays returned by
+ * getCodes() and getDictionary() are snapshots that are reused until the next append.
+ */
+public class AppendableColumn implements EncodedColumn {
+
+    private final Object2IntOpenHashMap<String> codesByValue;
+    private final ObjectArrayList<String> dictionary;
+    private final IntArrayList codes;
+
+    // The snapshots of the codes and the dictionary, which are taken lazily and discarded by every append.
+    private int[] codesSnapshot = null;
+    private String[] dictionarySnapshot = null;
+
+    /**
+     * Creates an appendable column with the values of the provided column.
+     * @param column The column whose codes and dictionary are copied.
+     */
+    public AppendableColumn(EncodedColumn column) {
+        String[] dictionary = column.getDictionary();
+        this.codesByValue = new Object2IntOpenHashMap<>(dictionary.length);
+        this.codesByValue.defaultReturnValue(-1);
+        this.dictionary = new ObjectArrayList<>(dictionary);
+        for (int code = 0; code < dictionary.length; code++)
+            this.codesByValue.put(dictionary[code], code);
+        this.codes = new IntArrayList(column.getCodes());
+    }
+
+    /**
+     * Appends the provided value as the value of the next record; null values are encoded as empty strings.
+     * @param value The value to append.
+     * @return The code that was assigned to the value.
+     */
+    public int add(String value) {
+        if (value == null)
+            value = "";
+        int code = this.codesByValue.getInt(value);
+        if (code < 0) {
+            code = this.dictionary.size();
+            this.codesByValue.put(value, code);
+            this.dictionary.add(value);
+            this.dictionarySnapshot = null;
+        }
+        this.codes.add(code);
+        this.codesSnapshot = null;
+        return code;
+    }
+
+    @Override
+    public int size() {
+        return this.codes.size();
+    }
+
+    @Override
+    public int cardinality() {
+        return this.dictionary.size();
+    }
+
+    @Override
+    public int getCode(int recordIndex) {
+        return this.codes.getInt(recordIndex);
+    }
+
+    @Override
+    public String getValue(int code) {
+        return this.dictionary.get(code);
+    }
+
+    @Override
+    public int[] getCodes() {
+        int[] codes = this.codesSnapshot;
+        if (codes == null) {
+            codes = this.codes.toIntArray();
+            this.codesSnapshot = codes;
+        }
+        return codes;
+    }
+
+    @Override
+    public String[] getDictionary() {
+        String[] dictionary = this.dictionarySnapshot;
+        if (dictionary == null) {
+            dictionary = this.dictionary.toArray(new String[0]);
+            this.dictionarySnapshot = dictionary;
+        }
+        return dictionary;
+    }
+}
@@ -0,0 +1,202 @@
+package de.di.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A ByteColumn is a dictionary-encoded column whose distinct values are kept as raw encoded bytes in one shared array
+ * instead of as Strings. A value is decoded into a String only on its first request and is cached afterwards, so
+ * algorithms that work on codes or bytes never pay for decoding. If the column is single-byte, i.e., its charset
+ * encodes every character in one byte or all its bytes are ASCII, every byte is one character and similarity kernels
+ * can compare the bytes directly.
+ */
+public class ByteColumn implements EncodedColumn {
+
+    private final Charset charset;
+
+    // The encoded bytes of all distinct values, concatenated in the order of their codes.
+    private final byte[] valueBytes;
+
+    // The value with a certain code spans the bytes from valueOffsets[code] to valueOffsets[code + 1].
+    private final int[] valueOffsets;
+
+    // The code of every record's value in this column.
+    private final int[] codes;
+
+    // Whether every byte of the values encodes exactly one character.
+    private final boolean singleByte;
+
+    // The decoded values by code, which are null until requested; racing threads at worst decode a value twice.
+    private final String[] values;
+
+    public ByteColumn(final Charset charset, final byte[] valueBytes, final int[] valueOffsets, final int[] codes, final boolean singleByte) {
+        this.charset = charset;
+        this.valueBytes = valueBytes;
+        this.valueOffsets = valueOffsets;
+        this.codes = codes;
+        this.singleByte = singleByte;
+        this.values = new String[valueOffsets.length - 1];
+    }
+
+    /**
+     * Checks whether the provided charset encodes every character in exactly one byte.
+     * @param charset The charset to check.
+     * @return true if the charset is a single-byte charset.
+     */
+    public static boolean isSingleByte(Charset charset) {
+        return StandardCharsets.ISO_8859_1.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    /**
+     * Concatenates the provided columns in the given order into one column, like DictionaryColumn.concat(), without
+     * decoding any value. All columns need to have the same charset.
+     * @param parts The columns to concatenate.
+     * @return The concatenation of all provided columns.
+     */
+    public static ByteColumn concat(final List<ByteColumn> parts) {
+        if (parts.size() == 1)
+            return parts.get(0);
+
+        Builder builder = new Builder(parts.get(0).charset);
+        for (ByteColumn part : parts) {
+            int[] translation = new int[part.cardinality()];
+            for (int code = 0; code < part.cardinality(); code++)
+                translation[code] = builder.pool.add(part.valueBytes, part.getValueOffset(code), part.getValueLength(code));
+            for (int code : part.codes)
+                builder.codes.add(translation[code]);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return this.codes.length;
+    }
+
+    @Override
+    public int cardinality() {
+        return this.values.length;
+    }
+
+    @Override
+    public int getCode(int recordIndex) {
+        return this.codes[recordIndex];
+    }
+
+    @Override
+    public String getValue(int code) {
+        String value = this.values[code];
+        if (value == null) {
+            value = new String(this.valueBytes, this.getValueOffset(code), this.getValueLength(code), this.charset);
+            this.values[code] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int[] getCodes() {
+        return this.codes;
+    }
+
+    /**
+     * Returns all distinct values, which decodes all values that have not been requested yet.
+     * @return The distinct values of this column.
+     */
+    @Override
+    public String[] getDictionary() {
+        for (int code = 0; code < this.values.length; code++)
+            this.getValue(code);
+        return this.values;
+    }
+
+    /**
+     * Returns the array that holds the encoded bytes of all distinct values; it must not be modified.
+     * @return The encoded bytes of all distinct values.
+     */
+    public byte[] getValueBytes() {
+        return this.valueBytes;
+    }
+
+    public int getValueOffset(int code) {
+        return this.valueOffsets[code];
+    }
+
+    public int getValueLength(int code) {
+        return this.valueOffsets[code + 1] - this.valueOffsets[code];
+    }
+
+    /**
+     * Checks whether every byte of this column's values encodes exactly one character, which allows to compare values
+     * byte by byte instead of char by char.
+     * @return true if the column's values are single-byte encoded.
+     */
+    public boolean isSingleByte() {
+        return this.singleByte;
+    }
+
+    /**
+     * Converts this column into a DictionaryColumn with the same codes.
+     * @return The DictionaryColumn with the decoded values of this column.
+     */
+    public DictionaryColumn toDictionaryColumn() {
+        return new DictionaryColumn(this.getDictionary(), this.codes);
+    }
+
+    /**
+     * Estimates the heap memory of the dictionary of this column, i.e., of the value bytes, their offsets and the
+     * values that have been decoded so far.
+     * @return The number of dictionary bytes of this column.
+     */
+    public long getDictionaryBytes() {
+        long bytes = MemoryFootprint.byteArrayBytes(this.valueBytes.length) +
+                MemoryFootprint.intArrayBytes(this.valueOffsets.length) +
+                MemoryFootprint.referenceArrayBytes(this.values.length);
+        for (String value : this.values)
+            if (value != null)
+                bytes += MemoryFootprint.stringBytes(value);
+        return bytes;
+    }
+
+    /**
+     * A Builder incrementally encodes the values of one column from their raw, encoded bytes without decoding them.
+     */
+    public static class Builder {
+
+        private final Charset charset;
+        private final ValuePool pool;
+        private final IntArrayList codes = new IntArrayList();
+
+        public Builder(Charset charset) {
+            this.charset = charset;
+            this.pool = new ValuePool(charset);
+        }
+
+        /**
+         * Appends the value encoded in the first length bytes of the provided array as the value of the next record.
+         * @param bytes The encoded value; the array is not retained.
+         * @param length The number of bytes of the encoded value.
+         * @return The code that was assigned to the value.
+         */
+        public int add(byte[] bytes, int length) {
+            int code = this.pool.add(bytes, length);
+            this.codes.add(code);
+            return code;
+        }
+
+        /**
+         * Returns the number of values that have been appended so far.
+         * @return The number of values that have been appended so far.
+         */
+        public int size() {
+            return this.codes.size();
+        }
+
+        public ByteColumn build() {
+            return new ByteColumn(this.charset, this.pool.toByteArray(), this.pool.toOffsetArray(), this.codes.toIntArray(),
+                    isSingleByte(this.charset) || this.pool.isAscii());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package de.di.structures;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * A ColumnType is the inferred type of the values of an attribute. Empty values are nulls and fit every type; an
+ * attribute whose values fit neither of the primitive types is a STRING attribute.
+ */
+public enum ColumnType {
+
+    // Integral numbers that fit into a long, e.g., "-42".
+    INTEGER,
+
+    // Decimal numbers in plain notation, e.g., "5755.94"; integral numbers are decimal numbers as well.
+    DECIMAL,
+
+    // ISO-8601 calendar dates, e.g., "1995-03-15", which are represented by their epoch day.
+    DATE,
+
+    // Any other values.
+    STRING;
+
+    private static final Pattern INTEGER_PATTERN = Pattern.compile("-?\\d{1,18}");
+    private static final Pattern DECIMAL_PATTERN = Pattern.compile("-?\\d{1,15}(\\.\\d{1,15})?");
+    private static final Pattern DATE_PATTERN = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+    /**
+     * Checks whether this type has a primitive, ordered representation.
+     * @return true if values of this type can be compared as numbers.
+     */
+    public boolean isNumeric() {
+        return this != STRING;
+    }
+
+    /**
+     * Infers the most specific type of the provided non-null value.
+     * @param value The value whose type should be inferred.
+     * @return The most specific type of the value.
+     */
+    public static ColumnType of(String value) {
+        if (INTEGER_PATTERN.matcher(value).matches())
+            return INTEGER;
+        if (DECIMAL_PATTERN.matcher(value).matches())
+            return DECIMAL;
+        if (DATE_PATTERN.matcher(value).matches()) {
+            try {
+                LocalDate.parse(value);
+                return DATE;
+            } catch (DateTimeParseException e) {
+                return STRING;
+            }
+        }
+        return STRING;
+    }
+
+    /**
+     * Returns the most specific type that fits the values of both provided types.
+     * @param type1 The first type or null if it is not known yet.
+     * @param type2 The second type or null if it is not known yet.
+     * @return The most specific type that fits both types.
+     */
+    public static ColumnType merge(ColumnType type1, ColumnType type2) {
+        if (type1 == null || type1 == type2)
+            return type2;
+        if (type2 == null)
+            return type1;
+        if ((type1 == INTEGER && type2 == DECIMAL) || (type1 == DECIMAL && type2 == INTEGER))
+            return DECIMAL;
+        return STRING;
+    }
+
+    /**
+     * Converts the provided value of this type into its primitive representation.
+     * @param value A value that fits this type.
+     * @return The numeric representation of the value.
+     */
+    public double toDouble(String value) {
+        switch (this) {
+            case INTEGER:
+                return Long.parseLong(value);
+            case DECIMAL:
+                return Double.parseDouble(value);
+            case DATE:
+                return LocalDate.parse(value).toEpochDay();
+            default:
+                throw new UnsupportedOperationException("Values of type " + this + " have no numeric representation");
+        }
+    }
+
+    /**
+     * Converts the provided value of this type into its integral representation.
+     * @param value A value that fits this type, which needs to be INTEGER or DATE.
+     * @return The integral representation of the value.
+     */
+    public long toLong(String value) {
+        switch (this) {
+            case INTEGER:
+                return Long.parseLong(value);
+            case DATE:
+                return LocalDate.parse(value).toEpochDay();
+            default:
+                throw new UnsupportedOperationException("Values of type " + this + " have no integral representation");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package de.di.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A DictionaryColumn is the dictionary-encoded representation of the values of one attribute. Every distinct value is
+ * stored exactly once in the dictionary and every record refers to its value by the (0-indexed) position of that value
+ * in the dictionary, i.e., by its code. Codes are assigned in the order of the values' first occurrence, hence equal
+ * values always have equal codes and different values always have different codes within the same column.
+ */
+@Getter
+public class DictionaryColumn implements EncodedColumn {
+
+    // The distinct values of this column; the position of a value in this array is its code.
+    private final String[] dictionary;
+
+    // The code of every record's value in this column, i.e., codes[recordIndex] is an index into the dictionary.
+    private final int[] codes;
+
+    public DictionaryColumn(final String[] dictionary, final int[] codes) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+    }
+
+    /**
+     * Dictionary-encodes the provided values.
+     * @param values The values that should be encoded.
+     * @return The dictionary-encoded column of the provided values.
+     */
+    public static DictionaryColumn encode(final String[] values) {
+        Builder builder = new Builder(values.length);
+        for (String value : values)
+            builder.add(value);
+        return builder.build();
+    }
+
+    /**
+     * Concatenates the provided columns in the given order into one column, i.e., the records of the first column are
+     * followed by the records of the second column and so on. The dictionaries are merged such that codes are still
+     * assigned in the order of the values' first occurrence.
+     * @param parts The columns to concatenate.
+     * @return The concatenation of all provided columns.
+     */
+    public static DictionaryColumn concat(final List<DictionaryColumn> parts) {
+        if (parts.size() == 1)
+            return parts.get(0);
+
+        Object2IntOpenHashMap<String> codesByValue = new Object2IntOpenHashMap<>();
+        codesByValue.defaultReturnValue(-1);
+        ObjectArrayList<String> dictionary = new ObjectArrayList<>();
+        int[] codes = new int[parts.stream().mapToInt(DictionaryColumn::size).sum()];
+
+        int offset = 0;
+        for (DictionaryColumn part : parts) {
+            // Translate the part's codes into codes of the merged dictionary; this touches every distinct value once
+            int[] translation = new int[part.cardinality()];
+            for (int code = 0; code < part.cardinality(); code++) {
+                String value = part.getDictionary()[code];
+                int mergedCode = codesByValue.getInt(value);
+                if (mergedCode < 0) {
+                    mergedCode = dictionary.size();
+                    codesByValue.put(value, mergedCode);
+                    dictionary.add(value);
+                }
+                translation[code] = mergedCode;
+            }
+            for (int code : part.getCodes())
+                codes[offset++] = translation[code];
+        }
+        return new DictionaryColumn(dictionary.toArray(new String[0]), codes);
+    }
+
+    @Override
+    public int size() {
+        return this.codes.length;
+    }
+
+    @Override
+    public int cardinality() {
+        return this.dictionary.length;
+    }
+
+    @Override
+    public int getCode(int recordIndex) {
+        return this.codes[recordIndex];
+    }
+
+    @Override
+    public String getValue(int code) {
+        return this.dictionary[code];
+    }
+
+    @Override
+    public String get(int recordIndex) {
+        return this.dictionary[this.codes[recordIndex]];
+    }
+
+    /**
+     * Decodes this column into a plain value array. The values in the result are shared with the dictionary.
+     * @return The decoded values of this column in record order.
+     */
+    @Override
+    public String[] decode() {
+        String[] values = new String[this.codes.length];
+        for (int recordIndex = 0; recordIndex < this.codes.length; recordIndex++)
+            values[recordIndex] = this.dictionary[this.codes[recordIndex]];
+        return values;
+    }
+
+    /**
+     * A Builder incrementally encodes the values of one column, which allows loaders to encode records as they are
+     * read without buffering the raw values.
+     */
+    public static class Builder {
+
+        private final Object2IntOpenHashMap<String> codesByValue;
+        private final ObjectArrayList<String> dictionary;
+        private final IntArrayList codes;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int expectedSize) {
+            this.codesByValue = new Object2IntOpenHashMap<>();
+            this.codesByValue.defaultReturnValue(-1);
+            this.dictionary = new ObjectArrayList<>();
+            this.codes = new IntArrayList(expectedSize);
+        }
+
+        /**
+         * Appends the provided value as the value of the next record; null values are encoded as empty strings.
+         * @param value The value to append.
+         * @return The code that was assigned to the value.
+         */
+        public int add(String value) {
+            if (value == null)
+                value = "";
+            int code = this.codesByValue.getInt(value);
+            if (code < 0) {
+                code = this.dictionary.size();
+                this.codesByValue.put(value, code);
+                this.dictionary.add(value);
+            }
+            this.codes.add(code);
+            return code;
+        }
+
+        /**
+         * Returns the number of values that have been appended so far.
+         * @return The number of values that have been appended so far.
+         */
+        public int size() {
+            return this.codes.size();
+        }
+
+        public DictionaryColumn build() {
+            return new DictionaryColumn(this.dictionary.toArray(new String[0]), this.codes.toIntArray());
+        }
+    }
+}
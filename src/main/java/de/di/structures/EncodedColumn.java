@@ -0,0 +1,70 @@
+package de.di.structures;
+
+/**
+ * An EncodedColumn is the dictionary-encoded representation of the values of one attribute: every record refers to its
+ * value by a code and every distinct value has exactly one code. Implementations differ in where they keep codes and
+ * values, e.g., in heap arrays (DictionaryColumn) or in memory-mapped files (OffHeapColumn).
+ */
+public interface EncodedColumn {
+
+    /**
+     * Returns the number of records in this column.
+     * @return The number of records in this column.
+     */
+    int size();
+
+    /**
+     * Returns the number of distinct values in this column.
+     * @return The number of distinct values in this column.
+     */
+    int cardinality();
+
+    /**
+     * Returns the code of the value of the record with the provided index.
+     * @param recordIndex The index of the record whose code is requested.
+     * @return The code of the record's value.
+     */
+    int getCode(int recordIndex);
+
+    /**
+     * Returns the value with the provided code.
+     * @param code The code of the requested value.
+     * @return The value with the provided code.
+     */
+    String getValue(int code);
+
+    /**
+     * Returns the codes of all records in record order. Implementations that do not store the codes on the heap return
+     * a fresh copy.
+     * @return The codes of all records.
+     */
+    int[] getCodes();
+
+    /**
+     * Returns all distinct values; the index of a value is its code. Implementations that do not store the values on
+     * the heap return a freshly decoded copy.
+     * @return The distinct values of this column.
+     */
+    String[] getDictionary();
+
+    /**
+     * Returns the value of the record with the provided index.
+     * @param recordIndex The index of the record whose value is requested.
+     * @return The value of the record with the provided index.
+     */
+    default String get(int recordIndex) {
+        return this.getValue(this.getCode(recordIndex));
+    }
+
+    /**
+     * Decodes this column into a plain value array.
+     * @return The decoded values of this column in record order.
+     */
+    default String[] decode() {
+        String[] dictionary = this.getDictionary();
+        String[] values = new String[this.size()];
+        for (int recordIndex = 0; recordIndex < values.length; recordIndex++)
+            values[recordIndex] = dictionary[this.getCode(recordIndex)];
+        return values;
+    }
+}
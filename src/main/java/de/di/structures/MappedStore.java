@@ -0,0 +1,145 @@
+package de.di.structures;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A MappedStore is an append-only byte store backed by a temporary file that is memory-mapped segment by segment.
+ * Its content lives in the page cache instead of the heap, so the store can grow up to the size of the disk without
+ * adding to the garbage collector's work. Appended blocks never cross a segment border, so every block can be read
+ * from a single mapped buffer. The temporary file is deleted when the JVM exits.
+ */
+class MappedStore {
+
+    // The number of bytes per mapped segment, which is also the maximum size of a single appended block.
+    static final int SEGMENT_SIZE = 1 << 24;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    // The number of bytes that have been appended so far, including the padding at segment ends.
+    private long size = 0;
+
+    MappedStore(Path directory) {
+        try {
+            Path file = Files.createTempFile(directory, "relation", ".offheap");
+            file.toFile().deleteOnExit();
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    long size() {
+        return this.size;
+    }
+
+    /**
+     * Appends the first length bytes of the provided array, prefixed by their length.
+     * @return The position of the appended block, which is needed to read it again.
+     */
+    long appendBlock(byte[] bytes, int length) {
+        long position = this.reserve(Integer.BYTES + length);
+        MappedByteBuffer segment = this.segmentOf(position);
+        int offset = this.offsetOf(position);
+        segment.putInt(offset, length);
+        segment.duplicate().position(offset + Integer.BYTES).put(bytes, 0, length);
+        return position;
+    }
+
+    void appendInt(int value) {
+        long position = this.reserve(Integer.BYTES);
+        this.segmentOf(position).putInt(this.offsetOf(position), value);
+    }
+
+    void appendLong(long value) {
+        long position = this.reserve(Long.BYTES);
+        this.segmentOf(position).putLong(this.offsetOf(position), value);
+    }
+
+    int getInt(long position) {
+        return this.segmentOf(position).getInt(this.offsetOf(position));
+    }
+
+    long getLong(long position) {
+        return this.segmentOf(position).getLong(this.offsetOf(position));
+    }
+
+    int getBlockLength(long position) {
+        return this.getInt(position);
+    }
+
+    /**
+     * Copies the bytes of the block at the provided position into the provided array, which needs to be large enough.
+     */
+    void getBlock(long position, byte[] target) {
+        MappedByteBuffer segment = this.segmentOf(position);
+        int offset = this.offsetOf(position);
+        int length = segment.getInt(offset);
+        segment.duplicate().position(offset + Integer.BYTES).get(target, 0, length);
+    }
+
+    /**
+     * Checks whether the block at the provided position holds the first length bytes of the provided array.
+     */
+    boolean blockEquals(long position, byte[] bytes, int length) {
+        MappedByteBuffer segment = this.segmentOf(position);
+        int offset = this.offsetOf(position);
+        if (segment.getInt(offset) != length)
+            return false;
+        offset += Integer.BYTES;
+        for (int i = 0; i < length; i++)
+            if (segment.get(offset + i) != bytes[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Closes the file of this store after the last block has been appended; the mapped segments stay readable.
+     */
+    void seal() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reserves the provided number of bytes at the end of the store, skipping the rest of the current segment if the
+     * bytes would not fit into it, and returns the position of the reserved bytes.
+     */
+    private long reserve(int length) {
+        if (length > SEGMENT_SIZE)
+            throw new IllegalArgumentException("Cannot store " + length + " bytes in segments of " + SEGMENT_SIZE + " bytes");
+        long position = this.size;
+        if (this.offsetOf(position) + (long) length > SEGMENT_SIZE)
+            position = (position / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+        this.size = position + length;
+        while (this.segments.size() <= position / SEGMENT_SIZE)
+            this.mapNextSegment();
+        return position;
+    }
+
+    private void mapNextSegment() {
+        try {
+            this.segments.add(this.channel.map(FileChannel.MapMode.READ_WRITE, (long) this.segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private MappedByteBuffer segmentOf(long position) {
+        return this.segments.get((int) (position / SEGMENT_SIZE));
+    }
+
+    private int offsetOf(long position) {
+        return (int) (position % SEGMENT_SIZE);
+    }
+}
@@ -0,0 +1,73 @@
+package de.di.structures;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A MemoryFootprint is an estimate of the heap memory a relation occupies, split into its dictionary-encoded storage
+ * and its String views. The views share the String instances of the dictionaries, so their cost is only the cost of
+ * their arrays. The estimates assume a 64 bit JVM with compressed references and compact strings.
+ */
+@Getter
+@AllArgsConstructor
+public class MemoryFootprint {
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int STRING_BYTES = 24;
+
+    // The bytes of the code arrays of all columns.
+    private final long codeBytes;
+
+    // The bytes of the dictionaries of all columns including their String instances.
+    private final long dictionaryBytes;
+
+    // The bytes of the columns that are stored outside the heap.
+    private final long offHeapBytes;
+
+    // The bytes the row-wise view occupies when it is materialized.
+    private final long recordViewBytes;
+
+    // The bytes the column-wise view occupies when all of its columns are materialized.
+    private final long columnViewBytes;
+
+    // The bytes of those parts of the views that are currently materialized.
+    private final long materializedBytes;
+
+    public long getEncodedBytes() {
+        return this.codeBytes + this.dictionaryBytes;
+    }
+
+    public static long byteArrayBytes(int length) {
+        return align(ARRAY_HEADER_BYTES + (long) length);
+    }
+
+    public static long intArrayBytes(int length) {
+        return align(ARRAY_HEADER_BYTES + (long) Integer.BYTES * length);
+    }
+
+    public static long referenceArrayBytes(int length) {
+        return align(ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * length);
+    }
+
+    public static long stringBytes(String value) {
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return STRING_BYTES + align(ARRAY_HEADER_BYTES + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static String format(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    @Override
+    public String toString() {
+        return "encoded " + format(this.getEncodedBytes()) + " (codes " + format(this.codeBytes) + ", dictionaries " +
+                format(this.dictionaryBytes) + "), off-heap " + format(this.offHeapBytes) + ", record view " +
+                format(this.recordViewBytes) + ", column view " + format(this.columnViewBytes) + ", materialized " +
+                format(this.materializedBytes);
+    }
+}
@@ -0,0 +1,189 @@
+package de.di.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * An OffHeapColumn is a dictionary-encoded column whose codes and distinct values are stored in memory-mapped
+ * temporary files instead of heap arrays. Codes are stored as one int per record; the distinct values are stored as
+ * length-prefixed encoded bytes with an index of one long position per code. Values are decoded on access, so the
+ * heap only holds the Strings that callers are currently working with.
+ */
+public class OffHeapColumn implements EncodedColumn {
+
+    private final Charset charset;
+
+    // The code of every record's value as consecutive ints.
+    private final MappedStore codes;
+
+    // The encoded bytes of every distinct value as length-prefixed blocks.
+    private final MappedStore values;
+
+    // The position of every distinct value's block in values as consecutive longs.
+    private final MappedStore positions;
+
+    private final int size;
+    private final int cardinality;
+
+    private OffHeapColumn(Charset charset, MappedStore codes, MappedStore values, MappedStore positions, int size, int cardinality) {
+        this.charset = charset;
+        this.codes = codes;
+        this.values = values;
+        this.positions = positions;
+        this.size = size;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int cardinality() {
+        return this.cardinality;
+    }
+
+    @Override
+    public int getCode(int recordIndex) {
+        return this.codes.getInt((long) Integer.BYTES * recordIndex);
+    }
+
+    @Override
+    public String getValue(int code) {
+        long position = this.positions.getLong((long) Long.BYTES * code);
+        byte[] bytes = new byte[this.values.getBlockLength(position)];
+        this.values.getBlock(position, bytes);
+        return new String(bytes, this.charset);
+    }
+
+    @Override
+    public int[] getCodes() {
+        int[] codes = new int[this.size];
+        for (int recordIndex = 0; recordIndex < this.size; recordIndex++)
+            codes[recordIndex] = this.getCode(recordIndex);
+        return codes;
+    }
+
+    @Override
+    public String[] getDictionary() {
+        String[] dictionary = new String[this.cardinality];
+        for (int code = 0; code < this.cardinality; code++)
+            dictionary[code] = this.getValue(code);
+        return dictionary;
+    }
+
+    /**
+     * Returns the number of bytes this column occupies outside the heap.
+     * @return The number of off-heap bytes of this column.
+     */
+    public long getOffHeapBytes() {
+        return this.codes.size() + this.values.size() + this.positions.size();
+    }
+
+    /**
+     * A Builder incrementally encodes the values of one column into off-heap storage. Only the hash table over the
+     * distinct values, i.e., about three ints per distinct value, lives on the heap while the column is being built.
+     */
+    public static class Builder {
+
+        private final Charset charset;
+        private final MappedStore codes;
+        private final MappedStore values;
+        private final MappedStore positions;
+
+        private final IntArrayList valueHashes = new IntArrayList();
+        private int size = 0;
+
+        // An open addressing hash table that stores code + 1 for every occupied slot and 0 for every free slot.
+        private int[] table = new int[64];
+
+        /**
+         * Creates a builder for values that are given in the provided charset.
+         * @param charset The charset of the values' bytes.
+         * @param directory The directory for the temporary storage files.
+         */
+        public Builder(Charset charset, Path directory) {
+            this.charset = charset;
+            this.codes = new MappedStore(directory);
+            this.values = new MappedStore(directory);
+            this.positions = new MappedStore(directory);
+        }
+
+        /**
+         * Appends the value encoded in the first length bytes of the provided array as the value of the next record.
+         * @param bytes The encoded value; the array is not retained.
+         * @param length The number of bytes of the encoded value.
+         * @return The code that was assigned to the value.
+         */
+        public int add(byte[] bytes, int length) {
+            int hash = ValuePool.hash(bytes, length);
+            int mask = this.table.length - 1;
+            int slot = hash & mask;
+            while (this.table[slot] != 0) {
+                int code = this.table[slot] - 1;
+                if (this.valueHashes.getInt(code) == hash && this.values.blockEquals(this.positions.getLong((long) Long.BYTES * code), bytes, length)) {
+                    this.appendCode(code);
+                    return code;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int code = this.valueHashes.size();
+            this.positions.appendLong(this.values.appendBlock(bytes, length));
+            this.valueHashes.add(hash);
+            this.table[slot] = code + 1;
+            if (2 * this.valueHashes.size() > this.table.length)
+                this.rehash();
+
+            this.appendCode(code);
+            return code;
+        }
+
+        /**
+         * Appends the provided value as the value of the next record; null values are encoded as empty strings. The
+         * value is encoded in this builder's charset, which therefore needs to be able to represent it.
+         * @param value The value to append.
+         * @return The code that was assigned to the value.
+         */
+        public int add(String value) {
+            byte[] bytes = (value == null) ? new byte[0] : value.getBytes(this.charset);
+            return this.add(bytes, bytes.length);
+        }
+
+        /**
+         * Returns the number of values that have been appended so far.
+         * @return The number of values that have been appended so far.
+         */
+        public int size() {
+            return this.size;
+        }
+
+        public OffHeapColumn build() {
+            this.codes.seal();
+            this.values.seal();
+            this.positions.seal();
+            this.table = null;
+            return new OffHeapColumn(this.charset, this.codes, this.values, this.positions, this.size, this.valueHashes.size());
+        }
+
+        private void appendCode(int code) {
+            this.codes.appendInt(code);
+            this.size++;
+        }
+
+        private void rehash() {
+            int[] table = new int[2 * this.table.length];
+            int mask = table.length - 1;
+            for (int code = 0; code < this.valueHashes.size(); code++) {
+                int slot = this.valueHashes.getInt(code) & mask;
+                while (table[slot] != 0)
+                    slot = (slot + 1) & mask;
+                table[slot] = code + 1;
+            }
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package de.di.structures;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A TypedColumn is the primitive view on an EncodedColumn whose values are INTEGER, DECIMAL or DATE values. The
+ * primitive values are stored per dictionary code rather than per record, so the view costs one long or double per
+ * distinct value and shares the codes with its EncodedColumn; the empty value is the column's only null value and
+ * is identified by its code. For STRING columns, no primitive values are stored.
+ */
+@Getter
+public class TypedColumn {
+
+    private final ColumnType type;
+
+    // The encoded column this view is based on, which provides the code of every record's value.
+    @Getter(AccessLevel.NONE)
+    private final EncodedColumn column;
+
+    // The integral value of every code for INTEGER and DATE columns, otherwise null.
+    private final long[] longValues;
+
+    // The numeric value of every code for INTEGER, DECIMAL and DATE columns, otherwise null.
+    private final double[] doubleValues;
+
+    // The code of the empty value or -1 if the column has no empty values.
+    private final int nullCode;
+
+    // The smallest and largest non-null numeric value; NaN for STRING columns and columns without non-null values.
+    private final double min;
+    private final double max;
+
+    private TypedColumn(ColumnType type, EncodedColumn column, long[] longValues, double[] doubleValues, int nullCode, double min, double max) {
+        this.type = type;
+        this.column = column;
+        this.longValues = longValues;
+        this.doubleValues = doubleValues;
+        this.nullCode = nullCode;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Infers the type of the provided column from its distinct values and converts them into primitive values.
+     * @param column The column whose type should be inferred.
+     * @return The typed view on the column.
+     */
+    public static TypedColumn infer(EncodedColumn column) {
+        String[] dictionary = column.getDictionary();
+        ColumnType type = null;
+        int nullCode = -1;
+        for (int code = 0; code < dictionary.length; code++) {
+            if (dictionary[code].isEmpty())
+                nullCode = code;
+            else if (type != ColumnType.STRING)
+                type = ColumnType.merge(type, ColumnType.of(dictionary[code]));
+        }
+
+        if (type == null || type == ColumnType.STRING)
+            return new TypedColumn(ColumnType.STRING, column, null, null, nullCode, Double.NaN, Double.NaN);
+
+        long[] longValues = (type == ColumnType.DECIMAL) ? null : new long[dictionary.length];
+        double[] doubleValues = new double[dictionary.length];
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int code = 0; code < dictionary.length; code++) {
+            if (code == nullCode)
+                continue;
+            if (longValues != null) {
+                longValues[code] = type.toLong(dictionary[code]);
+                doubleValues[code] = longValues[code];
+            } else {
+                doubleValues[code] = type.toDouble(dictionary[code]);
+            }
+            min = Math.min(min, doubleValues[code]);
+            max = Math.max(max, doubleValues[code]);
+        }
+        return new TypedColumn(type, column, longValues, doubleValues, nullCode, min, max);
+    }
+
+    /**
+     * Checks whether the value of the record with the provided index is null, i.e., empty.
+     * @param recordIndex The index of the record.
+     * @return true if the record's value is null.
+     */
+    public boolean isNull(int recordIndex) {
+        return this.column.getCode(recordIndex) == this.nullCode;
+    }
+
+    /**
+     * Returns the integral value of the record with the provided index; DATE values are returned as epoch days.
+     * @param recordIndex The index of the record, whose value must not be null.
+     * @return The integral value of the record.
+     */
+    public long getLong(int recordIndex) {
+        if (this.longValues == null)
+            throw new UnsupportedOperationException("Values of type " + this.type + " have no integral representation");
+        return this.longValues[this.column.getCode(recordIndex)];
+    }
+
+    /**
+     * Returns the numeric value of the record with the provided index; DATE values are returned as epoch days.
+     * @param recordIndex The index of the record, whose value must not be null.
+     * @return The numeric value of the record.
+     */
+    public double getDouble(int recordIndex) {
+        if (this.doubleValues == null)
+            throw new UnsupportedOperationException("Values of type " + this.type + " have no numeric representation");
+        return this.doubleValues[this.column.getCode(recordIndex)];
+    }
+
+    /**
+     * Checks whether the non-null values of this column lie within the value range of the provided column, which is
+     * necessary for all values of this column to occur in the other column. Columns whose values cannot be compared
+     * numerically are assumed to be within range.
+     * @param other The column whose value range should contain the values of this column.
+     * @return false if a value of this column cannot occur in the other column.
+     */
+    public boolean isWithinRangeOf(TypedColumn other) {
+        if (!this.type.isNumeric() || !other.type.isNumeric() || Double.isNaN(this.min))
+            return true;
+        if (ColumnType.merge(this.type, other.type) == ColumnType.STRING)
+            return false;
+        return !Double.isNaN(other.min) && other.min <= this.min && this.max <= other.max;
+    }
+}
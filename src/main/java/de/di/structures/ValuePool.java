@@ -0,0 +1,245 @@
+package de.di.structures;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A ValuePool interns the values of one column, so that repeated values share one String instance and, for values
+ * given as raw bytes, are decoded at most once, on their first request. Every pooled value has a code, which is its
+ * (0-indexed) position in order of first occurrence. A pool can be bounded: as soon as it would hold more than its
+ * capacity distinct values, the column is considered high-cardinality, the pool releases its values and falls back to
+ * passing values through.
+ */
+public class ValuePool {
+
+    // The capacity of a pool that never falls back.
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final Charset charset;
+    private final int capacity;
+
+    // The encoded bytes of all pooled values, concatenated; a value's bytes start at valueOffsets[code].
+    private ByteArrayList valueBytes = new ByteArrayList();
+    private IntArrayList valueOffsets = new IntArrayList();
+    private IntArrayList valueHashes = new IntArrayList();
+
+    // The decoded values by code, which are decoded lazily on their first request and null until then.
+    private ObjectArrayList<String> values = new ObjectArrayList<>();
+
+    // Whether all values that were added as bytes consist of ASCII bytes only.
+    private boolean ascii = true;
+
+    // An open addressing hash table that stores code + 1 for every occupied slot and 0 for every free slot.
+    private int[] table = new int[64];
+
+    // The pool for values that are interned as Strings, which is created on first use.
+    private ObjectOpenHashSet<String> stringValues = null;
+
+    private boolean saturated = false;
+
+    public ValuePool(final Charset charset) {
+        this(charset, UNBOUNDED);
+    }
+
+    public ValuePool(final Charset charset, final int capacity) {
+        this.charset = charset;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds the value encoded in the first length bytes of the provided array to the pool, if it is not pooled yet.
+     * @param bytes The encoded value; the array is not retained.
+     * @param length The number of bytes of the encoded value.
+     * @return The code of the value or -1 if the pool has fallen back to passing values through.
+     */
+    public int add(byte[] bytes, int length) {
+        return this.add(bytes, 0, length);
+    }
+
+    /**
+     * Adds the value encoded in the provided slice of the provided array to the pool, if it is not pooled yet.
+     * @param bytes The array that holds the encoded value; the array is not retained.
+     * @param offset The position of the value's first byte in the array.
+     * @param length The number of bytes of the encoded value.
+     * @return The code of the value or -1 if the pool has fallen back to passing values through.
+     */
+    public int add(byte[] bytes, int offset, int length) {
+        if (this.saturated)
+            return -1;
+
+        int hash = hash(bytes, offset, length);
+        int mask = this.table.length - 1;
+        int slot = hash & mask;
+        while (this.table[slot] != 0) {
+            int code = this.table[slot] - 1;
+            if (this.valueHashes.getInt(code) == hash && this.equalsValue(code, bytes, offset, length))
+                return code;
+            slot = (slot + 1) & mask;
+        }
+
+        if (this.values.size() == this.capacity) {
+            this.saturate();
+            return -1;
+        }
+
+        int code = this.values.size();
+        this.valueOffsets.add(this.valueBytes.size());
+        this.valueBytes.addElements(this.valueBytes.size(), bytes, offset, length);
+        this.valueHashes.add(hash);
+        this.values.add(null);
+        for (int i = offset; i < offset + length && this.ascii; i++)
+            this.ascii = bytes[i] >= 0;
+        this.table[slot] = code + 1;
+        if (2 * this.values.size() > this.table.length)
+            this.rehash();
+        return code;
+    }
+
+    /**
+     * Returns the pooled instance of the value encoded in the first length bytes of the provided array.
+     * @param bytes The encoded value; the array is not retained.
+     * @param length The number of bytes of the encoded value.
+     * @return The pooled instance of the value or a fresh instance if the pool has fallen back to passing values through.
+     */
+    public String intern(byte[] bytes, int length) {
+        int code = this.add(bytes, length);
+        return (code < 0) ? new String(bytes, 0, length, this.charset) : this.get(code);
+    }
+
+    /**
+     * Returns the pooled instance of the provided value. Values interned as Strings are pooled separately from values
+     * interned as bytes, so a pool should be used with one kind of input only.
+     * @param value The value to intern.
+     * @return The pooled instance of the value or the value itself if it is new or the pool has fallen back to
+     *         passing values through.
+     */
+    public String intern(String value) {
+        if (this.saturated || value == null)
+            return value;
+        if (this.stringValues == null)
+            this.stringValues = new ObjectOpenHashSet<>();
+        String pooled = this.stringValues.addOrGet(value);
+        if (this.stringValues.size() > this.capacity)
+            this.saturate();
+        return pooled;
+    }
+
+    /**
+     * Returns the pooled value with the provided code.
+     * @param code The code of the requested value.
+     * @return The value with the provided code.
+     */
+    public String get(int code) {
+        String value = this.values.get(code);
+        if (value == null) {
+            int from = this.valueOffsets.getInt(code);
+            value = new String(this.valueBytes.elements(), from, this.endOf(code) - from, this.charset);
+            this.values.set(code, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of pooled values.
+     * @return The number of pooled values.
+     */
+    public int size() {
+        return (this.stringValues == null) ? this.values.size() : this.stringValues.size();
+    }
+
+    /**
+     * Checks whether this pool has exceeded its capacity and fallen back to passing values through.
+     * @return true if the pool has fallen back.
+     */
+    public boolean isSaturated() {
+        return this.saturated;
+    }
+
+    /**
+     * Returns the values that were interned as bytes in the order of their codes.
+     * @return The values that were interned as bytes.
+     */
+    public String[] toArray() {
+        String[] values = new String[this.values.size()];
+        for (int code = 0; code < values.length; code++)
+            values[code] = this.get(code);
+        return values;
+    }
+
+    /**
+     * Checks whether all values that were added as bytes consist of ASCII bytes only, which means that every byte
+     * encodes one character in all ASCII-compatible charsets.
+     * @return true if all pooled bytes are ASCII bytes.
+     */
+    public boolean isAscii() {
+        return this.ascii;
+    }
+
+    /**
+     * Returns the encoded bytes of all values that were added as bytes, concatenated in the order of their codes.
+     */
+    byte[] toByteArray() {
+        return this.valueBytes.toByteArray();
+    }
+
+    /**
+     * Returns the start of every value in toByteArray() followed by the end of the last value, i.e., the value with a
+     * certain code spans the bytes from offsets[code] to offsets[code + 1].
+     */
+    int[] toOffsetArray() {
+        int[] offsets = new int[this.valueOffsets.size() + 1];
+        this.valueOffsets.getElements(0, offsets, 0, this.valueOffsets.size());
+        offsets[offsets.length - 1] = this.valueBytes.size();
+        return offsets;
+    }
+
+    private void saturate() {
+        this.saturated = true;
+        this.valueBytes = null;
+        this.valueOffsets = null;
+        this.valueHashes = null;
+        this.values = null;
+        this.table = null;
+        this.stringValues = null;
+    }
+
+    private boolean equalsValue(int code, byte[] bytes, int offset, int length) {
+        return Arrays.equals(this.valueBytes.elements(), this.valueOffsets.getInt(code), this.endOf(code), bytes, offset, offset + length);
+    }
+
+    private int endOf(int code) {
+        return (code + 1 < this.valueOffsets.size()) ? this.valueOffsets.getInt(code + 1) : this.valueBytes.size();
+    }
+
+    private void rehash() {
+        int[] table = new int[2 * this.table.length];
+        int mask = table.length - 1;
+        for (int code = 0; code < this.values.size(); code++) {
+            int slot = this.valueHashes.getInt(code) & mask;
+            while (table[slot] != 0)
+                slot = (slot + 1) & mask;
+            table[slot] = code + 1;
+        }
+        this.table = table;
+    }
+
+    static int hash(byte[] bytes, int length) {
+        return hash(bytes, 0, length);
+    }
+
+    static int hash(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++)
+            hash = 31 * hash + bytes[i];
+        // Spread the bits, because the table index only uses the lower bits of the hash
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+}
@@ -0,0 +1,77 @@
+package de.di;
+
+import de.di.structures.MemoryFootprint;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RelationTest {
+
+    private static Relation createRelation() {
+        return new Relation("test", new String[]{"a", "b"}, new String[][]{
+                {"x", "1"},
+                {"y", "1"},
+                {"x", "2"}
+        });
+    }
+
+    @Test
+    public void testColumnViewIsMemoized() {
+        Relation relation = createRelation();
+
+        String[] column = relation.getColumn(0);
+        assertArrayEquals(new String[]{"x", "y", "x"}, column);
+        assertSame(column, relation.getColumn(0));
+        assertSame(column, relation.getColumns()[0]);
+        assertSame(relation.getColumns()[1], relation.getColumns()[1]);
+        assertArrayEquals(new String[]{"1", "1", "2"}, relation.getColumns()[1]);
+
+        // The view shares the dictionary's instances
+        assertSame(column[0], column[2]);
+    }
+
+    @Test
+    public void testMemoryFootprint() {
+        Relation relation = createRelation();
+
+        MemoryFootprint footprint = relation.getMemoryFootprint();
+        assertEquals(2 * MemoryFootprint.intArrayBytes(3), footprint.getCodeBytes());
+        assertTrue(footprint.getDictionaryBytes() > 4 * MemoryFootprint.stringBytes("x"));
+        assertEquals(0, footprint.getMaterializedBytes());
+
+        relation.getColumn(1);
+        assertEquals(MemoryFootprint.referenceArrayBytes(3), relation.getMemoryFootprint().getMaterializedBytes());
+        relation.getRecords();
+        assertEquals(MemoryFootprint.referenceArrayBytes(3) + footprint.getRecordViewBytes(), relation.getMemoryFootprint().getMaterializedBytes());
+    }
+
+    @Test
+    public void testAppendRecords() {
+        Relation relation = createRelation();
+        int[] oldCodes = relation.getCodes(0).clone();
+        String[] oldColumn = relation.getColumn(0);
+        List<int[]> notifications = new ArrayList<>();
+        relation.addListener((grown, fromIndex, toIndex) -> notifications.add(new int[]{fromIndex, toIndex}));
+
+        assertEquals(3, relation.appendRecords(new String[][]{{"z", "3"}, {"x"}}));
+
+        assertEquals(5, relation.getNumRecords());
+        assertEquals(1, notifications.size());
+        assertArrayEquals(new int[]{3, 5}, notifications.get(0));
+
+        // Existing records keep their indexes and codes; new values receive the next codes
+        assertArrayEquals(oldCodes, Arrays.copyOf(relation.getCodes(0), 3));
+        assertArrayEquals(new String[]{"x", "y", "z"}, relation.getDictionary(0));
+        assertArrayEquals(new String[]{"x", "2"}, relation.getRecords()[2]);
+        assertArrayEquals(new String[]{"x", ""}, relation.getRecords()[4]);
+
+        // The materialized views are rebuilt with the appended records
+        assertNotSame(oldColumn, relation.getColumn(0));
+        assertArrayEquals(new String[]{"1", "1", "2", "3", ""}, relation.getColumn(1));
+        assertEquals(3, relation.getTypedColumn(1).getMax(), 0);
+    }
+}
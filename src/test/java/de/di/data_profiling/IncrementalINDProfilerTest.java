@@ -0,0 +1,48 @@
+package de.di.data_profiling;
+
+import de.di.Relation;
+import de.di.data_profiling.structures.AttributeList;
+import de.di.data_profiling.structures.IND;
+import de.di.data_profiling.structures.IncrementalPositionListIndex;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class IncrementalINDProfilerTest {
+
+    @Test
+    public void testAppendsEqualBatchProfiling() {
+        List<Relation> relations = new ArrayList<>();
+        for (String name : new String[]{"tpch_nation", "tpch_region", "tpch_supplier"})
+            relations.add(new Relation("data" + File.separator + "data_profiling" + File.separator + name + ".csv"));
+        Relation supplier = relations.get(2);
+        String[][] records = supplier.getRecords();
+
+        // The supplier relation arrives in three deltas, the first one being a small prefix
+        List<Relation> growing = new ArrayList<>(relations.subList(0, 2));
+        Relation growingSupplier = new Relation(supplier.getName(), supplier.getAttributes(), Arrays.copyOfRange(records, 0, 10));
+        growing.add(growingSupplier);
+        IncrementalINDProfiler profiler = new IncrementalINDProfiler(growing);
+        IncrementalPositionListIndex nationKeys = new IncrementalPositionListIndex(growingSupplier, new AttributeList(3));
+        assertEquals(toStrings(new INDProfiler().profile(growing, false)), toStrings(profiler.getINDs()));
+
+        growingSupplier.appendRecords(Arrays.copyOfRange(records, 10, 5000));
+        growingSupplier.appendRecords(Arrays.copyOfRange(records, 5000, records.length));
+
+        assertEquals(toStrings(new INDProfiler().profile(relations, false)), toStrings(profiler.getINDs()));
+        assertFalse(nationKeys.isUnique());
+        assertEquals(supplier.getNumRecords(), nationKeys.getPositionListIndex().relationLength());
+        assertEquals(25, nationKeys.getPositionListIndex().getClusters().size());
+    }
+
+    private static Set<String> toStrings(List<IND> inds) {
+        return inds.stream().map(IND::toString).collect(Collectors.toSet());
+    }
+}
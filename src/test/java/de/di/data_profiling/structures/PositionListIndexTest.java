@@ -1,8 +1,10 @@
 package de.di.data_profiling.structures;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class PositionListIndexTest {
 
@@ -22,4 +24,17 @@ public class PositionListIndexTest {
         assertEquals(pli4.getClusters(), pli1.intersect(pli2).intersect(pli5).getClusters());
         assertEquals(pli7.getClusters(), pli1.intersect(pli6).intersect(pli3).getClusters());
     }
+
+    @Test
+    public void testCodeClustersCorrectness() {
+        PositionListIndex pli1 = new PositionListIndex(new AttributeList(new int[]{0}), new int[]{0, 0, 0, 1, 1, 0}, 2);
+        PositionListIndex pli2 = new PositionListIndex(new AttributeList(new int[]{1}), new int[]{0, 1, 2, 3, 4, 5}, 6);
+        PositionListIndex pli3 = new PositionListIndex(new AttributeList(new int[]{2}), new int[]{0, 0, 1, 1, 1, 1}, 2);
+
+        assertEquals(2, pli1.getClusters().size());
+        assertEquals(new IntArrayList(new int[]{0, 1, 2, 5}), pli1.getClusters().get(0));
+        assertEquals(new IntArrayList(new int[]{3, 4}), pli1.getClusters().get(1));
+        assertTrue(pli2.isUnique());
+        assertEquals(3, pli1.intersect(pli3).getClusters().size());
+    }
 }
@@ -0,0 +1,48 @@
+package de.di.duplicate_detection;
+
+import de.di.Relation;
+import de.di.duplicate_detection.structures.AttrSimWeight;
+import de.di.duplicate_detection.structures.Duplicate;
+import de.di.similarity_measures.Jaccard;
+import de.di.similarity_measures.Levenshtein;
+import de.di.similarity_measures.helper.Tokenizer;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class IncrementalSortedNeighborhoodTest {
+
+    @Test
+    public void testAppendsFindAllDuplicatesOfACompleteRun() {
+        Relation supplier = new Relation("data" + File.separator + "data_profiling" + File.separator + "tpch_supplier.csv");
+        RecordComparator recordComparator = new RecordComparator(List.of(
+                new AttrSimWeight(2, new Levenshtein(false), 0.5),
+                new AttrSimWeight(6, new Jaccard(new Tokenizer(2, false), false), 0.5)), 0.35);
+        int[] sortingKeys = {3, 5, 6};
+        String[][] records = supplier.getRecords();
+
+        Set<Duplicate> complete = new SortedNeighborhood().detectDuplicates(supplier, sortingKeys, 4, recordComparator);
+        assertFalse(complete.isEmpty());
+
+        // Without appends, the orders and windows are exactly the ones of a complete run
+        Relation initial = new Relation(supplier.getName(), supplier.getAttributes(), records);
+        assertEquals(toPairs(complete), toPairs(new IncrementalSortedNeighborhood(initial, sortingKeys, 4, recordComparator).getDuplicates()));
+
+        // Appends keep all pairs of a complete run on the concatenated records
+        Relation growing = new Relation(supplier.getName(), supplier.getAttributes(), Arrays.copyOfRange(records, 0, 6000));
+        IncrementalSortedNeighborhood incremental = new IncrementalSortedNeighborhood(growing, sortingKeys, 4, recordComparator);
+        growing.appendRecords(Arrays.copyOfRange(records, 6000, 8000));
+        growing.appendRecords(Arrays.copyOfRange(records, 8000, records.length));
+        assertTrue(toPairs(incremental.getDuplicates()).containsAll(toPairs(complete)));
+    }
+
+    private static Set<String> toPairs(Set<Duplicate> duplicates) {
+        return duplicates.stream().map(duplicate -> duplicate.getIndex1() + "," + duplicate.getIndex2()).collect(Collectors.toSet());
+    }
+}
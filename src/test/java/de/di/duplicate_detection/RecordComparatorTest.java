@@ -1,11 +1,13 @@
 package de.di.duplicate_detection;
 
+import de.di.Relation;
 import de.di.duplicate_detection.structures.AttrSimWeight;
 import de.di.similarity_measures.Jaccard;
 import de.di.similarity_measures.Levenshtein;
 import de.di.similarity_measures.helper.Tokenizer;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -85,4 +87,22 @@ public class RecordComparatorTest {
         double similarity = recordComparator.compare(this.tuple1, this.tuple2);
         assertEquals(0.6485968992248062, similarity, 0.0000000001);
     }
+
+    @Test
+    public void testCompareWithThresholdKeepsDuplicates() {
+        Relation relation = new Relation("data" + File.separator + "data_profiling" + File.separator + "tpch_supplier.csv");
+        RecordComparator recordComparator = new RecordComparator(List.of(
+                new AttrSimWeight(1, new Levenshtein(false), 0.5),
+                new AttrSimWeight(2, new Levenshtein(true), 0.5)), 0.6);
+
+        for (int recordIndex1 = 0; recordIndex1 < 200; recordIndex1++) {
+            for (int recordIndex2 = recordIndex1 + 1; recordIndex2 < 200; recordIndex2++) {
+                double similarity = recordComparator.compare(relation, recordIndex1, recordIndex2);
+                double boundedSimilarity = recordComparator.compareWithThreshold(relation, recordIndex1, recordIndex2);
+                assertEquals(recordComparator.isDuplicate(similarity), recordComparator.isDuplicate(boundedSimilarity));
+                if (recordComparator.isDuplicate(similarity))
+                    assertEquals(similarity, boundedSimilarity, 0.000001);
+            }
+        }
+    }
 }
@@ -13,10 +13,14 @@ import org.junit.Test;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class SortedNeighborhoodTest {
 
@@ -46,6 +50,35 @@ public class SortedNeighborhoodTest {
         assertEquals(40, duplicatesDetected.size());
     }
 
+    @Test
+    public void testRankSortEqualsStringSort_tpch_supplier() {
+        Relation supplier = new Relation("data" + File.separator + "data_profiling" + File.separator + "tpch_supplier.csv");
+        RecordComparator recordComparator = new RecordComparator(List.of(
+                new AttrSimWeight(2, new Levenshtein(false), 0.5),
+                new AttrSimWeight(6, new Jaccard(new Tokenizer(2, false), false), 0.5)), 0.35);
+        int[] sortingKeys = {3, 5, 6};
+
+        // The reference sorts the records by their String keys, one run after the other
+        Set<Duplicate> expected = new HashSet<>();
+        Integer[] order = new Integer[supplier.getNumRecords()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        for (int key : sortingKeys) {
+            Arrays.sort(order, Comparator.comparing(index -> supplier.getRecords()[index][key]));
+            for (int i = 0; i < order.length; i++) {
+                for (int j = i + 1; j < Math.min(i + 4, order.length); j++) {
+                    double similarity = recordComparator.compare(supplier.getRecords()[order[i]], supplier.getRecords()[order[j]]);
+                    if (recordComparator.isDuplicate(similarity))
+                        expected.add(new Duplicate(Math.min(order[i], order[j]), Math.max(order[i], order[j]), similarity, supplier));
+                }
+            }
+        }
+
+        assertFalse(expected.isEmpty());
+        Set<Duplicate> detected = new SortedNeighborhood().detectDuplicates(supplier, sortingKeys, 4, recordComparator);
+        assertEquals(expected, detected);
+    }
+
     private List<Duplicate> parseCDGoldstandard(Relation cdGold, Relation cd) {
         List<Duplicate> duplicatesGold = new ArrayList<>(cdGold.getRecords().length);
         for (String[] record : cdGold.getRecords()) {
@@ -0,0 +1,90 @@
+package de.di.helper;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.enums.CSVReaderNullFieldIndicator;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvScannerTest {
+
+    private static final String INPUT = "a;b;c\r\n" +
+            "1;\"quoted;value\";3\n" +
+            "abc\"d\"ef;\"escaped \\\" quote\";\"\"\"doubled\"\"\"\r" +
+            "back\\slash;\"multi\r\nline\";\n" +
+            "\n" +
+            "ääää\"x\"y;é\"z\";last";
+
+    @Test
+    public void testEqualsOpenCsv() throws Exception {
+        List<String[]> expected = parseWithOpenCsv(INPUT);
+        byte[] bytes = INPUT.getBytes(StandardCharsets.UTF_8);
+
+        // Feed the input in slices of every size to also cover lines and line breaks crossing slice borders
+        for (int sliceSize = 1; sliceSize <= bytes.length; sliceSize++) {
+            List<String[]> records = new ArrayList<>();
+            CsvScanner scanner = new CsvScanner(';', StandardCharsets.UTF_8, collectorFor(records));
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            for (int from = 0; from < bytes.length; from += sliceSize)
+                scanner.scan(buffer, from, Math.min(from + sliceSize, bytes.length));
+            scanner.finish();
+
+            assertEquals(expected.size(), records.size());
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(List.of(expected.get(i)), List.of(records.get(i)));
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnterminatedQuote() {
+        CsvScanner scanner = new CsvScanner(',', StandardCharsets.UTF_8, collectorFor(new ArrayList<>()));
+        byte[] bytes = "a,\"b\nc".getBytes(StandardCharsets.UTF_8);
+        scanner.scan(ByteBuffer.wrap(bytes), 0, bytes.length);
+        scanner.finish();
+    }
+
+    private static CsvScanner.RecordHandler collectorFor(List<String[]> records) {
+        return new CsvScanner.RecordHandler() {
+            private final List<String> fields = new ArrayList<>();
+
+            @Override
+            public void field(int fieldIndex, byte[] bytes, int length) {
+                this.fields.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void endRecord(int numFields) {
+                records.add(this.fields.toArray(new String[0]));
+                this.fields.clear();
+            }
+        };
+    }
+
+    private static List<String[]> parseWithOpenCsv(String input) throws Exception {
+        CSVReader reader = new CSVReaderBuilder(new StringReader(input)).withCSVParser(new CSVParserBuilder()
+                .withSeparator(';')
+                .withQuoteChar('"')
+                .withEscapeChar('\\')
+                .withStrictQuotes(false)
+                .withIgnoreLeadingWhiteSpace(false)
+                .withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
+                .build()).build();
+        List<String[]> records = new ArrayList<>();
+        String[] line;
+        while ((line = reader.readNext()) != null) {
+            for (int i = 0; i < line.length; i++)
+                if (line[i] == null)
+                    line[i] = "";
+            records.add(line);
+        }
+        return records;
+    }
+}
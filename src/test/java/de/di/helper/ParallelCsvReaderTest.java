@@ -0,0 +1,75 @@
+package de.di.helper;
+
+import de.di.Relation;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelCsvReaderTest {
+
+    @Test
+    public void testChunkedEqualsSequential_tpch_supplier() throws Exception {
+        Path path = Path.of("data" + File.separator + "data_profiling" + File.separator + "tpch_supplier.csv");
+        RelationReader relationReader = new RelationReader(true, ';', StandardCharsets.UTF_8, 4);
+
+        Relation sequential = relationReader.readMapped(path, new ParallelCsvReader(';', StandardCharsets.UTF_8, 1));
+        Relation chunked = relationReader.readMapped(path, new ParallelCsvReader(';', StandardCharsets.UTF_8, 4, 4096));
+
+        assertArrayEquals(sequential.getAttributes(), chunked.getAttributes());
+        assertArrayEquals(sequential.getRecords(), chunked.getRecords());
+        for (int attribute = 0; attribute < sequential.getAttributes().length; attribute++)
+            assertArrayEquals(sequential.getCodes(attribute), chunked.getCodes(attribute));
+    }
+
+    @Test
+    public void testChunkedRespectsQuotes() throws Exception {
+        // Every record contains quoted line breaks, escaped quotes and doubled quotes that a naive split would cut
+        StringBuilder content = new StringBuilder("id,text\r\n");
+        for (int i = 0; i < 500; i++)
+            content.append(i).append(",\"line\n").append(i).append(" \\\" \"\"\n,still quoted\"\r\n");
+        Path path = Files.createTempFile("parallel", ".csv");
+        try {
+            Files.writeString(path, content.toString());
+            RelationReader relationReader = new RelationReader(true, ',', StandardCharsets.UTF_8, 4);
+
+            Relation sequential = relationReader.readMapped(path, new ParallelCsvReader(',', StandardCharsets.UTF_8, 1));
+            Relation chunked = relationReader.readMapped(path, new ParallelCsvReader(',', StandardCharsets.UTF_8, 4, 100));
+
+            assertEquals(500, chunked.getNumRecords());
+            assertEquals("line\n42 \" \"\n,still quoted", chunked.getRecords()[42][1]);
+            assertArrayEquals(sequential.getRecords(), chunked.getRecords());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testChunkFailuresPropagateUnwrapped() throws Exception {
+        StringBuilder content = new StringBuilder("id,text\n");
+        for (int i = 0; i < 500; i++)
+            content.append(i).append(",value ").append(i).append('\n');
+        content.append("500,\"unterminated");
+        Path path = Files.createTempFile("parallel", ".csv");
+        try {
+            Files.writeString(path, content.toString());
+            RelationReader relationReader = new RelationReader(true, ',', StandardCharsets.UTF_8, 4);
+            try {
+                relationReader.readMapped(path, new ParallelCsvReader(',', StandardCharsets.UTF_8, 4, 100));
+                fail("An unterminated quoted field must fail the read");
+            } catch (RuntimeException e) {
+                assertEquals(RuntimeException.class, e.getClass());
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Unterminated quoted field"));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package de.di.helper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PipelinedGzipInputStreamTest {
+
+    @Test(timeout = 10000)
+    public void testUncheckedFailureEndsStream() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("corrupt");
+            }
+        };
+        InputStream input = new SequenceInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3}), failing);
+
+        try (PipelinedGzipInputStream stream = new PipelinedGzipInputStream(input, "test", 2)) {
+            assertEquals(1, stream.read());
+            assertEquals(2, stream.read());
+            stream.readAllBytes();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.di.helper;
+
+import de.di.Relation;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class RelationCacheTest {
+
+    @Test
+    public void testStoreAndLoadRoundTrip() throws IOException {
+        Path directory = Files.createTempDirectory("relation-cache");
+        Path filePath = Path.of("data", "data_profiling", "tpch_supplier.csv");
+        RelationCache cache = new RelationCache(directory);
+
+        assertNull(cache.load(filePath, true, ';', StandardCharsets.UTF_8));
+
+        Relation parsed = new RelationReader(true, ';', StandardCharsets.UTF_8, 2, cache).read(filePath);
+        assertTrue(Files.isRegularFile(cache.cacheFileOf(filePath)));
+
+        Relation cached = cache.load(filePath, true, ';', StandardCharsets.UTF_8);
+        assertNotNull(cached);
+        assertEquals(parsed.getName(), cached.getName());
+        assertArrayEquals(parsed.getAttributes(), cached.getAttributes());
+        assertEquals(parsed.getNumRecords(), cached.getNumRecords());
+        for (int i = 0; i < parsed.getAttributes().length; i++) {
+            assertArrayEquals(parsed.getDictionary(i), cached.getDictionary(i));
+            assertArrayEquals(parsed.getCodes(i), cached.getCodes(i));
+        }
+
+        // Different parsing options must not reuse the cached relation
+        assertNull(cache.load(filePath, false, ';', StandardCharsets.UTF_8));
+        assertNull(cache.load(filePath, true, ',', StandardCharsets.UTF_8));
+        assertNull(cache.load(filePath, true, ';', StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testFailedStoreKeepsRelation() throws IOException {
+        Path directory = Files.createTempDirectory("relation-cache");
+        Path filePath = directory.resolve("small.csv");
+        Files.writeString(filePath, "a;b\n1;2\n");
+        RelationCache cache = new RelationCache(null);
+
+        // A non-empty directory in place of the cache file makes the final move fail
+        Files.createDirectories(cache.cacheFileOf(filePath).resolve("blocker"));
+        assertEquals(1, new RelationReader(true, ';', StandardCharsets.UTF_8, 1, cache).read(filePath).getNumRecords());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testCorruptCacheIsIgnored() throws IOException {
+        Path directory = Files.createTempDirectory("relation-cache");
+        Path filePath = directory.resolve("small.csv");
+        Files.writeString(filePath, "a;b\n1;2\n");
+        RelationCache cache = new RelationCache(null);
+        RelationReader reader = new RelationReader(true, ';', StandardCharsets.UTF_8, 1, cache);
+        reader.read(filePath);
+
+        // The number of attributes follows the 32 header bytes; negative and oversized lengths invalidate the cache
+        for (int numAttributes : new int[]{-1, Integer.MAX_VALUE}) {
+            byte[] bytes = Files.readAllBytes(cache.cacheFileOf(filePath));
+            ByteBuffer.wrap(bytes).putInt(32, numAttributes);
+            Files.write(cache.cacheFileOf(filePath), bytes);
+            assertNull(cache.load(filePath, true, ';', StandardCharsets.UTF_8));
+            assertEquals(1, reader.read(filePath).getNumRecords());
+        }
+    }
+
+    @Test
+    public void testModifiedFileInvalidatesCache() throws IOException {
+        Path directory = Files.createTempDirectory("relation-cache");
+        Path filePath = directory.resolve("small.csv");
+        Files.writeString(filePath, "a;b\n1;2\n");
+        RelationCache cache = new RelationCache(null);
+        RelationReader reader = new RelationReader(true, ';', StandardCharsets.UTF_8, 1, cache);
+
+        assertEquals(1, reader.read(filePath).getNumRecords());
+        assertEquals(directory.resolve("small.csv" + RelationCache.EXTENSION), cache.cacheFileOf(filePath));
+        assertNotNull(cache.load(filePath, true, ';', StandardCharsets.UTF_8));
+
+        Files.writeString(filePath, "a;b\n1;2\n3;4\n");
+        assertNull(cache.load(filePath, true, ';', StandardCharsets.UTF_8));
+        assertEquals(2, reader.read(filePath).getNumRecords());
+
+        // Cache files next to their CSV files are skipped when reading whole folders
+        assertEquals(1, reader.readAll(directory.toString(), 1).size());
+    }
+}
@@ -0,0 +1,97 @@
+package de.di.helper;
+
+import de.di.Relation;
+import de.di.data_profiling.INDProfiler;
+import de.di.data_profiling.structures.IND;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RelationCursorTest {
+
+    private static final String FOLDER = "data" + File.separator + "data_profiling";
+
+    @Test
+    public void testCursorEqualsRelation_tpch_supplier() throws Exception {
+        Path path = Path.of(FOLDER, "tpch_supplier.csv");
+        Relation relation = new Relation(path, true, ';', StandardCharsets.UTF_8);
+
+        // A small window forces records to cross window borders
+        try (RelationCursor cursor = new CsvRelationCursor(path, true, ';', StandardCharsets.UTF_8, 4096, 0, null)) {
+            assertCursorEquals(relation, cursor);
+        }
+        assertCursorEquals(relation, relation.cursor());
+    }
+
+    @Test
+    public void testCursorWithOpenCsvAndWithoutHeader() {
+        Path path = Path.of(FOLDER, "tpch_nation.csv");
+        Relation relation = new Relation(path, false, ';', StandardCharsets.UTF_8);
+        assertCursorEquals(relation, new RelationReader(false, ';', StandardCharsets.UTF_8).cursor(path));
+
+        // Charsets that cannot be scanned at byte level are streamed with opencsv
+        Charset windows1252 = Charset.forName("windows-1252");
+        assertFalse(CsvScanner.supports(windows1252));
+        assertCursorEquals(relation, new RelationReader(false, ';', windows1252).cursor(path));
+    }
+
+    @Test
+    public void testCursorInternsRepeatedValues() {
+        Path path = Path.of(FOLDER, "tpch_supplier.csv");
+        RelationReader reader = new RelationReader(true, ';', StandardCharsets.UTF_8);
+        int nationKey = 3;
+
+        // Records with equal nation keys share the key instance, but interning can be disabled
+        try (RelationCursor cursor = reader.cursor(path)) {
+            Map<String, String> instances = new HashMap<>();
+            while (cursor.hasNext()) {
+                String value = cursor.next()[nationKey];
+                assertSame(instances.computeIfAbsent(value, v -> value), value);
+            }
+        }
+        try (RelationCursor cursor = reader.cursor(path, 0)) {
+            String first = cursor.next()[nationKey];
+            String value;
+            do {
+                value = cursor.next()[nationKey];
+            } while (!value.equals(first));
+            assertNotSame(first, value);
+        }
+    }
+
+    @Test
+    public void testStreamingINDsEqualInMemoryINDs() {
+        String[] files = {"abcde.csv", "abcdefghi.csv", "tpch_nation.csv", "tpch_region.csv", "tpch_supplier.csv"};
+        RelationReader reader = new RelationReader(true, ';', StandardCharsets.UTF_8);
+        List<Relation> relations = new ArrayList<>();
+        List<RelationCursor> cursors = new ArrayList<>();
+        for (String file : files) {
+            relations.add(reader.read(Path.of(FOLDER, file)));
+            cursors.add(reader.cursor(Path.of(FOLDER, file)));
+        }
+
+        List<IND> inMemory = new INDProfiler().profile(relations, false);
+        List<IND> streamed = new INDProfiler().profile(cursors);
+        assertEquals(211, streamed.size());
+        for (int i = 0; i < inMemory.size(); i++)
+            assertEquals(inMemory.get(i).toString(), streamed.get(i).toString());
+    }
+
+    private static void assertCursorEquals(Relation relation, RelationCursor cursor) {
+        assertEquals(relation.getName(), cursor.getName());
+        assertArrayEquals(relation.getAttributes(), cursor.getAttributes());
+        int recordIndex = 0;
+        while (cursor.hasNext())
+            assertArrayEquals(relation.getRecords()[recordIndex++], cursor.next());
+        assertEquals(relation.getNumRecords(), recordIndex);
+    }
+}
@@ -0,0 +1,75 @@
+package de.di.helper;
+
+import de.di.Relation;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RelationReaderTest {
+
+    @Test
+    public void testReadAllOrderAndLoadTimes() {
+        RelationReader reader = new RelationReader(true, ';', StandardCharsets.UTF_8);
+        List<Relation> relations = reader.readAll("data" + File.separator + "data_profiling", 3);
+
+        List<String> names = relations.stream().map(Relation::getName).collect(Collectors.toList());
+        assertEquals(List.of("abcde", "abcdefghi", "tpch_nation", "tpch_region", "tpch_supplier"), names);
+        assertEquals(10000, relations.get(4).getNumRecords());
+
+        assertEquals(5, reader.getLoadTimes().size());
+        List<String> timedFiles = reader.getLoadTimes().keySet().stream()
+                .map(path -> RelationReader.relationNameOf(path))
+                .collect(Collectors.toList());
+        assertEquals(names, timedFiles);
+    }
+
+    @Test
+    public void testReadMultiMemberGzip() throws IOException {
+        Path filePath = Path.of("data", "data_profiling", "tpch_supplier.csv");
+        byte[] content = Files.readAllBytes(filePath);
+
+        // Compress both halves of the file as separate gzip members of the same file
+        Path compressed = Files.createTempDirectory("gzip").resolve("tpch_supplier.csv.gz");
+        try (OutputStream output = Files.newOutputStream(compressed)) {
+            for (int[] range : new int[][]{{0, content.length / 2}, {content.length / 2, content.length}}) {
+                GZIPOutputStream member = new GZIPOutputStream(output);
+                member.write(content, range[0], range[1] - range[0]);
+                member.finish();
+            }
+        }
+
+        RelationReader reader = new RelationReader(true, ';', StandardCharsets.UTF_8);
+        Relation expected = reader.read(filePath);
+        Relation relation = reader.read(compressed);
+        assertEquals("tpch_supplier", relation.getName());
+        assertArrayEquals(expected.getAttributes(), relation.getAttributes());
+        assertArrayEquals(expected.getRecords(), relation.getRecords());
+
+        List<String[]> streamed = new ArrayList<>();
+        try (RelationCursor cursor = reader.cursor(compressed)) {
+            cursor.forEachRemaining(streamed::add);
+        }
+        assertArrayEquals(expected.getRecords(), streamed.toArray(new String[0][]));
+
+        // Charsets that the byte-level scanner does not support are decompressed for opencsv
+        Path utf16 = compressed.resolveSibling("small.csv.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(utf16))) {
+            output.write("a;b\n1;\u00e4\n".getBytes(StandardCharsets.UTF_16));
+        }
+        Relation small = new RelationReader(true, ';', StandardCharsets.UTF_16).read(utf16);
+        assertArrayEquals(new String[]{"a", "b"}, small.getAttributes());
+        assertArrayEquals(new String[][]{{"1", "\u00e4"}}, small.getRecords());
+    }
+}
@@ -0,0 +1,73 @@
+package de.di.helper;
+
+import de.di.Relation;
+import de.di.data_profiling.UCCProfiler;
+import de.di.data_profiling.structures.UCC;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SamplingTest {
+
+    private static final Path SUPPLIER = Path.of("data", "data_profiling", "tpch_supplier.csv");
+
+    @Test
+    public void testHeadSampling() {
+        Relation full = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8);
+        Relation head = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8, Sampling.head(25));
+
+        assertArrayEquals(full.getAttributes(), head.getAttributes());
+        assertEquals(25, head.getNumRecords());
+        for (int i = 0; i < head.getNumRecords(); i++)
+            assertArrayEquals(full.getRecords()[i], head.getRecords()[i]);
+    }
+
+    @Test
+    public void testReservoirSampling() {
+        Relation full = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8);
+        Relation sample = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8, Sampling.reservoir(500, 7));
+        Relation sameSeed = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8, Sampling.reservoir(500, 7));
+        Relation otherSeed = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8, Sampling.reservoir(500, 8));
+
+        assertEquals(500, sample.getNumRecords());
+        assertArrayEquals(sample.getRecords(), sameSeed.getRecords());
+        assertFalse(Arrays.deepEquals(sample.getRecords(), otherSeed.getRecords()));
+
+        // The sampled records are distinct records of the file in file order
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < full.getNumRecords(); i++)
+            positions.put(Arrays.toString(full.getRecords()[i]), i);
+        int previousPosition = -1;
+        for (String[] record : sample.getRecords()) {
+            Integer position = positions.get(Arrays.toString(record));
+            assertNotNull(position);
+            assertTrue(position > previousPosition);
+            previousPosition = position;
+        }
+
+        // A sample that is larger than the file holds all records
+        assertEquals(full.getNumRecords(), new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8, Sampling.reservoir(20000, 7)).getNumRecords());
+    }
+
+    @Test
+    public void testVerifiedSampleUccsAreUccs() {
+        Relation full = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8);
+        Relation sample = new Relation(SUPPLIER, true, ';', StandardCharsets.UTF_8, Sampling.reservoir(200, 1));
+        UCCProfiler profiler = new UCCProfiler();
+
+        List<UCC> candidates = profiler.profile(sample);
+        List<UCC> verified = profiler.verify(candidates, full);
+
+        assertFalse(verified.isEmpty());
+        assertTrue(verified.size() <= candidates.size());
+        assertTrue(new HashSet<>(profiler.profile(full)).containsAll(verified));
+    }
+}
@@ -1,9 +1,16 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.TokenDictionary;
 import de.di.similarity_measures.helper.Tokenizer;
+import de.di.structures.DictionaryColumn;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
+import java.util.*;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertColumnCodesEqualStrings;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.overlappingValuesColumn;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.randomString;
+import static org.junit.Assert.*;
 
 public class JaccardTest {
 
@@ -76,4 +83,63 @@ public class JaccardTest {
         result = jaccard.calculate(new String[]{"a", "", "a", "b", "c", "", "d"}, new String[]{"a", "b", "", "b", "c", "f", ""});
         assertEquals((double) 4 / 6, result, 0.000001);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMergeEqualsHashing() {
+        Random random = new Random(42);
+        String alphabet = "abcab ";
+        for (int i = 0; i < 500; i++) {
+            String string1 = randomString(random, alphabet, random.nextInt(30));
+            String string2 = randomString(random, alphabet, random.nextInt(30));
+            for (int tokenSize = 1; tokenSize <= 6; tokenSize++) {
+                Tokenizer tokenizer = new Tokenizer(tokenSize, tokenSize % 2 == 0);
+                String[] tokens1 = tokenizer.tokenize(string1);
+                String[] tokens2 = tokenizer.tokenize(string2);
+                for (boolean bagSemantics : new boolean[]{false, true}) {
+                    Jaccard jaccard = new Jaccard(tokenizer, bagSemantics);
+                    double expected = hashingJaccard(tokens1, tokens2, bagSemantics);
+                    assertEquals(expected, jaccard.calculate(string1, string2), 0.000001);
+                    assertEquals(expected, jaccard.calculate(tokens1, tokens2), 0.000001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColumnCodesEqualStrings() {
+        DictionaryColumn column = overlappingValuesColumn();
+
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            Jaccard jaccard = new Jaccard(new Tokenizer(3, true), bagSemantics);
+            assertColumnCodesEqualStrings(jaccard, column);
+
+            // Every value is tokenized once, so its token ids are cached and the tokens share ids across values
+            TokenDictionary tokenDictionary = jaccard.tokenDictionaryOf(column);
+            assertSame(tokenDictionary.getTokenIds(0), tokenDictionary.getTokenIds(0));
+            int numTokens = 0;
+            for (int code = 0; code < column.cardinality(); code++)
+                numTokens += tokenDictionary.getTokenIds(code).length;
+            assertTrue(tokenDictionary.size() < numTokens);
+            assertEquals(Tokenizer.codeOf("Big"), tokenDictionary.getTokenCode(tokenDictionary.getTokenIds(2)[2]));
+        }
+    }
+
+    private static double hashingJaccard(String[] tokens1, String[] tokens2, boolean bagSemantics) {
+        if (!bagSemantics) {
+            Set<String> intersection = new HashSet<>(Arrays.asList(tokens1));
+            intersection.retainAll(Arrays.asList(tokens2));
+            Set<String> union = new HashSet<>(Arrays.asList(tokens1));
+            union.addAll(Arrays.asList(tokens2));
+            return union.isEmpty() ? 0 : (double) intersection.size() / union.size();
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (String token : tokens1)
+            counts.merge(token, 1, Integer::sum);
+        int intersection = 0;
+        for (String token : tokens2)
+            if (counts.merge(token, -1, Integer::sum) >= 0)
+                intersection++;
+        int union = tokens1.length + tokens2.length;
+        return (union == 0) ? 0 : (double) intersection / union;
+    }
+}
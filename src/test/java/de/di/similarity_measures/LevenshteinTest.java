@@ -1,8 +1,14 @@
 package de.di.similarity_measures;
 
+import de.di.structures.ByteColumn;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.randomString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class LevenshteinTest {
 
@@ -77,4 +83,79 @@ public class LevenshteinTest {
         result = levenshtein.calculate(new String[]{"a", "", "a", "b", "c", "c", ""}, new String[]{"a", "", "a", "b", "c", "f", "e"});
         assertEquals(1 - (double) 2 / 7, result, 0.000001);
     }
+
+    @Test
+    public void testByteColumnEqualsStrings() {
+        String[] values = {"Big Data", "Big Data Systems", "Data Integration", "Database Systems", "VL Datenbanksysteme",
+                "Integrations", "Itnegratoins", "", "Caf\u00e9", "Cafe"};
+        ByteColumn.Builder builder = new ByteColumn.Builder(StandardCharsets.ISO_8859_1);
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+            builder.add(bytes, bytes.length);
+        }
+        ByteColumn column = builder.build();
+        assertTrue(column.isSingleByte());
+
+        for (boolean withDamerau : new boolean[]{false, true}) {
+            Levenshtein levenshtein = new Levenshtein(withDamerau);
+            for (int code1 = 0; code1 < values.length; code1++)
+                for (int code2 = 0; code2 < values.length; code2++)
+                    assertEquals(levenshtein.calculate(values[code1], values[code2]), levenshtein.calculate(column, code1, code2), 0.000001);
+        }
+    }
+
+    @Test
+    public void testBitVectorEqualsDynamicProgramming() {
+        // The token list variant runs the three-line DP, so single-character tokens yield the reference similarity
+        Random random = new Random(42);
+        String alphabet = "abcd\u00e9\u4e2d";
+        for (boolean withDamerau : new boolean[]{false, true}) {
+            Levenshtein levenshtein = new Levenshtein(withDamerau);
+            for (int i = 0; i < 500; i++) {
+                String string1 = randomString(random, alphabet, 1 + random.nextInt(i < 400 ? 70 : 200));
+                String string2 = randomString(random, alphabet, 1 + random.nextInt(i < 400 ? 70 : 200));
+                assertEquals(levenshtein.calculate(string1.split(""), string2.split("")), levenshtein.calculate(string1, string2), 0.000001);
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedEqualsUnboundedAboveBound() {
+        Random random = new Random(7);
+        String alphabet = "abcde";
+        for (boolean withDamerau : new boolean[]{false, true}) {
+            Levenshtein levenshtein = new Levenshtein(withDamerau);
+            for (int i = 0; i < 2000; i++) {
+                String string1 = randomString(random, alphabet, 1 + random.nextInt(i < 1500 ? 20 : 300));
+                String string2 = (random.nextBoolean()) ? mutate(random, string1, alphabet) : randomString(random, alphabet, 1 + random.nextInt(20));
+                double minSimilarity = random.nextDouble();
+                double exact = levenshtein.calculate(string1, string2);
+                double bounded = levenshtein.calculate(string1, string2, minSimilarity);
+                if (exact >= minSimilarity)
+                    assertEquals(exact, bounded, 0.000001);
+                else
+                    assertTrue(bounded < minSimilarity);
+            }
+            // Long values with a tight bound are compared in a narrow diagonal band
+            String longString = randomString(random, alphabet, 200);
+            String swapped = longString.substring(0, 100) + longString.charAt(101) + longString.charAt(100) + longString.substring(102);
+            assertEquals(levenshtein.calculate(longString, swapped), levenshtein.calculate(longString, swapped, 0.99), 0.000001);
+            assertEquals(0, levenshtein.calculate(longString, swapped + "xyz", 0.99), 0.000001);
+            // A bound that is exactly met must not be rejected
+            assertEquals(0.75, levenshtein.calculate("Data", "Date", 0.75), 0.000001);
+            assertEquals(0, levenshtein.calculate("Data", "Date", 0.76), 0.000001);
+        }
+    }
+
+    private static String mutate(Random random, String string, String alphabet) {
+        StringBuilder builder = new StringBuilder(string);
+        for (int edits = random.nextInt(1 + string.length() / 4); edits > 0 && builder.length() > 1; edits--) {
+            int position = random.nextInt(builder.length());
+            if (random.nextBoolean())
+                builder.setCharAt(position, alphabet.charAt(random.nextInt(alphabet.length())));
+            else
+                builder.deleteCharAt(position);
+        }
+        return builder.toString();
+    }
 }
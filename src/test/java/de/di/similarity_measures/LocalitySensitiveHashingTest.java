@@ -1,8 +1,12 @@
 package de.di.similarity_measures;
 
+import de.di.similarity_measures.helper.OnePermutationMinHash;
 import de.di.similarity_measures.helper.Tokenizer;
+import de.di.structures.DictionaryColumn;
 import org.junit.Test;
 
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertColumnCodesEqualStrings;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.overlappingValuesColumn;
 import static org.junit.Assert.assertEquals;
 
 public class LocalitySensitiveHashingTest {
@@ -35,6 +39,16 @@ public class LocalitySensitiveHashingTest {
         assertEquals((double) 1 / 1, result, 0.000001);
     }
 
+    @Test
+    public void testOnePermutationMinHash() {
+        Jaccard jaccard = new Jaccard(new Tokenizer(2, false), false);
+        LocalitySensitiveHashing localitySensitiveHashing = new LocalitySensitiveHashing(new Tokenizer(2, false), false, new OnePermutationMinHash(512, 42));
+
+        assertEquals(1, localitySensitiveHashing.calculate("Data Integration", "Data Integration"), 0.000001);
+        assertEquals(jaccard.calculate("Big Data Systems", "Big Data Integration"), localitySensitiveHashing.calculate("Big Data Systems", "Big Data Integration"), 0.1);
+        assertEquals(jaccard.calculate("Big Data Systems", "Data Integration"), localitySensitiveHashing.calculate("Big Data Systems", "Data Integration"), 0.1);
+    }
+
     @Test
     public void testNull() {
         LocalitySensitiveHashing localitySensitiveHashing = null;
@@ -48,4 +62,12 @@ public class LocalitySensitiveHashingTest {
         result = localitySensitiveHashing.calculate(new String[]{"aa", "", "ab", "ba", "cb", "", "da"}, new String[]{"", "bb", "ab", "ba", "cb", "fa", "eb"});
         assertEquals((double) 1 / 1, result, 0.000001);
     }
+
+    @Test
+    public void testColumnCodesEqualStrings() {
+        DictionaryColumn column = overlappingValuesColumn();
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            assertColumnCodesEqualStrings(new LocalitySensitiveHashing(new Tokenizer(2, false), bagSemantics, 2), column);
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.structures.DictionaryColumn;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertColumnCodesEqualStrings;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertEstimatesJaccard;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.overlappingValuesColumn;
+import static org.junit.Assert.assertEquals;
+
+public class MinHashJaccardTest {
+
+    @Test
+    public void testEstimatesJaccard() {
+        Random random = new Random(42);
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            Jaccard jaccard = new Jaccard(new Tokenizer(2, false), bagSemantics);
+            MinHashJaccard minHashJaccard = new MinHashJaccard(new Tokenizer(2, false), bagSemantics, 256, 7);
+
+            assertEstimatesJaccard(random, jaccard, minHashJaccard, 0.15, 0.03);
+        }
+    }
+
+    @Test
+    public void testBoundaryCases() {
+        MinHashJaccard minHashJaccard = new MinHashJaccard(new Tokenizer(3, true), false, 128, 1);
+        assertEquals(1, minHashJaccard.calculate("Data Integration", "Data Integration"), 0.000001);
+        assertEquals(0, minHashJaccard.calculate("abc", "xyz"), 0.05);
+        assertEquals(0, minHashJaccard.calculate("", "xyz"), 0.000001);
+        assertEquals(0, minHashJaccard.calculate(new String[0], new String[0]), 0.000001);
+
+        // Signatures depend only on the seed and the number of hash functions
+        MinHashJaccard sameSeed = new MinHashJaccard(new Tokenizer(3, true), false, 128, 1);
+        assertEquals(minHashJaccard.calculate("Big Data", "Big Data Systems"), sameSeed.calculate("Big Data", "Big Data Systems"), 0.000001);
+    }
+
+    @Test
+    public void testColumnCodesEqualStrings() {
+        DictionaryColumn column = overlappingValuesColumn();
+        for (int tokenSize : new int[]{2, 5}) {
+            for (boolean bagSemantics : new boolean[]{false, true}) {
+                assertColumnCodesEqualStrings(new MinHashJaccard(new Tokenizer(tokenSize, true), bagSemantics, 64, 42), column);
+            }
+        }
+    }
+}
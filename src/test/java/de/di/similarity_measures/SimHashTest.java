@@ -0,0 +1,43 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.structures.DictionaryColumn;
+import org.junit.Test;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertColumnCodesEqualStrings;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.overlappingValuesColumn;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimHashTest {
+
+    @Test
+    public void testCorrectness() {
+        SimHash simHash = new SimHash(new Tokenizer(3, true), false);
+        assertEquals(1, simHash.calculate("Data Integration", "Data Integration"), 0.000001);
+        assertEquals(0, new SimHash(new Tokenizer(3, false), false).calculate("", "Data Integration"), 0.000001);
+        assertEquals(0, simHash.calculate(new String[0], new String[]{"abc"}), 0.000001);
+
+        // A near-duplicate of a long text keeps most of the votes, an unrelated text does not
+        String text = "carefully final deposits detect slyly agains the furiously regular packages haggle";
+        String nearDuplicate = "carefully final deposits detect slyly against the furiously regular packages haggle";
+        String otherText = "quickly ironic requests sleep blithely among the bold pinto beans";
+        assertTrue(simHash.calculate(text, nearDuplicate) > 0.85);
+        assertTrue(simHash.calculate(text, nearDuplicate) > simHash.calculate(text, otherText));
+
+        // Set semantics ignore repeated tokens, bag semantics weigh them
+        assertEquals(1, simHash.calculate(new String[]{"abc", "xyz"}, new String[]{"abc", "xyz", "xyz"}), 0.000001);
+        SimHash bagSimHash = new SimHash(new Tokenizer(3, true), true);
+        assertEquals(1, bagSimHash.calculate(new String[]{"xyz"}, new String[]{"abc", "xyz", "xyz"}), 0.000001);
+        assertTrue(bagSimHash.calculate(new String[]{"abc", "xyz"}, new String[]{"abc", "xyz", "xyz"}) < 1);
+        assertEquals(SimHash.similarityOf(0b1011L, 0b0110L), 1 - 3.0 / 64, 0.000001);
+    }
+
+    @Test
+    public void testColumnCodesEqualStrings() {
+        DictionaryColumn column = overlappingValuesColumn();
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            assertColumnCodesEqualStrings(new SimHash(new Tokenizer(2, true), bagSemantics), column);
+        }
+    }
+}
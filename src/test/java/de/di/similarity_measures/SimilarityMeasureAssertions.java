@@ -0,0 +1,86 @@
+package de.di.similarity_measures;
+
+import de.di.structures.DictionaryColumn;
+import de.di.structures.EncodedColumn;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The shared fixtures and assertions of the similarity measure tests.
+ */
+public final class SimilarityMeasureAssertions {
+
+    private SimilarityMeasureAssertions() {
+    }
+
+    /**
+     * Generates a random string over the provided alphabet.
+     * @param random The source of randomness.
+     * @param alphabet The characters the string is drawn from.
+     * @param length The length of the string.
+     * @return The random string.
+     */
+    public static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return builder.toString();
+    }
+
+    /**
+     * Asserts that the estimator approximates the exact Jaccard similarity of 200 random string pairs, half of which
+     * overlap in most of their tokens.
+     * @param random The source of randomness.
+     * @param jaccard The exact Jaccard measure.
+     * @param estimator The measure that approximates the Jaccard measure.
+     * @param maxError The largest accepted error of a single pair.
+     * @param maxMeanError The largest accepted mean error over all pairs.
+     */
+    public static void assertEstimatesJaccard(Random random, Jaccard jaccard, SimilarityMeasure estimator, double maxError, double maxMeanError) {
+        double sumOfErrors = 0;
+        for (int i = 0; i < 200; i++) {
+            String string1 = randomString(random, "abcdefgh", 10 + random.nextInt(40));
+            String string2 = (i % 2 == 0) ? string1.substring(random.nextInt(5)) + randomString(random, "abcdefgh", 5) : randomString(random, "abcdefgh", 30);
+            double error = Math.abs(jaccard.calculate(string1, string2) - estimator.calculate(string1, string2));
+            assertTrue("Error " + error + " for " + string1 + " and " + string2, error < maxError);
+            sumOfErrors += error;
+        }
+        assertTrue(sumOfErrors / 200 < maxMeanError);
+    }
+
+    /**
+     * Builds a column with one record per provided value.
+     * @param values The values of the records.
+     * @return The column of the values.
+     */
+    public static DictionaryColumn columnOf(String... values) {
+        DictionaryColumn.Builder builder = new DictionaryColumn.Builder(values.length);
+        for (String value : values)
+            builder.add(value);
+        return builder.build();
+    }
+
+    /**
+     * Builds the column of short, overlapping values that the code-based calculations are tested on; it contains an
+     * empty value and a value with repeated tokens.
+     * @return The test column, whose codes follow the order of its values.
+     */
+    public static DictionaryColumn overlappingValuesColumn() {
+        return columnOf("Big Data Systems", "Data Integration", "Big Data", "", "Data Data Data");
+    }
+
+    /**
+     * Asserts that the measure calculates the same similarity for every pair of values of the column, whether the
+     * values are passed by their codes or as strings.
+     * @param measure The measure under test.
+     * @param column The column whose values are compared.
+     */
+    public static void assertColumnCodesEqualStrings(SimilarityMeasure measure, EncodedColumn column) {
+        for (int code1 = 0; code1 < column.cardinality(); code1++)
+            for (int code2 = 0; code2 < column.cardinality(); code2++)
+                assertEquals(measure.calculate(column.getValue(code1), column.getValue(code2)), measure.calculate(column, code1, code2), 0.000001);
+    }
+}
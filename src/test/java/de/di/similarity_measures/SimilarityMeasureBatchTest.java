@@ -0,0 +1,84 @@
+package de.di.similarity_measures;
+
+import de.di.similarity_measures.helper.BBitMinHash;
+import de.di.similarity_measures.helper.OnePermutationMinHash;
+import de.di.similarity_measures.helper.Tokenizer;
+import de.di.similarity_measures.structures.SparseSimilarityMatrix;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.randomString;
+import static org.junit.Assert.assertEquals;
+
+public class SimilarityMeasureBatchTest {
+
+    private static final SimilarityMeasure[] MEASURES = {
+            new Levenshtein(false),
+            new Levenshtein(true),
+            new Jaccard(new Tokenizer(2, false), false),
+            new Jaccard(new Tokenizer(6, true), true),
+            new LocalitySensitiveHashing(new Tokenizer(2, false), false, 2),
+            new LocalitySensitiveHashing(new Tokenizer(2, false), true, new OnePermutationMinHash(64, 42)),
+            new MinHashJaccard(new Tokenizer(3, true), false, new BBitMinHash(new OnePermutationMinHash(64, 42), 4)),
+            new SimHash(new Tokenizer(3, true), false)
+    };
+
+    @Test
+    public void testOneVsManyEqualsScalar() {
+        Random random = new Random(42);
+        String[] candidates = randomStrings(random, 3000);
+        double[] similarities = new double[candidates.length];
+        double[] boundedSimilarities = new double[candidates.length];
+
+        for (SimilarityMeasure measure : MEASURES) {
+            for (String query : new String[]{candidates[0], randomString(random, "abcdefgh äöü €", 100), "a", ""}) {
+                measure.calculate(query, candidates, similarities);
+                measure.calculate(query, candidates, 0.5, boundedSimilarities);
+                for (int i = 0; i < candidates.length; i++) {
+                    assertEquals(measure.calculate(query, candidates[i]), similarities[i], 0.000001);
+                    assertEquals(measure.calculate(query, candidates[i], 0.5), boundedSimilarities[i], 0.000001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testManyVsManyEqualsScalar() {
+        Random random = new Random(7);
+        String[] queries = randomStrings(random, 40);
+        String[] candidates = randomStrings(random, 60);
+
+        for (SimilarityMeasure measure : MEASURES) {
+            double[][] matrix = measure.calculateAll(queries, candidates);
+            SparseSimilarityMatrix sparseMatrix = measure.calculateAll(queries, candidates, 0.3);
+            int numAboveThreshold = 0;
+            for (int i = 0; i < queries.length; i++) {
+                for (int j = 0; j < candidates.length; j++) {
+                    double similarity = measure.calculate(queries[i], candidates[j]);
+                    assertEquals(similarity, matrix[i][j], 0.000001);
+                    assertEquals((similarity >= 0.3) ? similarity : 0, sparseMatrix.get(i, j), 0.000001);
+                    numAboveThreshold += (similarity >= 0.3) ? 1 : 0;
+                }
+            }
+            assertEquals(numAboveThreshold, sparseMatrix.size());
+        }
+    }
+
+    private static String[] randomStrings(Random random, int numStrings) {
+        String[] strings = new String[numStrings];
+        for (int i = 0; i < numStrings; i++) {
+            // Every other string is a variant of an earlier one, so that some similarities are high
+            if (i % 2 == 1) {
+                char[] chars = strings[random.nextInt(i)].toCharArray();
+                if (chars.length > 0)
+                    chars[random.nextInt(chars.length)] = 'x';
+                strings[i] = new String(chars);
+            }
+            else {
+                strings[i] = randomString(random, "abcdefgh äöü €", random.nextInt(90));
+            }
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,63 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.Jaccard;
+import de.di.similarity_measures.MinHashJaccard;
+import de.di.structures.DictionaryColumn;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertColumnCodesEqualStrings;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertEstimatesJaccard;
+import static de.di.similarity_measures.SimilarityMeasureAssertions.overlappingValuesColumn;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BBitMinHashTest {
+
+    @Test
+    public void testPacking() {
+        BBitMinHash bBitMinHash = new BBitMinHash(new UniversalMinHash(10, 42), 3);
+        long[] packedSignature = bBitMinHash.pack(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        assertEquals(1, packedSignature.length);
+        assertEquals(1L | 2L << 3 | 3L << 6 | 4L << 9 | 5L << 12 | 6L << 15 | 7L << 18 | 0L << 21 | 1L << 24 | 2L << 27, packedSignature[0]);
+
+        // 64 slots of 5 bits take 6 words, of which the last one holds only 4 slots
+        bBitMinHash = new BBitMinHash(new UniversalMinHash(64, 42), 5);
+        assertEquals(6, bBitMinHash.pack(new int[64]).length);
+        int[] signature = new int[64];
+        int[] otherSignature = new int[64];
+        for (int slot = 0; slot < 64; slot++) {
+            signature[slot] = slot;
+            otherSignature[slot] = (slot % 2 == 0) ? slot : slot + 1;
+        }
+        assertArrayEquals(bBitMinHash.pack(signature), bBitMinHash.pack(signature.clone()));
+        assertEquals(1, bBitMinHash.estimate(bBitMinHash.pack(signature), bBitMinHash.pack(signature)), 0.000001);
+        assertEquals((0.5 - 1.0 / 32) / (1 - 1.0 / 32), bBitMinHash.estimate(bBitMinHash.pack(signature), bBitMinHash.pack(otherSignature)), 0.000001);
+    }
+
+    @Test
+    public void testEstimatesJaccard() {
+        Random random = new Random(42);
+        for (int numBits : new int[]{1, 2, 4, 8}) {
+            Jaccard jaccard = new Jaccard(new Tokenizer(2, false), false);
+            MinHashJaccard minHashJaccard = new MinHashJaccard(new Tokenizer(2, false), false, new BBitMinHash(new UniversalMinHash(512, 7), numBits));
+
+            assertEstimatesJaccard(random, jaccard, minHashJaccard, 0.2, 0.05);
+        }
+    }
+
+    @Test
+    public void testColumnCodesEqualStrings() {
+        DictionaryColumn column = overlappingValuesColumn();
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            MinHashJaccard minHashJaccard = new MinHashJaccard(new Tokenizer(2, true), bagSemantics, new BBitMinHash(new OnePermutationMinHash(128, 42), 2));
+            assertColumnCodesEqualStrings(minHashJaccard, column);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumBits() {
+        new BBitMinHash(new UniversalMinHash(64, 42), 17);
+    }
+}
@@ -0,0 +1,57 @@
+package de.di.similarity_measures.helper;
+
+import de.di.structures.DictionaryColumn;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.columnOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnCacheTest {
+
+    @Test
+    public void testCalculatesEveryValueOnce() {
+        DictionaryColumn column = columnOf("Big Data", "", "Data Integration");
+
+        AtomicInteger numCalculations = new AtomicInteger();
+        ColumnCache<long[]> cache = new ColumnCache<>(new Tokenizer(2, false), (c, tokenDictionary, code) -> {
+            numCalculations.incrementAndGet();
+            long[] tokenCodes = tokenDictionary.getTokenCodes(code);
+            return (tokenCodes.length == 0) ? null : tokenCodes;
+        });
+
+        for (int round = 0; round < 2; round++)
+            for (int code = 0; code < column.cardinality(); code++)
+                if (column.getValue(code).isEmpty())
+                    assertNull(cache.get(column, code));
+                else
+                    assertSame(cache.get(column, code), cache.get(column, code));
+        assertEquals(column.cardinality(), numCalculations.get());
+        assertSame(cache.tokenDictionaryOf(column), cache.tokenDictionaryOf(column));
+    }
+
+    @Test
+    public void testDoesNotKeepColumnsAlive() throws InterruptedException {
+        ColumnCache<int[]> cache = new ColumnCache<>(new Tokenizer(2, false), (c, tokenDictionary, code) -> tokenDictionary.getTokenIds(code));
+        WeakReference<DictionaryColumn> column = cachedColumn(cache);
+
+        for (int attempt = 0; attempt < 50 && column.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(column.get());
+    }
+
+    private static WeakReference<DictionaryColumn> cachedColumn(ColumnCache<int[]> cache) {
+        DictionaryColumn.Builder builder = new DictionaryColumn.Builder(1);
+        builder.add("Data Integration");
+        DictionaryColumn column = builder.build();
+        assertTrue(cache.get(column, 0).length > 0);
+        return new WeakReference<>(column);
+    }
+}
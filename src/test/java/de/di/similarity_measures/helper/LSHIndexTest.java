@@ -0,0 +1,70 @@
+package de.di.similarity_measures.helper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.randomString;
+import static org.junit.Assert.*;
+
+public class LSHIndexTest {
+
+    @Test
+    public void testFindsNearDuplicates() {
+        Random random = new Random(42);
+        int numValues = 2000;
+        String[] values = new String[numValues];
+        for (int i = 0; i < numValues; i += 2) {
+            values[i] = randomString(random, "abcdefghijklmnopqrstuvwxyz", 30);
+            // Every odd value is a near-duplicate of its predecessor with one replaced character
+            char[] chars = values[i].toCharArray();
+            chars[random.nextInt(chars.length)] = '#';
+            values[i + 1] = new String(chars);
+        }
+
+        LSHIndex index = LSHIndex.forThreshold(new Tokenizer(3, false), 0.6, 128, 42);
+        assertEquals(0, index.addAll(values));
+        assertEquals(numValues, index.getSize());
+
+        // The near-duplicates have a Jaccard similarity of about 0.8, so LSH finds almost all, but not necessarily all
+        long[] pairs = index.allCandidatePairs();
+        int numFoundPairs = 0;
+        for (int i = 0; i < numValues; i += 2) {
+            int[] candidates = index.query(values[i]);
+            assertTrue(Arrays.binarySearch(candidates, i) >= 0);
+            boolean isCandidatePair = Arrays.binarySearch(pairs, ((long) i << 32) | (i + 1)) >= 0;
+            assertEquals(isCandidatePair, Arrays.binarySearch(candidates, i + 1) >= 0);
+            numFoundPairs += isCandidatePair ? 1 : 0;
+        }
+        assertTrue(numFoundPairs >= 0.95 * numValues / 2);
+        // Random values are almost never candidates, so there are far fewer candidates than pairs
+        assertTrue(pairs.length < 2 * numValues);
+        for (long pair : pairs)
+            assertTrue(LSHIndex.firstIdOf(pair) < LSHIndex.secondIdOf(pair));
+    }
+
+    @Test
+    public void testBandsAndRowsForThreshold() {
+        int[] lowThreshold = LSHIndex.bandsAndRowsFor(0.3, 128);
+        int[] highThreshold = LSHIndex.bandsAndRowsFor(0.8, 128);
+        assertTrue(lowThreshold[0] * lowThreshold[1] <= 128);
+        assertTrue(highThreshold[0] * highThreshold[1] <= 128);
+
+        // The steep part of the S-curve, (1/b)^(1/r), lies close to the threshold
+        assertEquals(0.3, Math.pow(1.0 / lowThreshold[0], 1.0 / lowThreshold[1]), 0.1);
+        assertEquals(0.8, Math.pow(1.0 / highThreshold[0], 1.0 / highThreshold[1]), 0.1);
+    }
+
+    @Test
+    public void testCustomScheme() {
+        LSHIndex index = new LSHIndex(new Tokenizer(3, false), 16, 4, new OnePermutationMinHash(64, 42));
+        index.addAll(new String[]{"Data Integration", "Data Integrations", "Big Data Systems"});
+        assertArrayEquals(new int[]{0, 1}, index.query("Data Integration"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSchemeSizeMustMatchBandsAndRows() {
+        new LSHIndex(new Tokenizer(3, false), 16, 4, new OnePermutationMinHash(32, 42));
+    }
+}
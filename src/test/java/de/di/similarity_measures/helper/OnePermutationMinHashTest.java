@@ -0,0 +1,42 @@
+package de.di.similarity_measures.helper;
+
+import de.di.similarity_measures.Jaccard;
+import de.di.similarity_measures.MinHashJaccard;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static de.di.similarity_measures.SimilarityMeasureAssertions.assertEstimatesJaccard;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OnePermutationMinHashTest {
+
+    @Test
+    public void testDensification() {
+        OnePermutationMinHash minHash = new OnePermutationMinHash(64, 42);
+        LongArrayList tokenCodes = new LongArrayList();
+
+        // A single token fills one bin; densification copies its value into all other bins
+        int[] signature = minHash.signature(new Tokenizer(3, false).tokenize("abc", tokenCodes), false);
+        assertEquals(64, signature.length);
+        for (int slot : signature)
+            assertEquals(signature[0], slot);
+
+        signature = minHash.signature(new Tokenizer(2, false).tokenize("abcdef", tokenCodes), false);
+        for (int slot : signature)
+            assertTrue(slot >= 0);
+    }
+
+    @Test
+    public void testEstimatesJaccard() {
+        Random random = new Random(42);
+        for (boolean bagSemantics : new boolean[]{false, true}) {
+            Jaccard jaccard = new Jaccard(new Tokenizer(2, false), bagSemantics);
+            MinHashJaccard minHashJaccard = new MinHashJaccard(new Tokenizer(2, false), bagSemantics, new OnePermutationMinHash(256, 7));
+
+            assertEstimatesJaccard(random, jaccard, minHashJaccard, 0.2, 0.05);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package de.di.similarity_measures.helper;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SimHashIndexTest {
+
+    @Test
+    public void testEqualsPairwiseScan() {
+        Random random = new Random(42);
+        long[] fingerprints = new long[3000];
+        for (int i = 0; i < fingerprints.length; i++) {
+            // Every third fingerprint flips up to five random bits of a previous one
+            fingerprints[i] = (i % 3 == 0 || i == 1) ? random.nextLong() : fingerprints[random.nextInt(i)];
+            if (i % 3 != 0)
+                for (int flip = random.nextInt(6); flip > 0; flip--)
+                    fingerprints[i] ^= 1L << random.nextInt(64);
+        }
+
+        for (int maxDistance : new int[]{0, 3, 6}) {
+            SimHashIndex index = new SimHashIndex(maxDistance);
+            for (long fingerprint : fingerprints)
+                index.add(fingerprint);
+            assertEquals(fingerprints.length, index.size());
+
+            LongArrayList expectedPairs = new LongArrayList();
+            for (int i = 0; i < fingerprints.length; i++)
+                for (int j = i + 1; j < fingerprints.length; j++)
+                    if (Long.bitCount(fingerprints[i] ^ fingerprints[j]) <= maxDistance)
+                        expectedPairs.add(((long) i << 32) | j);
+            assertArrayEquals(expectedPairs.toLongArray(), index.allPairs());
+
+            for (int i = 0; i < 100; i++) {
+                IntArrayList expectedIds = new IntArrayList();
+                for (int j = 0; j < fingerprints.length; j++)
+                    if (Long.bitCount(fingerprints[i] ^ fingerprints[j]) <= maxDistance)
+                        expectedIds.add(j);
+                assertArrayEquals(expectedIds.toIntArray(), index.query(fingerprints[i]));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxDistance() {
+        new SimHashIndex(64);
+    }
+}
@@ -1,9 +1,14 @@
 package de.di.similarity_measures.helper;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TokenizerTest {
 
@@ -75,4 +80,31 @@ public class TokenizerTest {
         test = new String[]{p + p + p, p + p + p};
         assertArrayEquals(test, result);
     }
+
+    @Test
+    public void testCodesMatchTokens() {
+        String[] strings = {"Integration", "Big Data Systems", "aaaaaaaa", "ab", "", "Datenbanksysteme Datenbank"};
+        LongArrayList codes = new LongArrayList();
+        for (int tokenSize = 1; tokenSize <= 7; tokenSize++) {
+            for (boolean usePadding : new boolean[]{false, true}) {
+                Tokenizer tokenizer = new Tokenizer(tokenSize, usePadding);
+                assertEquals(tokenSize <= Tokenizer.MAX_PACKED_TOKEN_SIZE, tokenizer.hasExactCodes());
+
+                // Two tokens must have the same code if and only if they are equal
+                Map<String, Long> codesByToken = new HashMap<>();
+                Map<Long, String> tokensByCode = new HashMap<>();
+                for (String string : strings) {
+                    String[] tokens = tokenizer.tokenize(string);
+                    tokenizer.tokenize(string, codes);
+                    assertEquals(tokens.length, codes.size());
+                    for (int i = 0; i < tokens.length; i++) {
+                        Long code = codesByToken.putIfAbsent(tokens[i], codes.getLong(i));
+                        String token = tokensByCode.putIfAbsent(codes.getLong(i), tokens[i]);
+                        assertTrue(code == null || code == codes.getLong(i));
+                        assertTrue(token == null || token.equals(tokens[i]));
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package de.di.structures;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ByteColumnTest {
+
+    @Test
+    public void testEncoding() {
+        ByteColumn column = build(StandardCharsets.ISO_8859_1, "b", "a", "b", "", "c", "ä");
+
+        assertEquals(6, column.size());
+        assertEquals(5, column.cardinality());
+        assertTrue(column.isSingleByte());
+        assertArrayEquals(new int[]{0, 1, 0, 2, 3, 4}, column.getCodes());
+        assertEquals(1, column.getValueLength(4));
+        assertEquals("ä", column.get(5));
+        assertArrayEquals(new String[]{"b", "a", "", "c", "ä"}, column.getDictionary());
+        assertArrayEquals(new String[]{"b", "a", "b", "", "c", "ä"}, column.decode());
+    }
+
+    @Test
+    public void testSingleByteDetection() {
+        assertTrue(build(StandardCharsets.UTF_8, "ascii", "only").isSingleByte());
+        assertFalse(build(StandardCharsets.UTF_8, "ascii", "ä").isSingleByte());
+        assertEquals("ä", build(StandardCharsets.UTF_8, "ascii", "ä").getValue(1));
+    }
+
+    @Test
+    public void testConcat() {
+        ByteColumn column = ByteColumn.concat(List.of(
+                build(StandardCharsets.ISO_8859_1, "x", "y"),
+                build(StandardCharsets.ISO_8859_1, "z", "x")));
+
+        assertArrayEquals(new int[]{0, 1, 2, 0}, column.getCodes());
+        assertArrayEquals(new String[]{"x", "y", "z"}, column.getDictionary());
+    }
+
+    private static ByteColumn build(Charset charset, String... values) {
+        ByteColumn.Builder builder = new ByteColumn.Builder(charset);
+        for (String value : values) {
+            byte[] bytes = value.getBytes(charset);
+            builder.add(bytes, bytes.length);
+        }
+        return builder.build();
+    }
+}
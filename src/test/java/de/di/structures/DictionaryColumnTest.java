@@ -0,0 +1,22 @@
+package de.di.structures;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DictionaryColumnTest {
+
+    @Test
+    public void testEncoding() {
+        String[] values = new String[]{"b", "a", "b", null, "c", "a"};
+        DictionaryColumn column = DictionaryColumn.encode(values);
+
+        assertEquals(6, column.size());
+        assertEquals(4, column.cardinality());
+        assertArrayEquals(new String[]{"b", "a", "", "c"}, column.getDictionary());
+        assertArrayEquals(new int[]{0, 1, 0, 2, 3, 1}, column.getCodes());
+        assertEquals("c", column.get(4));
+        assertArrayEquals(new String[]{"b", "a", "b", "", "c", "a"}, column.decode());
+    }
+}
@@ -0,0 +1,81 @@
+package de.di.structures;
+
+import de.di.Relation;
+import de.di.data_profiling.UCCProfiler;
+import de.di.data_profiling.structures.AttributeList;
+import de.di.data_profiling.structures.UCC;
+import de.di.helper.RelationReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapColumnTest {
+
+    @Test
+    public void testEncoding() throws IOException {
+        OffHeapColumn.Builder builder = new OffHeapColumn.Builder(StandardCharsets.UTF_8, Files.createTempDirectory("offheap"));
+        for (String value : new String[]{"b", "a", "b", null, "c", "ä"})
+            builder.add(value);
+        OffHeapColumn column = builder.build();
+
+        assertEquals(6, column.size());
+        assertEquals(5, column.cardinality());
+        assertArrayEquals(new String[]{"b", "a", "", "c", "ä"}, column.getDictionary());
+        assertArrayEquals(new int[]{0, 1, 0, 2, 3, 4}, column.getCodes());
+        assertEquals("c", column.get(4));
+        assertArrayEquals(new String[]{"b", "a", "b", "", "c", "ä"}, column.decode());
+        assertTrue(column.getOffHeapBytes() > 0);
+    }
+
+    @Test
+    public void testBlocksDoNotCrossSegments() throws IOException {
+        MappedStore store = new MappedStore(Files.createTempDirectory("offheap"));
+        byte[] block = new byte[MappedStore.SEGMENT_SIZE / 2];
+        block[block.length - 1] = 42;
+
+        long first = store.appendBlock(block, block.length);
+        long second = store.appendBlock(block, block.length);
+        assertEquals(0, first);
+        assertEquals(MappedStore.SEGMENT_SIZE, second);
+
+        byte[] read = new byte[store.getBlockLength(second)];
+        store.getBlock(second, read);
+        assertArrayEquals(block, read);
+        assertTrue(store.blockEquals(first, block, block.length));
+        store.seal();
+    }
+
+    @Test
+    public void testOffHeapRelationEqualsHeapRelation() throws IOException {
+        Path filePath = Path.of("data", "data_profiling", "tpch_supplier.csv");
+        Relation heap = new RelationReader(true, ';', StandardCharsets.UTF_8, 2, null).read(filePath);
+        Relation offHeap = new RelationReader(true, ';', StandardCharsets.UTF_8, 2, null, Files.createTempDirectory("offheap")).read(filePath);
+
+        assertArrayEquals(heap.getAttributes(), offHeap.getAttributes());
+        assertEquals(heap.getNumRecords(), offHeap.getNumRecords());
+        for (int i = 0; i < heap.getAttributes().length; i++) {
+            assertTrue(offHeap.getEncodedColumn(i) instanceof OffHeapColumn);
+            assertArrayEquals(heap.getDictionary(i), offHeap.getDictionary(i));
+            assertArrayEquals(heap.getCodes(i), offHeap.getCodes(i));
+        }
+        assertArrayEquals(heap.getRecords(), offHeap.getRecords());
+        assertTrue(offHeap.getMemoryFootprint().getOffHeapBytes() > 0);
+
+        // Profiling reads the off-heap codes in place and finds the same UCCs
+        UCCProfiler profiler = new UCCProfiler();
+        assertEquals(attributeListsOf(profiler.profile(heap)), attributeListsOf(profiler.profile(offHeap)));
+    }
+
+    private static List<AttributeList> attributeListsOf(List<UCC> uccs) {
+        return uccs.stream().map(UCC::getAttributeList).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,58 @@
+package de.di.structures;
+
+import de.di.Relation;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+public class TypedColumnTest {
+
+    @Test
+    public void testTypeInference() {
+        assertEquals(ColumnType.INTEGER, TypedColumn.infer(DictionaryColumn.encode(new String[]{"3", "-12", "", "3"})).getType());
+        assertEquals(ColumnType.DECIMAL, TypedColumn.infer(DictionaryColumn.encode(new String[]{"3", "-1.5", "2.25"})).getType());
+        assertEquals(ColumnType.DATE, TypedColumn.infer(DictionaryColumn.encode(new String[]{"1995-03-15", ""})).getType());
+        assertEquals(ColumnType.STRING, TypedColumn.infer(DictionaryColumn.encode(new String[]{"1995-02-30"})).getType());
+        assertEquals(ColumnType.STRING, TypedColumn.infer(DictionaryColumn.encode(new String[]{"3", "1995-03-15"})).getType());
+        assertEquals(ColumnType.STRING, TypedColumn.infer(DictionaryColumn.encode(new String[]{"3", "NaN"})).getType());
+        assertEquals(ColumnType.STRING, TypedColumn.infer(DictionaryColumn.encode(new String[]{"", ""})).getType());
+    }
+
+    @Test
+    public void testTypedAccessorsAndRanges() {
+        TypedColumn integers = TypedColumn.infer(DictionaryColumn.encode(new String[]{"3", "-12", "", "3"}));
+        assertEquals(3, integers.getLong(0));
+        assertEquals(-12, integers.getLong(1));
+        assertTrue(integers.isNull(2));
+        assertFalse(integers.isNull(3));
+        assertEquals(-12.0, integers.getMin(), 0.0);
+        assertEquals(3.0, integers.getMax(), 0.0);
+
+        TypedColumn dates = TypedColumn.infer(DictionaryColumn.encode(new String[]{"1995-03-15"}));
+        assertEquals(LocalDate.of(1995, 3, 15).toEpochDay(), dates.getLong(0));
+
+        TypedColumn decimals = TypedColumn.infer(DictionaryColumn.encode(new String[]{"-20", "7.5"}));
+        assertEquals(7.5, decimals.getDouble(1), 0.0);
+        assertTrue(integers.isWithinRangeOf(decimals));
+        assertFalse(decimals.isWithinRangeOf(integers));
+        assertFalse(integers.isWithinRangeOf(dates));
+        assertTrue(integers.isWithinRangeOf(TypedColumn.infer(DictionaryColumn.encode(new String[]{"a"}))));
+    }
+
+    @Test
+    public void testRelationTypes_tpch_supplier() {
+        Relation supplier = new Relation("data" + File.separator + "data_profiling" + File.separator + "tpch_supplier.csv").inferTypes();
+        assertEquals(ColumnType.INTEGER, supplier.getType(0));
+        assertEquals(ColumnType.STRING, supplier.getType(1));
+        assertEquals(ColumnType.INTEGER, supplier.getType(3));
+        assertEquals(ColumnType.DECIMAL, supplier.getType(5));
+
+        assertEquals(1, supplier.getLong(0, 0));
+        assertEquals(17, supplier.getLong(3, 0));
+        assertEquals(5755.94, supplier.getDouble(5, 0), 0.0);
+        assertSame(supplier.getTypedColumn(5), supplier.getTypedColumn(5));
+    }
+}
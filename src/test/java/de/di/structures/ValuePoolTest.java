@@ -0,0 +1,55 @@
+package de.di.structures;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ValuePoolTest {
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testInterningSharesInstances() {
+        ValuePool pool = new ValuePool(StandardCharsets.UTF_8);
+        byte[] buffer = bytes("GERMANY....");
+
+        String first = pool.intern(buffer, 7);
+        String second = pool.intern(bytes("GERMANY"), 7);
+        assertEquals("GERMANY", first);
+        assertSame(first, second);
+        assertEquals(0, pool.add(buffer, 7));
+        assertEquals(1, pool.add(bytes("FRANCE"), 6));
+        assertEquals(2, pool.add(bytes("ä"), 2));
+        assertArrayEquals(new String[]{"GERMANY", "FRANCE", "ä"}, pool.toArray());
+
+        ValuePool stringPool = new ValuePool(StandardCharsets.UTF_8);
+        String value = new String("PERU");
+        assertSame(value, stringPool.intern(value));
+        assertSame(value, stringPool.intern(new String("PERU")));
+        assertNull(stringPool.intern((String) null));
+    }
+
+    @Test
+    public void testFallbackWhenCapacityIsExceeded() {
+        ValuePool pool = new ValuePool(StandardCharsets.UTF_8, 100);
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, pool.add(bytes("v" + i), bytes("v" + i).length));
+        assertFalse(pool.isSaturated());
+
+        assertEquals(-1, pool.add(bytes("v100"), 4));
+        assertTrue(pool.isSaturated());
+        assertEquals("v7", pool.intern(bytes("v7"), 2));
+        assertNotSame(pool.intern(bytes("v7"), 2), pool.intern(bytes("v7"), 2));
+
+        ValuePool stringPool = new ValuePool(StandardCharsets.UTF_8, 2);
+        stringPool.intern("a");
+        stringPool.intern("b");
+        assertFalse(stringPool.isSaturated());
+        stringPool.intern("c");
+        assertTrue(stringPool.isSaturated());
+    }
+}